@@ -0,0 +1,83 @@
+#!/bin/bash
+
+# Threads, memory and latency of the backend under many slow concurrent clients.
+# Starts the given command, opens CLIENTS connections that upload a POST /api/validate body
+# at RATE bytes per second (each holds a request in flight), then samples the JVM thread
+# count and resident memory and times regular GET /api/devices requests meanwhile.
+# Run it with different settings to compare them, e.g. the small-box profile (small worker
+# pool, non-blocking body reads) against the defaults (blocking reads on a pool of 200).
+#
+# Usage (from the backend directory):
+#   scripts/measure-concurrency.sh java -jar target/dm-web-config-1.0.0.jar --spring.profiles.active=small-box
+#   scripts/measure-concurrency.sh java -jar target/dm-web-config-1.0.0.jar
+#   scripts/measure-concurrency.sh java -jar target/dm-web-config-1.0.0.jar --spring.threads.virtual.enabled=true
+#
+# Environment: CLIENTS (default 150), RATE (default 256), BODY_BYTES (default 4096),
+#              SAMPLE seconds (default 10), PORT (default 8080)
+
+CLIENTS=${CLIENTS:-150}
+RATE=${RATE:-256}
+BODY_BYTES=${BODY_BYTES:-4096}
+SAMPLE=${SAMPLE:-10}
+PORT=${PORT:-8080}
+BASE="http://localhost:${PORT}/api"
+
+if [ $# -eq 0 ]; then
+    echo "Usage: $0 <command starting the backend>" >&2
+    exit 1
+fi
+
+if curl -s -o /dev/null "$BASE/devices"; then
+    echo "Something is already answering on port ${PORT}" >&2
+    exit 1
+fi
+
+"$@" --server.port="$PORT" > /tmp/dm-concurrency-run.log 2>&1 &
+pid=$!
+cleanup() {
+    jobs -p | xargs -r kill 2>/dev/null
+    wait 2>/dev/null
+}
+trap cleanup EXIT
+
+for _ in $(seq 1 600); do
+    [ "$(curl -s -o /dev/null -w '%{http_code}' "$BASE/devices")" = "200" ] && break
+    kill -0 "$pid" 2>/dev/null || { echo "Backend exited, see /tmp/dm-concurrency-run.log" >&2; exit 1; }
+    sleep 0.1
+done
+
+status() {
+    awk -v key="$1" '$1 == key":" { print $2 }' "/proc/${pid}/status"
+}
+echo "Idle: $(status Threads) threads, $(( $(status VmRSS) / 1024 )) MB resident"
+
+body=/tmp/dm-concurrency-body.json
+padding=$(head -c "$BODY_BYTES" /dev/zero | tr '\0' 'x')
+printf '{"configType":"properties","data":{"padding":"%s"}}' "$padding" > "$body"
+for _ in $(seq 1 "$CLIENTS"); do
+    curl -s -o /dev/null --limit-rate "$RATE" -H 'Content-Type: application/json' \
+        --data-binary @"$body" "$BASE/validate" &
+done
+sleep 2
+
+peak_threads=0
+peak_rss=0
+worst=0
+total=0
+samples=0
+end=$(( $(date +%s) + SAMPLE ))
+while [ "$(date +%s)" -lt "$end" ]; do
+    threads=$(status Threads)
+    rss=$(status VmRSS)
+    [ "$threads" -gt "$peak_threads" ] && peak_threads=$threads
+    [ "$rss" -gt "$peak_rss" ] && peak_rss=$rss
+
+    ms=$(curl -s -o /dev/null -m 30 -w '%{time_total}' "$BASE/devices" | awk '{ printf "%d", $1 * 1000 }')
+    [ "$ms" -gt "$worst" ] && worst=$ms
+    total=$((total + ms))
+    samples=$((samples + 1))
+    sleep 0.5
+done
+
+echo "With ${CLIENTS} slow clients: ${peak_threads} threads, $(( peak_rss / 1024 )) MB resident (peak)"
+echo "GET /api/devices meanwhile: $(( total / samples )) ms average, ${worst} ms worst over ${samples} requests"
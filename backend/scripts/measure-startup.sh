@@ -0,0 +1,59 @@
+#!/bin/bash
+
+# Startup time of the backend: from JVM launch to the first 200 response on /api/devices.
+# Starts the given command RUNS times (default 5) and prints each time and the median.
+#
+# Usage (from the backend directory):
+#   scripts/measure-startup.sh java -jar target/dm-web-config-1.0.0.jar
+#   scripts/measure-startup.sh java -XX:SharedArchiveFile=target/app.jsa -Dspring.aot.enabled=true \
+#       -Dspring.main.lazy-initialization=true -jar target/dm-web-config-1.0.0.jar
+#
+# Environment: RUNS, PORT (default 8080), TIMEOUT in seconds per run (default 60)
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-8080}
+TIMEOUT=${TIMEOUT:-60}
+URL="http://localhost:${PORT}/api/devices"
+
+if [ $# -eq 0 ]; then
+    echo "Usage: $0 <command starting the backend>" >&2
+    exit 1
+fi
+
+if curl -s -o /dev/null "$URL"; then
+    echo "Something is already answering on port ${PORT}" >&2
+    exit 1
+fi
+
+times=()
+for run in $(seq 1 "$RUNS"); do
+    start=$(date +%s%N)
+    "$@" --server.port="$PORT" > /tmp/dm-startup-run.log 2>&1 &
+    pid=$!
+
+    elapsed=""
+    deadline=$((start + TIMEOUT * 1000000000))
+    while [ "$(date +%s%N)" -lt "$deadline" ]; do
+        if [ "$(curl -s -o /dev/null -w '%{http_code}' "$URL")" = "200" ]; then
+            elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+            break
+        fi
+        if ! kill -0 "$pid" 2>/dev/null; then
+            break
+        fi
+        sleep 0.02
+    done
+
+    kill "$pid" 2>/dev/null
+    wait "$pid" 2>/dev/null
+
+    if [ -z "$elapsed" ]; then
+        echo "Run ${run}: no response from ${URL}, see /tmp/dm-startup-run.log" >&2
+        exit 1
+    fi
+    echo "Run ${run}: ${elapsed} ms"
+    times+=("$elapsed")
+done
+
+median=$(printf '%s\n' "${times[@]}" | sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }')
+echo "Median over ${RUNS} runs: ${median} ms"
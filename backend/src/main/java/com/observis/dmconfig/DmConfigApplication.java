@@ -1,5 +1,13 @@
 package com.observis.dmconfig;
 
+import com.observis.dmconfig.service.ConfigHistoryStore;
+import com.observis.dmconfig.service.DeviceMappings;
+import com.observis.dmconfig.service.DeviceRegistry;
+import com.observis.dmconfig.service.StartupWarmup;
+import com.observis.dmconfig.validation.ValidationRules;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
@@ -19,5 +27,30 @@ public class DmConfigApplication {
     public ObjectMapper objectMapper() {
         return new ObjectMapper();
     }
-}
 
+    /**
+     * Optional startup phase preloading all configuration files (dm.warmup.enabled).
+     * Runners finish before Spring Boot reports readiness (ACCEPTING_TRAFFIC), so the
+     * application only becomes ready once the warm-up is done. The flag is read at run
+     * time rather than through a bean condition, which AOT processing would fix at build time.
+     */
+    @Bean
+    public ApplicationRunner startupWarmupRunner(StartupWarmup startupWarmup,
+                                                 @Value("${dm.warmup.enabled:false}") boolean enabled) {
+        return args -> {
+            if (enabled) {
+                startupWarmup.run();
+            }
+        };
+    }
+
+    /**
+     * Beans kept eager under spring.main.lazy-initialization: descriptor loaders that should
+     * fail startup on a bad file, and components that watch files or schedule background work.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerComponents() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DeviceMappings.class, ValidationRules.class,
+                DeviceRegistry.class, ConfigHistoryStore.class);
+    }
+}
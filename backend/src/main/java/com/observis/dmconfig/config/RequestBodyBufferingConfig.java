@@ -0,0 +1,249 @@
+package com.observis.dmconfig.config;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking request body reads (dm.web.body-buffering.enabled)
+ *
+ * Tomcat reads request bodies with blocking I/O on a worker thread, so a client that
+ * uploads slowly holds a worker for the whole upload; with a small pool a few slow
+ * clients starve everyone else. This filter reads the body with a servlet ReadListener
+ * instead, which only takes a thread while bytes are actually available, and hands the
+ * buffered request to Spring MVC through an async dispatch once it is complete.
+ *
+ * Buffered bodies live on the heap until their request completes, so both the size of one
+ * body (max-bytes, config payloads are a few KB) and the bytes buffered at once across all
+ * requests (max-total-bytes) are capped. A request that does not fit in the remaining total
+ * is read the usual blocking way instead, streamed straight into Jackson.
+ *
+ * Off by default; the small-box profile turns it on together with a small worker pool.
+ * Only installed on a real web server: mock requests (MockMvc) are already in memory.
+ */
+@Configuration
+public class RequestBodyBufferingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestBodyBufferingConfig.class);
+
+    @Bean
+    public FilterRegistrationBean<BodyBufferingFilter> bodyBufferingFilter(
+            ApplicationContext applicationContext,
+            @Value("${dm.web.body-buffering.enabled:false}") boolean enabled,
+            @Value("${dm.web.body-buffering.max-bytes:262144}") int maxBytes,
+            @Value("${dm.web.body-buffering.max-total-bytes:4194304}") int maxTotalBytes,
+            @Value("${dm.web.body-buffering.timeout-ms:60000}") long timeoutMs) {
+        FilterRegistrationBean<BodyBufferingFilter> registration =
+                new FilterRegistrationBean<>(new BodyBufferingFilter(maxBytes, maxTotalBytes, timeoutMs));
+        // Decided at run time rather than through a bean condition, which AOT would fix at build time
+        registration.setEnabled(enabled && applicationContext instanceof WebServerApplicationContext);
+        registration.setDispatcherTypes(DispatcherType.REQUEST);
+        registration.setAsyncSupported(true);
+        return registration;
+    }
+
+    /**
+     * Buffers request bodies without blocking, then dispatches the buffered request
+     */
+    static class BodyBufferingFilter implements Filter {
+
+        private final int maxBytes;
+        private final long timeoutMs;
+        // One permit per byte that may be buffered at once, across all requests
+        private final Semaphore budget;
+
+        BodyBufferingFilter(int maxBytes, int maxTotalBytes, long timeoutMs) {
+            this.maxBytes = maxBytes;
+            this.timeoutMs = timeoutMs;
+            this.budget = new Semaphore(maxTotalBytes);
+        }
+
+        @Override
+        public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+                throws IOException, ServletException {
+            HttpServletRequest request = (HttpServletRequest) req;
+            if (!hasBody(request) || !request.isAsyncSupported()) {
+                chain.doFilter(req, res);
+                return;
+            }
+            HttpServletResponse response = (HttpServletResponse) res;
+            long contentLength = request.getContentLengthLong();
+            if (contentLength > maxBytes) {
+                response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                return;
+            }
+            // Chunked bodies have no length up front and may grow up to max-bytes
+            int reserved = contentLength >= 0 ? (int) contentLength : maxBytes;
+            if (!budget.tryAcquire(reserved)) {
+                chain.doFilter(req, res);
+                return;
+            }
+            AtomicBoolean released = new AtomicBoolean();
+            Runnable release = () -> {
+                if (released.compareAndSet(false, true)) {
+                    budget.release(reserved);
+                }
+            };
+
+            BufferedBodyRequest buffered = new BufferedBodyRequest(request);
+            AsyncContext async;
+            try {
+                async = request.startAsync(buffered, response);
+            } catch (RuntimeException e) {
+                release.run();
+                throw e;
+            }
+            async.setTimeout(timeoutMs);
+            async.addListener(new AsyncListener() {
+                @Override
+                public void onTimeout(AsyncEvent event) throws IOException {
+                    fail(async, HttpServletResponse.SC_REQUEST_TIMEOUT, "timed out");
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    release.run();
+                }
+
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    // The dispatched request is done with the buffered body
+                    release.run();
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+
+            ServletInputStream input = request.getInputStream();
+            input.setReadListener(new ReadListener() {
+                private final ByteArrayOutputStream body = new ByteArrayOutputStream(
+                        Math.min(Math.max(reserved, 256), 65536));
+                private final byte[] chunk = new byte[8192];
+
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (input.isReady()) {
+                        int read = input.read(chunk);
+                        if (read < 0) {
+                            return;
+                        }
+                        body.write(chunk, 0, read);
+                        if (body.size() > reserved) {
+                            fail(async, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "too large");
+                            return;
+                        }
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    buffered.body = body.toByteArray();
+                    async.dispatch();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    logger.debug("Request body could not be read: {}", t.getMessage());
+                    try {
+                        fail(async, HttpServletResponse.SC_BAD_REQUEST, "unreadable");
+                    } catch (IOException | IllegalStateException e) {
+                        // Connection already gone
+                    }
+                }
+            });
+        }
+
+        private static boolean hasBody(HttpServletRequest request) {
+            return request.getContentLengthLong() > 0 || request.getHeader("Transfer-Encoding") != null;
+        }
+
+        private static void fail(AsyncContext async, int status, String reason) throws IOException {
+            HttpServletResponse response = (HttpServletResponse) async.getResponse();
+            if (!response.isCommitted()) {
+                response.sendError(status, "Request body " + reason);
+            }
+            async.complete();
+        }
+    }
+
+    /**
+     * Request whose body has already been read into memory
+     */
+    static class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private byte[] body = new byte[0];
+
+        BufferedBodyRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Body is already buffered");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.observis.dmconfig.config;
+
+import com.observis.dmconfig.service.VirtualThreads;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tomcat request handling on virtual threads (spring.threads.virtual.enabled)
+ *
+ * Each request gets its own virtual thread, so requests blocked on file I/O or slow
+ * clients no longer hold a worker from the bounded pool (server.tomcat.threads.*).
+ * Spring Boot's own support decides through a bean condition, which AOT processing fixes
+ * at build time and which needs the build JVM to be Java 21; this is decided when the
+ * server starts, so one image works either way. Needs Java 21; ignored with a warning before.
+ */
+@Configuration
+public class VirtualThreadsConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadRequestExecutor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean enabled) {
+        return factory -> {
+            if (!enabled) {
+                return;
+            }
+            if (!VirtualThreads.isSupported()) {
+                logger.warn("spring.threads.virtual.enabled is set, but Java {} has no virtual threads; "
+                        + "requests stay on the platform thread pool", Runtime.version().feature());
+                return;
+            }
+            factory.addProtocolHandlerCustomizers(protocol -> protocol.setExecutor(
+                    new VirtualThreadExecutor("tomcat-handler-")));
+            logger.info("Tomcat requests run on virtual threads");
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.observis.dmconfig.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * HTTP message converters for the config API
+ *
+ * Responses are negotiated through the Accept header: JSON (default), CBOR
+ * (application/cbor) or Smile (application/x-jackson-smile); request bodies are
+ * accepted in the same formats. JSON stays compact unless ?pretty=true is given.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    static final String PRETTY_PARAMETER = "pretty";
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new PrettyPrintOnRequestConverter(objectMapper);
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter mappingJackson2CborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter();
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter mappingJackson2SmileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter();
+    }
+
+    /**
+     * JSON converter that indents output only when the current request asks for it
+     */
+    static class PrettyPrintOnRequestConverter extends MappingJackson2HttpMessageConverter {
+
+        PrettyPrintOnRequestConverter(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        @Override
+        protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, MediaType contentType) {
+            return isPrettyRequested() ? writer.withDefaultPrettyPrinter() : writer;
+        }
+
+        private static boolean isPrettyRequested() {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (!(attributes instanceof ServletRequestAttributes)) {
+                return false;
+            }
+            HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+            String pretty = request.getParameter(PRETTY_PARAMETER);
+            return pretty != null && (pretty.isEmpty() || Boolean.parseBoolean(pretty));
+        }
+    }
+}
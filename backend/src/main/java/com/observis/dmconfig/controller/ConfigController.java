@@ -1,19 +1,39 @@
 package com.observis.dmconfig.controller;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.observis.dmconfig.service.ChangePreview;
 import com.observis.dmconfig.service.ConfigService;
+import com.observis.dmconfig.service.DeviceBatchReader;
+import com.observis.dmconfig.service.JsonPatcher;
+import com.observis.dmconfig.service.DeviceSearchIndex;
+import com.observis.dmconfig.service.FileService;
 import com.observis.dmconfig.service.RebootService;
 import com.observis.dmconfig.service.NetworkConfigService;
+import com.observis.dmconfig.service.PhenomenonIndex;
+import com.observis.dmconfig.service.VersionConflictException;
+import com.observis.dmconfig.service.Versioned;
+import com.observis.dmconfig.validation.ValidationException;
+import com.observis.dmconfig.validation.ValidationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * REST controller for configuration management
@@ -25,23 +45,40 @@ public class ConfigController {
 
     private static final Logger logger = LoggerFactory.getLogger(ConfigController.class);
 
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+    private static final String JSON_PATCH_JSON = "application/json-patch+json";
+
     @Autowired
     private ConfigService configService;
 
+    @Autowired
+    private DeviceBatchReader deviceBatchReader;
+
+    @Autowired
+    private PhenomenonIndex phenomenonIndex;
+
+    @Autowired
+    private DeviceSearchIndex deviceSearchIndex;
+
     @Autowired
     private RebootService rebootService;
 
     @Autowired
     private NetworkConfigService networkConfigService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * GET /api/devices - Get devices.json configuration
      */
     @GetMapping("/devices")
     public ResponseEntity<?> getDevices() {
         try {
-            JsonNode config = configService.getDevicesConfig();
-            return ResponseEntity.ok(config);
+            Versioned<JsonNode> config = configService.getDevicesConfigVersioned();
+            return ResponseEntity.ok().eTag(config.getVersion()).body(config.getValue());
         } catch (Exception e) {
             logger.error("Error reading devices config", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -49,6 +86,90 @@ public class ConfigController {
         }
     }
 
+    /**
+     * GET /api/devices/list - Registered devices, filtered and paginated
+     * Filters: deviceKey, deviceMeasType, connectionType, deviceMainType, enabled (case-insensitive)
+     */
+    @GetMapping("/devices/list")
+    public ResponseEntity<?> listDevices(
+            @RequestParam(required = false) String deviceKey,
+            @RequestParam(required = false) String deviceMeasType,
+            @RequestParam(required = false) String connectionType,
+            @RequestParam(required = false) String deviceMainType,
+            @RequestParam(required = false) String enabled,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            Map<String, String> filters = new HashMap<>();
+            putIfPresent(filters, "deviceKey", deviceKey);
+            putIfPresent(filters, "deviceMeasType", deviceMeasType);
+            putIfPresent(filters, "connectionType", connectionType);
+            putIfPresent(filters, "deviceMainType", deviceMainType);
+            putIfPresent(filters, "enabled", enabled);
+
+            return ResponseEntity.ok(paginate(configService.listDevices(filters), page, size));
+        } catch (IllegalArgumentException e) {
+            return createValidationErrorResponse(e);
+        } catch (Exception e) {
+            logger.error("Error listing devices", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/phenomenons - Phenomenons across all devices, filtered and paginated
+     * Filters: type, unit, measValueType (case-insensitive). With a type filter the response
+     * also lists every device producing that type, including through measPoints.
+     */
+    @GetMapping("/phenomenons")
+    public ResponseEntity<?> findPhenomenons(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String unit,
+            @RequestParam(required = false) String measValueType,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            Map<String, String> filters = new HashMap<>();
+            putIfPresent(filters, "type", type);
+            putIfPresent(filters, "unit", unit);
+            putIfPresent(filters, "measValueType", measValueType);
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            if (filters.containsKey("type")) {
+                response.put("devices", phenomenonIndex.findDevices(filters.get("type")));
+            }
+            response.putAll(paginate(phenomenonIndex.find(filters), page, size));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return createValidationErrorResponse(e);
+        } catch (Exception e) {
+            logger.error("Error finding phenomenons", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/search - Devices whose name, description, category or phenomenon names
+     * contain every word of q as a word prefix, sorted by device name
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchDevices(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(paginate(deviceSearchIndex.search(q), page, size));
+        } catch (IllegalArgumentException e) {
+            return createValidationErrorResponse(e);
+        } catch (Exception e) {
+            logger.error("Error searching devices", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+
     /**
      * GET /api/config/properties - Get config.properties
      * Returns simplified format: mqtt.broker, mqtt.port, mqtt.username, mqtt.password
@@ -56,7 +177,8 @@ public class ConfigController {
     @GetMapping("/config/properties")
     public ResponseEntity<?> getConfigProperties() {
         try {
-            Properties properties = configService.getConfigProperties();
+            Versioned<Properties> versioned = configService.getConfigPropertiesVersioned();
+            Properties properties = versioned.getValue();
             
             // Extract MQTT settings from fi.observis.sas.mqtt.url format
             String mqttUrl = properties.getProperty("fi.observis.sas.mqtt.url", "tcp://192.168.1.100:1883");
@@ -86,7 +208,7 @@ public class ConfigController {
             response.put("mqtt.username", username);
             response.put("mqtt.password", password);
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(versioned.getVersion()).body(response);
         } catch (Exception e) {
             logger.error("Error reading config properties", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -96,14 +218,17 @@ public class ConfigController {
 
     /**
      * GET /api/device/{deviceName} - Get device-specific configuration
+     * Optional ?fields=address,portNumber limits the response to those fields
      */
     @GetMapping("/device/{deviceName}")
-    public ResponseEntity<?> getDeviceConfig(@PathVariable String deviceName) {
+    public ResponseEntity<?> getDeviceConfig(
+            @PathVariable String deviceName,
+            @RequestParam(required = false) String fields) {
         try {
-            JsonNode config = configService.getDeviceConfig(deviceName);
-            return ResponseEntity.ok(config);
+            Versioned<JsonNode> config = configService.getDeviceConfigVersioned(deviceName, parseFields(fields));
+            return ResponseEntity.ok().eTag(config.getVersion()).body(config.getValue());
         } catch (IllegalArgumentException e) {
-            logger.error("Device not found: {}", deviceName, e);
+            logger.warn("Device not found: {}", deviceName);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(createErrorResponse("Device not found: " + deviceName));
         } catch (Exception e) {
@@ -113,11 +238,79 @@ public class ConfigController {
         }
     }
 
+    /**
+     * POST /api/devices/batch-get - Read several devices in one request
+     * Body: {"devices": ["IBAC", "S900"] | "all", "fields": "address,portNumber" (optional)}
+     * Each device reports its own result; unknown or unreadable devices do not fail the batch
+     */
+    @PostMapping("/devices/batch-get")
+    public ResponseEntity<?> batchGetDeviceConfigs(@RequestBody JsonNode request) {
+        try {
+            JsonNode devices = request.get("devices");
+            Set<String> fields = parseFields(request.path("fields").asText(null));
+
+            Map<String, DeviceBatchReader.Result> results;
+            if (devices != null && devices.isTextual() && "all".equalsIgnoreCase(devices.asText())) {
+                results = deviceBatchReader.readAll(fields);
+            } else if (devices != null && devices.isArray() && !devices.isEmpty()) {
+                List<String> names = new ArrayList<>();
+                for (JsonNode name : devices) {
+                    if (!name.isTextual()) {
+                        throw new IllegalArgumentException("Device names must be strings");
+                    }
+                    names.add(name.asText());
+                }
+                results = deviceBatchReader.read(names, fields);
+            } else {
+                throw new IllegalArgumentException("devices must be a non-empty list of names or \"all\"");
+            }
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("devices", results);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return createValidationErrorResponse(e);
+        } catch (Exception e) {
+            logger.error("Error reading device configs", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/device/{deviceName}/raw - Stream the on-disk device file without parsing it
+     */
+    @GetMapping("/device/{deviceName}/raw")
+    public ResponseEntity<StreamingResponseBody> getDeviceConfigRaw(@PathVariable String deviceName) {
+        try {
+            FileChannel channel = configService.openDeviceConfigRaw(deviceName);
+            long size = channel.size();
+            StreamingResponseBody body = output -> {
+                try (channel) {
+                    FileService.transferFully(channel, output);
+                }
+            };
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .contentLength(size)
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Device not found: {}", deviceName);
+            return createStreamingErrorResponse(HttpStatus.NOT_FOUND, "Device not found: " + deviceName);
+        } catch (Exception e) {
+            logger.error("Error reading raw device config", e);
+            return createStreamingErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+    }
+
     /**
      * POST /api/save - Save configuration
+     * Optional If-Match header: ETag of the configType's file as returned by its GET
      */
     @PostMapping("/save")
-    public ResponseEntity<?> saveConfig(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<?> saveConfig(
+            @RequestBody Map<String, Object> request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
             String configType = (String) request.get("configType");
             Object data = request.get("data");
@@ -127,15 +320,16 @@ public class ConfigController {
                         .body(createErrorResponse("Missing configType or data"));
             }
 
+            String version;
             switch (configType) {
                 case "devices":
                     JsonNode devicesData = convertToJsonNode(data);
-                    configService.saveDevicesConfig(devicesData);
+                    version = configService.saveDevicesConfig(devicesData, ConditionalRequests.parseIfMatch(ifMatch));
                     break;
                 case "properties":
                     @SuppressWarnings("unchecked")
                     Map<String, String> propertiesData = (Map<String, String>) data;
-                    configService.saveConfigProperties(propertiesData);
+                    version = configService.saveConfigProperties(propertiesData, ConditionalRequests.parseIfMatch(ifMatch));
                     break;
                 default:
                     return ResponseEntity.badRequest()
@@ -145,14 +339,12 @@ public class ConfigController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Configuration saved successfully");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(version).body(response);
 
+        } catch (VersionConflictException e) {
+            return createConflictResponse(e);
         } catch (IllegalArgumentException e) {
-            logger.error("Validation error", e);
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
+            return createValidationErrorResponse(e);
         } catch (Exception e) {
             logger.error("Error saving config", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -160,29 +352,246 @@ public class ConfigController {
         }
     }
 
+    /**
+     * POST /api/preview - Diff and restart impact of a save, without writing anything
+     * configType: devices or properties (data as for /api/save), device (with deviceName,
+     * data as for /api/device/{deviceName}) or network (data as for /api/network)
+     */
+    @PostMapping("/preview")
+    public ResponseEntity<?> previewConfig(@RequestBody Map<String, Object> request) {
+        try {
+            String configType = (String) request.get("configType");
+            Object data = request.get("data");
+
+            if (configType == null || data == null) {
+                return ResponseEntity.badRequest()
+                        .body(createErrorResponse("Missing configType or data"));
+            }
+
+            ChangePreview preview;
+            switch (configType) {
+                case "devices":
+                    preview = configService.previewDevicesConfig(convertToJsonNode(data));
+                    break;
+                case "properties":
+                    @SuppressWarnings("unchecked")
+                    Map<String, String> propertiesData = (Map<String, String>) data;
+                    preview = configService.previewConfigProperties(propertiesData);
+                    break;
+                case "device":
+                    preview = configService.previewDeviceConfig((String) request.get("deviceName"), convertToJsonNode(data));
+                    break;
+                case "network":
+                    @SuppressWarnings("unchecked")
+                    Map<String, String> networkData = new HashMap<>((Map<String, String>) data);
+                    preview = networkConfigService.previewNetworkConfig(networkData);
+                    break;
+                default:
+                    return ResponseEntity.badRequest()
+                            .body(createErrorResponse("Unknown configType: " + configType));
+            }
+            return ResponseEntity.ok(preview);
+
+        } catch (IllegalArgumentException e) {
+            return createValidationErrorResponse(e);
+        } catch (ClassCastException e) {
+            return ResponseEntity.badRequest()
+                    .body(createErrorResponse("Invalid request: " + e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error previewing config", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/validate - Check a payload without saving it, reporting every field error
+     * Same request format as /api/preview; always 200, validity is in the body
+     */
+    @PostMapping("/validate")
+    public ResponseEntity<?> validateConfig(@RequestBody Map<String, Object> request) {
+        try {
+            String configType = (String) request.get("configType");
+            Object data = request.get("data");
+
+            if (configType == null || data == null) {
+                return ResponseEntity.badRequest()
+                        .body(createErrorResponse("Missing configType or data"));
+            }
+
+            ValidationResult result;
+            switch (configType) {
+                case "devices":
+                    result = configService.checkDevicesConfig(convertToJsonNode(data));
+                    break;
+                case "properties":
+                    @SuppressWarnings("unchecked")
+                    Map<String, String> propertiesData = (Map<String, String>) data;
+                    result = configService.checkConfigProperties(propertiesData);
+                    break;
+                case "device":
+                    result = configService.checkDeviceConfig((String) request.get("deviceName"), convertToJsonNode(data));
+                    break;
+                case "network":
+                    @SuppressWarnings("unchecked")
+                    Map<String, String> networkData = (Map<String, String>) data;
+                    result = networkConfigService.checkNetworkConfig(networkData);
+                    break;
+                default:
+                    return ResponseEntity.badRequest()
+                            .body(createErrorResponse("Unknown configType: " + configType));
+            }
+            return ResponseEntity.ok(result);
+
+        } catch (ClassCastException e) {
+            return ResponseEntity.badRequest()
+                    .body(createErrorResponse("Invalid request: " + e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error validating config", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+
     /**
      * POST /api/device/{deviceName} - Save device-specific configuration
      */
     @PostMapping("/device/{deviceName}")
     public ResponseEntity<?> saveDeviceConfig(
             @PathVariable String deviceName,
-            @RequestBody JsonNode config) {
+            @RequestBody JsonNode config,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            configService.saveDeviceConfig(deviceName, config);
+            String version = configService.saveDeviceConfig(deviceName, config, ConditionalRequests.parseIfMatch(ifMatch));
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Device configuration saved successfully");
+            return ResponseEntity.ok().eTag(version).body(response);
+
+        } catch (VersionConflictException e) {
+            return createConflictResponse(e);
+        } catch (IllegalArgumentException e) {
+            return createValidationErrorResponse(e);
+        } catch (Exception e) {
+            logger.error("Error saving device config", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * PATCH /api/device/{deviceName} - Change part of a device file
+     * application/merge-patch+json (RFC 7396, also accepted as application/json) or
+     * application/json-patch+json (RFC 6902); paths address the stored document
+     */
+    @PatchMapping(value = "/device/{deviceName}", consumes = {MERGE_PATCH_JSON, JSON_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patchDeviceConfig(
+            @PathVariable String deviceName,
+            @RequestBody JsonNode patch,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            String version = configService.patchDeviceConfig(deviceName, patchFormat(contentType), patch,
+                    ConditionalRequests.parseIfMatch(ifMatch));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Device configuration patched successfully");
+            return ResponseEntity.ok().eTag(version).body(response);
+
+        } catch (VersionConflictException e) {
+            return createConflictResponse(e);
+        } catch (IllegalArgumentException e) {
+            return createValidationErrorResponse(e);
+        } catch (Exception e) {
+            logger.error("Error patching device config", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * PATCH /api/devices - Change part of devices.json (merge patch or JSON Patch)
+     */
+    @PatchMapping(value = "/devices", consumes = {MERGE_PATCH_JSON, JSON_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> patchDevicesConfig(
+            @RequestBody JsonNode patch,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            String version = configService.patchDevicesConfig(patchFormat(contentType), patch,
+                    ConditionalRequests.parseIfMatch(ifMatch));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Configuration patched successfully");
+            return ResponseEntity.ok().eTag(version).body(response);
+
+        } catch (VersionConflictException e) {
+            return createConflictResponse(e);
+        } catch (IllegalArgumentException e) {
+            return createValidationErrorResponse(e);
+        } catch (Exception e) {
+            logger.error("Error patching devices config", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/devices/batch-save - Save several devices all-or-nothing
+     * Body: {"devices": {"S900": {...}, "IBAC": {...}}, "versions": {"S900": "<etag>"} (optional)}
+     * Every entry is validated before any file is written; a failure leaves all files unchanged,
+     * and a batch cut short by a crash is rolled back on startup
+     */
+    @PostMapping("/devices/batch-save")
+    public ResponseEntity<?> batchSaveDeviceConfigs(@RequestBody JsonNode request) {
+        try {
+            JsonNode devices = request.get("devices");
+            if (devices == null || !devices.isObject()) {
+                throw new IllegalArgumentException("devices must be an object of device name to configuration");
+            }
+            Map<String, JsonNode> configs = new LinkedHashMap<>();
+            devices.fields().forEachRemaining(device -> configs.put(device.getKey(), device.getValue()));
+            Map<String, String> expectedVersions = new HashMap<>();
+            request.path("versions").fields().forEachRemaining(version ->
+                    expectedVersions.put(version.getKey(), ConditionalRequests.parseIfMatch(version.getValue().asText())));
+
+            Map<String, String> versions = configService.saveDeviceConfigs(configs, expectedVersions);
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("success", true);
+            response.put("message", versions.size() + " device configurations saved successfully");
+            response.put("versions", versions);
             return ResponseEntity.ok(response);
 
+        } catch (VersionConflictException e) {
+            return createConflictResponse(e);
         } catch (IllegalArgumentException e) {
-            logger.error("Validation error", e);
+            return createValidationErrorResponse(e);
+        } catch (Exception e) {
+            logger.error("Error saving device configs", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/flush - Barrier: write all pending changes to disk (write-behind mode)
+     */
+    @PostMapping("/flush")
+    public ResponseEntity<?> flushPendingWrites() {
+        try {
+            configService.flushPendingWrites();
+
             Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
+            response.put("success", true);
+            response.put("message", "Pending changes written");
+            return ResponseEntity.ok(response);
+
         } catch (Exception e) {
-            logger.error("Error saving device config", e);
+            logger.error("Error flushing pending writes", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse(e.getMessage()));
         }
@@ -220,14 +629,67 @@ public class ConfigController {
         return response;
     }
 
+    /**
+     * Helper method to build the items/page/size/total response of a paginated endpoint
+     */
+    private static Map<String, Object> paginate(List<?> items, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        int from = (int) Math.min((long) page * size, items.size());
+        int to = Math.min(from + size, items.size());
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("items", items.subList(from, to));
+        response.put("page", page);
+        response.put("size", size);
+        response.put("total", items.size());
+        return response;
+    }
+
+    /**
+     * Helper method to create the 400 response for rejected input, listing every field error
+     * when known. Rejections are expected, so they are logged without a stack trace.
+     */
+    private ResponseEntity<?> createValidationErrorResponse(IllegalArgumentException e) {
+        logger.warn("Validation error: {}", e.getMessage());
+        Map<String, Object> response = createErrorResponse(e.getMessage());
+        if (e instanceof ValidationException) {
+            response.put("errors", ((ValidationException) e).getResult().getErrors());
+        }
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    /**
+     * Helper method to create the 412 response for a save based on a stale version
+     */
+    private ResponseEntity<?> createConflictResponse(VersionConflictException e) {
+        logger.warn("Rejected stale save: {}", e.getMessage());
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.PRECONDITION_FAILED);
+        if (e.getCurrentVersion() != null) {
+            builder.eTag(e.getCurrentVersion());
+        }
+        return builder.body(createErrorResponse(e.getMessage()));
+    }
+
+    /**
+     * Helper method to create error response for streaming endpoints
+     */
+    private ResponseEntity<StreamingResponseBody> createStreamingErrorResponse(HttpStatus status, String message) {
+        Map<String, Object> error = createErrorResponse(message);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(output -> objectMapper.writeValue(output, error));
+    }
+
     /**
      * GET /api/network - Get network configuration
      */
     @GetMapping("/network")
     public ResponseEntity<?> getNetworkConfig() {
         try {
-            Map<String, String> config = networkConfigService.getNetworkConfig();
-            return ResponseEntity.ok(config);
+            Versioned<Map<String, String>> config = networkConfigService.getNetworkConfigVersioned();
+            return ResponseEntity.ok().eTag(config.getVersion()).body(config.getValue());
         } catch (Exception e) {
             logger.error("Error reading network config", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -239,9 +701,11 @@ public class ConfigController {
      * POST /api/network - Save network configuration and reboot
      */
     @PostMapping("/network")
-    public ResponseEntity<?> saveNetworkConfig(@RequestBody Map<String, String> config) {
+    public ResponseEntity<?> saveNetworkConfig(
+            @RequestBody Map<String, String> config,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            networkConfigService.saveNetworkConfig(config);
+            String version = networkConfigService.saveNetworkConfig(config, ConditionalRequests.parseIfMatch(ifMatch));
             
             // Trigger reboot after saving network config
             rebootService.executeReboot();
@@ -249,14 +713,12 @@ public class ConfigController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Network configuration saved successfully. System rebooting...");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(version).body(response);
 
+        } catch (VersionConflictException e) {
+            return createConflictResponse(e);
         } catch (IllegalArgumentException e) {
-            logger.error("Validation error", e);
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("error", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
+            return createValidationErrorResponse(e);
         } catch (Exception e) {
             logger.error("Error saving network config", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -264,6 +726,39 @@ public class ConfigController {
         }
     }
 
+    /**
+     * Helper method to pick the patch format from the request content type
+     */
+    private static JsonPatcher.Format patchFormat(String contentType) {
+        return MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(JSON_PATCH_JSON))
+                ? JsonPatcher.Format.JSON_PATCH : JsonPatcher.Format.MERGE_PATCH;
+    }
+
+    /**
+     * Helper method to add an optional filter
+     */
+    private static void putIfPresent(Map<String, String> filters, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            filters.put(field, value.trim());
+        }
+    }
+
+    /**
+     * Helper method to parse a comma separated field list (null when not given)
+     */
+    private Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> result = new HashSet<>();
+        for (String field : fields.split(",")) {
+            if (!field.isBlank()) {
+                result.add(field.trim());
+            }
+        }
+        return result;
+    }
+
     /**
      * Helper method to convert Object to JsonNode
      */
@@ -0,0 +1,69 @@
+package com.observis.dmconfig.controller;
+
+import com.observis.dmconfig.service.FileLockManager;
+import com.observis.dmconfig.service.FileService;
+import com.observis.dmconfig.service.StartupWarmup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * REST controller exposing runtime diagnostics (cache counters etc.)
+ */
+@RestController
+@RequestMapping("/api/diagnostics")
+@CrossOrigin(origins = "*")
+public class DiagnosticsController {
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FileLockManager fileLockManager;
+
+    @Autowired
+    private StartupWarmup startupWarmup;
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    /**
+     * GET /api/diagnostics/cache - Config file cache counters
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<?> getCacheStats() {
+        Map<String, Object> stats = fileService.getCacheStats();
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * GET /api/diagnostics/locks - Per-file lock contention counters
+     */
+    @GetMapping("/locks")
+    public ResponseEntity<?> getLockStats() {
+        Map<String, Object> stats = fileLockManager.getStats();
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * GET /api/diagnostics/startup - Readiness and startup timings
+     * 503 until the application accepts traffic (i.e. while the optional warm-up runs)
+     */
+    @GetMapping("/startup")
+    public ResponseEntity<?> getStartupStats() {
+        ReadinessState readiness = applicationAvailability.getReadinessState();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("readiness", readiness);
+        stats.put("jvmUptimeMs", ManagementFactory.getRuntimeMXBean().getUptime());
+        stats.put("warmup", startupWarmup.getStats());
+        HttpStatus status = readiness == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(stats);
+    }
+}
@@ -0,0 +1,128 @@
+package com.observis.dmconfig.controller;
+
+import com.observis.dmconfig.service.ConfigHistoryService;
+import com.observis.dmconfig.service.ConfigHistoryStore;
+import com.observis.dmconfig.service.VersionConflictException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for the config history (revision list, point-in-time reads, rollback)
+ */
+@RestController
+@RequestMapping("/api/history")
+@CrossOrigin(origins = "*")
+public class HistoryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryController.class);
+
+    @Autowired
+    private ConfigHistoryService historyService;
+
+    /**
+     * GET /api/history?file=&from=&to= - Revisions, oldest first
+     * file is a file name (e.g. S900.json) or path; from/to are ISO-8601 instants or epoch millis
+     */
+    @GetMapping
+    public ResponseEntity<?> getHistory(
+            @RequestParam(required = false) String file,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        try {
+            List<ConfigHistoryStore.Revision> revisions = historyService.getHistory(file, from, to);
+            return ResponseEntity.ok(revisions);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error reading config history", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/history/content?file=&revision= or ?file=&at= - File content at a revision or point in time
+     */
+    @GetMapping("/content")
+    public ResponseEntity<?> getContent(
+            @RequestParam String file,
+            @RequestParam(required = false) Long revision,
+            @RequestParam(required = false) String at) {
+        try {
+            long number = revision != null ? revision : historyService.getRevisionAt(file, at).getRevision();
+            byte[] content = historyService.getContent(file, number);
+            MediaType contentType = file.endsWith(".json") ? MediaType.APPLICATION_JSON : MediaType.TEXT_PLAIN;
+            return ResponseEntity.ok()
+                    .contentType(contentType)
+                    .header("X-Config-Revision", String.valueOf(number))
+                    .body(content);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error reading config history", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/history/rollback - Restore a file to a revision: {"file": "S900.json", "revision": 3}
+     * Optional If-Match header: current ETag of the file
+     */
+    @PostMapping("/rollback")
+    public ResponseEntity<?> rollback(
+            @RequestBody Map<String, Object> request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            Object file = request.get("file");
+            Object revision = request.get("revision");
+            if (!(file instanceof String) || !(revision instanceof Number)) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Missing file or revision"));
+            }
+
+            String version = historyService.rollback((String) file, ((Number) revision).longValue(),
+                    ConditionalRequests.parseIfMatch(ifMatch));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Rolled back " + file + " to revision " + revision);
+            return ResponseEntity.ok().eTag(version).body(response);
+
+        } catch (VersionConflictException e) {
+            logger.warn("Rejected stale rollback: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(createErrorResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error rolling back config", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Helper method to create error response
+     */
+    private Map<String, Object> createErrorResponse(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("error", message);
+        return response;
+    }
+}
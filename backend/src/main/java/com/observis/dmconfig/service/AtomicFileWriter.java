@@ -0,0 +1,539 @@
+package com.observis.dmconfig.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Crash-safe file writes: temp file, fsync, atomic rename, directory fsync.
+ *
+ * Readers (the DM, our own cache) only ever see the old or the new content.
+ * In group-commit mode, renames in the same directory that land within the
+ * configured window share a single directory fsync; callers still block until
+ * that fsync has completed, so a returned write is always durable.
+ *
+ * {@link #writeAll} replaces several files as one unit: all temp files are prepared
+ * (in parallel) before the first rename, and a journal written before that rename lets a
+ * batch that fails, or is cut short by a crash, be rolled back (on startup for a crash).
+ */
+@Component
+public class AtomicFileWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AtomicFileWriter.class);
+
+    // Directories cannot be opened (and so not fsynced) on Windows
+    private static final boolean DIRECTORIES_UNOPENABLE =
+            System.getProperty("os.name", "").startsWith("Windows");
+
+    private static final String JOURNAL_PREFIX = ".batch-";
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    @Value("${dm.write.group-commit.enabled:false}")
+    private boolean groupCommit;
+
+    @Value("${dm.write.group-commit.window-ms:20}")
+    private long groupCommitWindowMs;
+
+    @Value("${dm.write.batch-threads:4}")
+    private int batchThreads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${dm.config.devices.path:/opt/dm/devices.json}")
+    private String devicesPath;
+
+    @Value("${dm.config.properties.path:/opt/dm/config.properties}")
+    private String propertiesPath;
+
+    @Value("${dm.config.devices.dir:/opt/dm/devices.d/}")
+    private String devicesDir;
+
+    @Value("${dm.network.interfaces.path:/etc/network/interfaces}")
+    private String interfacesPath;
+
+    private final Map<Path, CompletableFuture<Void>> pendingDirectorySyncs = new HashMap<>();
+    private ScheduledExecutorService syncScheduler;
+    private ExecutorService prepareExecutor;
+
+    /**
+     * A fully written and fsynced temp file waiting to be renamed over its target
+     */
+    public final class PreparedWrite {
+        private final Path target;
+        private final Path tempFile;
+        private final byte[] content;
+
+        private PreparedWrite(Path target, Path tempFile, byte[] content) {
+            this.target = target;
+            this.tempFile = tempFile;
+            this.content = content;
+        }
+
+        public Path getTarget() {
+            return target;
+        }
+
+        /**
+         * Atomically replace the target. The directory still has to be synced.
+         */
+        public void commit() throws IOException {
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (FileSystemException e) {
+                // Target is a bind-mounted file (e.g. /etc/network/interfaces in Docker)
+                // and cannot be replaced by rename: fall back to an in-place synced write
+                logger.warn("Atomic rename over {} failed ({}), writing in place", target, e.getReason());
+                abort();
+                writeInPlace(target, content);
+            }
+        }
+
+        /**
+         * Discard the temp file
+         */
+        public void abort() {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                logger.warn("Could not delete temp file {}", tempFile, e);
+            }
+        }
+    }
+
+    /**
+     * Atomically replace the file with the given content and make it durable
+     */
+    public void write(Path target, byte[] content) throws IOException {
+        PreparedWrite write = prepare(target, content);
+        try {
+            write.commit();
+        } catch (IOException e) {
+            write.abort();
+            throw e;
+        }
+        syncDirectory(target.toAbsolutePath().normalize().getParent());
+    }
+
+    /**
+     * Atomically replace several files as one unit and make them durable.
+     *
+     * Every temp file is written and fsynced (in parallel) before any target is touched;
+     * if one cannot be prepared nothing is replaced. Before the first rename, the files about
+     * to be replaced are kept as hard links and the batch is journaled (see {@link #beginBatch}).
+     * If a rename or the directory sync fails, the batch is rolled back before the error is
+     * thrown; if the process dies instead, {@link #recover} rolls it back on startup.
+     */
+    public void writeAll(Map<Path, byte[]> files) throws IOException {
+        List<PreparedWrite> prepared = prepareAll(files);
+
+        Path journal;
+        try {
+            journal = beginBatch(prepared);
+        } catch (IOException e) {
+            prepared.forEach(PreparedWrite::abort);
+            throw e;
+        }
+
+        Set<Path> directories = new LinkedHashSet<>();
+        try {
+            for (PreparedWrite write : prepared) {
+                Files.move(write.tempFile, write.target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                directories.add(write.target.getParent());
+            }
+            for (Path dir : directories) {
+                syncDirectory(dir);
+            }
+        } catch (IOException e) {
+            try {
+                rollBack(journal);
+            } catch (IOException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+                throw new IOException("Batch write failed and could not be rolled back yet; "
+                        + "it is rolled back on the next startup (journal " + journal + ")", e);
+            }
+            throw e;
+        }
+
+        // The batch is complete once its journal is durably gone
+        try {
+            Files.delete(journal);
+            syncDirectory(journal.getParent());
+        } catch (IOException e) {
+            throw new IOException("All files were replaced, but the batch journal " + journal
+                    + " could not be removed durably; the next startup may roll the batch back", e);
+        }
+        for (PreparedWrite write : prepared) {
+            deleteQuietly(backupOf(write));
+        }
+    }
+
+    private List<PreparedWrite> prepareAll(Map<Path, byte[]> files) throws IOException {
+        List<Path> targets = new ArrayList<>();
+        for (Path target : files.keySet()) {
+            targets.add(target.toAbsolutePath().normalize());
+        }
+
+        List<TaskScope.Subtask<PreparedWrite>> subtasks = new ArrayList<>(targets.size());
+        boolean interrupted = false;
+        try (TaskScope<PreparedWrite> scope = new TaskScope<>(prepareExecutor(), batchThreads)) {
+            int index = 0;
+            for (byte[] content : files.values()) {
+                Path target = targets.get(index++);
+                subtasks.add(scope.fork(() -> prepare(target, content)));
+            }
+            scope.join();
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        List<PreparedWrite> prepared = new ArrayList<>(subtasks.size());
+        IOException failure = null;
+        for (TaskScope.Subtask<PreparedWrite> subtask : subtasks) {
+            Throwable error = subtask.exception();
+            if (error == null) {
+                prepared.add(subtask.get());
+            } else if (failure == null) {
+                failure = error instanceof IOException ? (IOException) error : new IOException(error);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            failure = new InterruptedIOException("Interrupted while preparing writes");
+        }
+        if (failure != null) {
+            prepared.forEach(PreparedWrite::abort);
+            throw failure;
+        }
+        return prepared;
+    }
+
+    /**
+     * Journal a batch of prepared writes before any of them is renamed. Each file about to be
+     * replaced gets a hard link (a copy where links are not supported) next to its temp file,
+     * and the journal lists target, temp file and backup of every write. It is written next to
+     * the first target and made durable, together with the backups, before this returns.
+     *
+     * @return the journal, to be deleted once the batch is complete or rolled back
+     */
+    Path beginBatch(List<PreparedWrite> writes) throws IOException {
+        Path file = writes.get(0).target.getParent().resolve(JOURNAL_PREFIX + UUID.randomUUID() + JOURNAL_SUFFIX);
+        Properties journal = new Properties();
+        journal.setProperty("count", String.valueOf(writes.size()));
+        Set<Path> directories = new LinkedHashSet<>();
+        try {
+            for (int i = 0; i < writes.size(); i++) {
+                PreparedWrite write = writes.get(i);
+                journal.setProperty("target." + i, write.target.toString());
+                journal.setProperty("temp." + i, write.tempFile.toString());
+                if (backup(write)) {
+                    journal.setProperty("backup." + i, backupOf(write).toString());
+                }
+                directories.add(write.target.getParent());
+            }
+
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            journal.store(content, "Batch write in progress");
+            PreparedWrite journalWrite = prepare(file, content.toByteArray());
+            Files.move(journalWrite.tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+            for (Path dir : directories) {
+                syncDirectory(dir);
+            }
+            return file;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            for (PreparedWrite write : writes) {
+                deleteQuietly(backupOf(write));
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Keep the current content of a write's target as a hard link
+     *
+     * @return false if the target does not exist yet
+     */
+    private boolean backup(PreparedWrite write) throws IOException {
+        if (!Files.exists(write.target, LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        if (!Files.isRegularFile(write.target)) {
+            throw new IOException("Not a regular file: " + write.target);
+        }
+        Path backup = backupOf(write);
+        try {
+            Files.createLink(backup, write.target);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            logger.debug("Hard link to {} not possible ({}), copying it", write.target, e.getMessage());
+            Files.copy(write.target, backup, StandardCopyOption.COPY_ATTRIBUTES);
+            try (FileChannel channel = FileChannel.open(backup, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        }
+        return true;
+    }
+
+    private static Path backupOf(PreparedWrite write) {
+        String name = write.tempFile.getFileName().toString();
+        return write.tempFile.resolveSibling(name.substring(0, name.length() - ".tmp".length()) + ".bak");
+    }
+
+    /**
+     * Undo a journaled batch: put the backups back, delete files the batch created and its
+     * temp files, then delete the journal. Safe to repeat after an interrupted roll back,
+     * since a backup is only gone once it was moved back.
+     */
+    void rollBack(Path journal) throws IOException {
+        Properties entries = new Properties();
+        try (InputStream input = Files.newInputStream(journal)) {
+            entries.load(input);
+        }
+        int count = Integer.parseInt(entries.getProperty("count", "0"));
+        Set<Path> directories = new LinkedHashSet<>();
+        for (int i = 0; i < count; i++) {
+            Path target = Paths.get(entries.getProperty("target." + i));
+            Files.deleteIfExists(Paths.get(entries.getProperty("temp." + i)));
+            String backup = entries.getProperty("backup." + i);
+            if (backup == null) {
+                Files.deleteIfExists(target);
+            } else if (Files.exists(Paths.get(backup))) {
+                Files.move(Paths.get(backup), target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                // Renaming a link over its own file (target never replaced) leaves both in place
+                Files.deleteIfExists(Paths.get(backup));
+            }
+            directories.add(target.getParent());
+        }
+        for (Path dir : directories) {
+            fsyncDirectory(dir);
+        }
+        Files.delete(journal);
+        fsyncDirectory(journal.getParent());
+    }
+
+    /**
+     * Roll back batches in a directory that were interrupted by a crash
+     */
+    void recover(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> journals = Files.newDirectoryStream(dir, JOURNAL_PREFIX + "*" + JOURNAL_SUFFIX)) {
+            for (Path journal : journals) {
+                try {
+                    rollBack(journal);
+                    logger.warn("Rolled back interrupted batch write {}", journal);
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Could not roll back interrupted batch write {}", journal, e);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not look for interrupted batch writes in {}: {}", dir, e.getMessage());
+        }
+    }
+
+    @PostConstruct
+    void recover() {
+        Set<Path> directories = new LinkedHashSet<>();
+        directories.add(Paths.get(devicesDir).toAbsolutePath().normalize());
+        for (String path : List.of(devicesPath, propertiesPath, interfacesPath)) {
+            Path parent = Paths.get(path).toAbsolutePath().normalize().getParent();
+            if (parent != null) {
+                directories.add(parent);
+            }
+        }
+        directories.forEach(this::recover);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}", file, e);
+        }
+    }
+
+    /**
+     * Write content to a synced temp file next to the target (phase one of a write)
+     */
+    public PreparedWrite prepare(Path target, byte[] content) throws IOException {
+        Path absolute = target.toAbsolutePath().normalize();
+        Path dir = absolute.getParent();
+        if (dir == null || !Files.isDirectory(dir)) {
+            throw new IOException("Parent directory does not exist: " + dir);
+        }
+
+        Path tempFile = Files.createTempFile(dir, "." + absolute.getFileName() + ".", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            copyOwnershipAndPermissions(absolute, tempFile);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return new PreparedWrite(absolute, tempFile, content);
+    }
+
+    /**
+     * Make renames in a directory durable, sharing the fsync with concurrent writers
+     * when group commit is enabled
+     */
+    public void syncDirectory(Path dir) throws IOException {
+        if (!groupCommit) {
+            fsyncDirectory(dir);
+            return;
+        }
+
+        CompletableFuture<Void> pending;
+        synchronized (pendingDirectorySyncs) {
+            pending = pendingDirectorySyncs.get(dir);
+            if (pending == null) {
+                pending = new CompletableFuture<>();
+                pendingDirectorySyncs.put(dir, pending);
+                scheduler().schedule(() -> flushDirectory(dir), groupCommitWindowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for directory sync: " + dir, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Directory sync failed: " + dir, e.getCause());
+        }
+    }
+
+    private void flushDirectory(Path dir) {
+        CompletableFuture<Void> pending;
+        synchronized (pendingDirectorySyncs) {
+            pending = pendingDirectorySyncs.remove(dir);
+        }
+        if (pending == null) {
+            return;
+        }
+        try {
+            fsyncDirectory(dir);
+            pending.complete(null);
+        } catch (IOException | RuntimeException e) {
+            pending.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Make the rename durable. A failing fsync is reported: the write is not durable then.
+     */
+    private void fsyncDirectory(Path dir) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(dir, StandardOpenOption.READ);
+        } catch (IOException e) {
+            if (!DIRECTORIES_UNOPENABLE) {
+                throw e;
+            }
+            // Windows cannot open directories; the rename is still atomic there
+            logger.debug("Directory fsync not supported for {}: {}", dir, e.getMessage());
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    private void writeInPlace(Path target, byte[] content) throws IOException {
+        try (FileChannel channel = FileChannel.open(target,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Keep the replaced file's mode and owner (e.g. root-owned /etc/network/interfaces)
+     */
+    private void copyOwnershipAndPermissions(Path original, Path replacement) {
+        PosixFileAttributeView source = Files.getFileAttributeView(original, PosixFileAttributeView.class);
+        PosixFileAttributeView destination = Files.getFileAttributeView(replacement, PosixFileAttributeView.class);
+        if (source == null || destination == null || !Files.exists(original)) {
+            return;
+        }
+        try {
+            PosixFileAttributes attributes = source.readAttributes();
+            destination.setPermissions(attributes.permissions());
+            destination.setOwner(attributes.owner());
+            destination.setGroup(attributes.group());
+        } catch (IOException e) {
+            logger.debug("Could not copy attributes of {}: {}", original, e.getMessage());
+        }
+    }
+
+    private synchronized ScheduledExecutorService scheduler() {
+        if (syncScheduler == null) {
+            syncScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "config-dir-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return syncScheduler;
+    }
+
+    private synchronized ExecutorService prepareExecutor() {
+        if (prepareExecutor == null) {
+            prepareExecutor = VirtualThreads.newExecutor(virtualThreads, batchThreads, "config-batch-write-");
+        }
+        return prepareExecutor;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (syncScheduler != null) {
+            syncScheduler.shutdown();
+        }
+        if (prepareExecutor != null) {
+            prepareExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+/**
+ * What a save would change, computed without writing: the structural diff of the
+ * affected file and what has to be restarted to apply it
+ */
+public final class ChangePreview {
+
+    /**
+     * What reboot.sh has to restart for a change to take effect
+     */
+    public enum RestartImpact {
+        /** Nothing changes */
+        NONE,
+        /** The DM container re-reads its configuration */
+        DM_CONTAINER,
+        /** Network services and containers are restarted */
+        NETWORK
+    }
+
+    private final String file;
+    private final ArrayNode changes;
+    private final RestartImpact restart;
+
+    /**
+     * @param impact restart needed if there are any changes
+     */
+    public ChangePreview(String file, ArrayNode changes, RestartImpact impact) {
+        this.file = file;
+        this.changes = changes;
+        this.restart = changes.isEmpty() ? RestartImpact.NONE : impact;
+    }
+
+    /**
+     * Path of the file the save would write
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Changes as RFC 6902 style operations with old and new values, see {@link JsonDiff}
+     */
+    public ArrayNode getChanges() {
+        return changes;
+    }
+
+    public RestartImpact getRestart() {
+        return restart;
+    }
+}
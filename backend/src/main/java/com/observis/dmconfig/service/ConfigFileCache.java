@@ -0,0 +1,236 @@
+package com.observis.dmconfig.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of parsed configuration files (JsonNode / Properties) keyed by path.
+ *
+ * Entries are weighted by an estimate of their heap footprint and evicted in LRU order
+ * once the configured budget (dm.cache.max-weight-bytes, in heap bytes) is exceeded. Entries are invalidated by FileService writes and
+ * by {@link ConfigFileWatcher} notifications for changes made by other processes.
+ * Cached values are shared: callers must copy them before handing them out.
+ *
+ * Content versions (hashes) are tracked separately from the weighted entries so a
+ * file's version stays known even when its parsed value was evicted or never cached.
+ */
+@Component
+public class ConfigFileCache implements ConfigFileWatcher.Listener {
+
+    // Heap bytes per file byte of a parsed tree: measured 3.3-3.9 for the dev-data device
+    // files and config.properties, more for files of a few dozen bytes
+    static final int HEAP_BYTES_PER_FILE_BYTE = 4;
+
+    @Autowired
+    private ConfigFileWatcher fileWatcher;
+
+    @Value("${dm.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${dm.cache.max-weight-bytes:4194304}")
+    private long maxWeightBytes;
+
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Path, String> versions = new HashMap<>();
+    private long totalWeight;
+
+    // Bumped on every invalidation so loads racing with a change are not cached
+    private final AtomicLong invalidationEpoch = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private static final class Entry {
+        final Object value;
+        final long weight;
+
+        Entry(Object value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        fileWatcher.addListener(this);
+    }
+
+    /**
+     * Get the cached value for a path, or null on a miss
+     */
+    public <T> T get(Path path, Class<T> type) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key(path));
+        }
+        if (entry != null && type.isInstance(entry.value)) {
+            hits.incrementAndGet();
+            return type.cast(entry.value);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Prepare to load a path from disk. Must be called before the file is read;
+     * the returned ticket is passed to {@link #put} so stale loads are discarded.
+     * Returns -1 when the result must not be cached.
+     */
+    public long beginLoad(Path path) {
+        if (!enabled || !fileWatcher.watchDirectory(key(path).getParent())) {
+            return -1;
+        }
+        return invalidationEpoch.get();
+    }
+
+    /**
+     * Store a freshly loaded value together with its content version
+     *
+     * @param fileSize size of the file the value was parsed from
+     */
+    public void put(Path path, Object value, long fileSize, String version, long ticket) {
+        if (ticket < 0) {
+            return;
+        }
+        long weight = fileSize * HEAP_BYTES_PER_FILE_BYTE;
+        synchronized (this) {
+            if (ticket != invalidationEpoch.get()) {
+                return;
+            }
+            versions.put(key(path), version);
+            if (weight > maxWeightBytes) {
+                return;
+            }
+            Entry previous = entries.put(key(path), new Entry(value, weight));
+            if (previous != null) {
+                totalWeight -= previous.weight;
+            }
+            totalWeight += weight;
+            evictToBudget();
+        }
+    }
+
+    /**
+     * Store the content version of a file whose value is not cached
+     */
+    public void putVersion(Path path, String version, long ticket) {
+        if (ticket < 0) {
+            return;
+        }
+        synchronized (this) {
+            if (ticket == invalidationEpoch.get()) {
+                versions.put(key(path), version);
+            }
+        }
+    }
+
+    /**
+     * Known content version of a file, or null
+     */
+    public String getVersion(Path path) {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (this) {
+            return versions.get(key(path));
+        }
+    }
+
+    /**
+     * Drop the cached value for a path
+     */
+    public void invalidate(Path path) {
+        synchronized (this) {
+            invalidationEpoch.incrementAndGet();
+            versions.remove(key(path));
+            Entry removed = entries.remove(key(path));
+            if (removed != null) {
+                totalWeight -= removed.weight;
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Drop every cached value under a directory
+     */
+    public void invalidateDirectory(Path directory) {
+        Path dir = key(directory);
+        synchronized (this) {
+            invalidationEpoch.incrementAndGet();
+            versions.keySet().removeIf(path -> path.startsWith(dir));
+            Iterator<Map.Entry<Path, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Path, Entry> e = it.next();
+                if (e.getKey().startsWith(dir)) {
+                    totalWeight -= e.getValue().weight;
+                    invalidations.incrementAndGet();
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        invalidationEpoch.incrementAndGet();
+        entries.clear();
+        versions.clear();
+        totalWeight = 0;
+    }
+
+    @Override
+    public void onFileChanged(Path file) {
+        invalidate(file);
+    }
+
+    @Override
+    public void onDirectoryChanged(Path directory) {
+        invalidateDirectory(directory);
+    }
+
+    /**
+     * Cache counters for diagnostics
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("enabled", enabled);
+            stats.put("entries", entries.size());
+            stats.put("weightBytes", totalWeight);
+        }
+        stats.put("maxWeightBytes", maxWeightBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    private void evictToBudget() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (totalWeight > maxWeightBytes && it.hasNext()) {
+            Entry eldest = it.next();
+            it.remove();
+            totalWeight -= eldest.weight;
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static Path key(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+}
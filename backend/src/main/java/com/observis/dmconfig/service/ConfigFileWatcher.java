@@ -0,0 +1,173 @@
+package com.observis.dmconfig.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Watches configuration directories (/opt/dm, devices.d/, ...) for changes made
+ * outside this application, e.g. by the DM itself, and notifies registered listeners.
+ *
+ * Directories are registered lazily the first time a file inside them is read.
+ */
+@Component
+public class ConfigFileWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigFileWatcher.class);
+
+    /**
+     * Callback for file system changes
+     */
+    public interface Listener {
+
+        /**
+         * A file inside a watched directory was created, modified or deleted
+         */
+        void onFileChanged(Path file);
+
+        /**
+         * Events were lost for a watched directory; everything under it must be considered changed
+         */
+        void onDirectoryChanged(Path directory);
+    }
+
+    @Value("${dm.watch.enabled:true}")
+    private boolean enabled;
+
+    private final Map<Path, WatchKey> watchedDirectories = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile WatchService watchService;
+    private Thread watchThread;
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Start watching a directory. Returns false when changes in it cannot be observed,
+     * in which case callers must not rely on change notifications for its files.
+     */
+    public boolean watchDirectory(Path directory) {
+        if (!enabled || directory == null) {
+            return false;
+        }
+        Path dir = directory.toAbsolutePath().normalize();
+        if (watchedDirectories.containsKey(dir)) {
+            return true;
+        }
+        synchronized (this) {
+            if (watchedDirectories.containsKey(dir)) {
+                return true;
+            }
+            if (!Files.isDirectory(dir)) {
+                return false;
+            }
+            try {
+                WatchKey key = dir.register(ensureStarted(),
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirectories.put(dir, key);
+                logger.debug("Watching directory for changes: {}", dir);
+                return true;
+            } catch (IOException | ClosedWatchServiceException e) {
+                logger.warn("Cannot watch directory {}: {}", dir, e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    public boolean isWatching(Path directory) {
+        return directory != null && watchedDirectories.containsKey(directory.toAbsolutePath().normalize());
+    }
+
+    private WatchService ensureStarted() throws IOException {
+        if (watchService == null) {
+            watchService = FileSystems.getDefault().newWatchService();
+            watchThread = new Thread(this::processEvents, "config-file-watcher");
+            watchThread.setDaemon(true);
+            watchThread.start();
+        }
+        return watchService;
+    }
+
+    /**
+     * Event loop: dispatch every change to the listeners
+     */
+    private void processEvents() {
+        WatchService service = watchService;
+        while (true) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path dir = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    notifyDirectoryChanged(dir);
+                } else {
+                    notifyFileChanged(dir.resolve((Path) event.context()));
+                }
+            }
+
+            if (!key.reset()) {
+                // Directory is gone; drop it so it can be registered again if it comes back
+                watchedDirectories.remove(dir);
+                notifyDirectoryChanged(dir);
+            }
+        }
+    }
+
+    private void notifyFileChanged(Path file) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onFileChanged(file);
+            } catch (RuntimeException e) {
+                logger.warn("File change listener failed for {}", file, e);
+            }
+        }
+    }
+
+    private void notifyDirectoryChanged(Path dir) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onDirectoryChanged(dir);
+            } catch (RuntimeException e) {
+                logger.warn("Directory change listener failed for {}", dir, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.debug("Error closing watch service", e);
+            }
+            watchService = null;
+        }
+        watchedDirectories.clear();
+    }
+}
@@ -0,0 +1,152 @@
+package com.observis.dmconfig.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Service for browsing the config history and rolling files back to earlier revisions.
+ *
+ * Only the files this service manages are exposed: devices.json, config.properties, the
+ * interfaces file and the files of registered devices. Logs in the history dir may name any
+ * path (copied from another install, or of a device removed since), and are never written back.
+ */
+@Service
+public class ConfigHistoryService {
+
+    @Autowired
+    private ConfigHistoryStore historyStore;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FileLockManager fileLockManager;
+
+    @Autowired
+    private DeviceRegistry deviceRegistry;
+
+    @Value("${dm.config.devices.path:/opt/dm/devices.json}")
+    private String devicesPath;
+
+    @Value("${dm.config.properties.path:/opt/dm/config.properties}")
+    private String propertiesPath;
+
+    @Value("${dm.network.interfaces.path:/etc/network/interfaces}")
+    private String interfacesPath;
+
+    /**
+     * Revisions within a time range, oldest first
+     *
+     * @param file file name or path; null or empty for all tracked files
+     * @param from ISO-8601 instant or epoch millis (inclusive), or null
+     * @param to   ISO-8601 instant or epoch millis (inclusive), or null
+     */
+    public List<ConfigHistoryStore.Revision> getHistory(String file, String from, String to) {
+        checkAvailable();
+        Path path = null;
+        if (file != null && !file.isBlank()) {
+            path = resolveFile(file);
+        }
+        List<ConfigHistoryStore.Revision> revisions = historyStore.list(path, parseTime(from), parseTime(to));
+        if (path == null) {
+            revisions.removeIf(revision -> !isConfigFile(Paths.get(revision.getFile())));
+        }
+        return revisions;
+    }
+
+    /**
+     * Revision of a file that was current at a point in time
+     */
+    public ConfigHistoryStore.Revision getRevisionAt(String file, String at) {
+        checkAvailable();
+        Long timestamp = parseTime(at);
+        if (timestamp == null) {
+            throw new IllegalArgumentException("Missing point in time");
+        }
+        ConfigHistoryStore.Revision revision = historyStore.findAt(resolveFile(file), timestamp);
+        if (revision == null) {
+            throw new IllegalArgumentException("No revision of " + file + " at " + at);
+        }
+        return revision;
+    }
+
+    /**
+     * Content of a file at a revision
+     */
+    public byte[] getContent(String file, long revision) throws IOException {
+        checkAvailable();
+        return historyStore.read(resolveFile(file), revision);
+    }
+
+    /**
+     * Write a revision back to its file. The rollback itself is recorded as a new revision,
+     * and a restored device file is re-read into the device registry.
+     *
+     * @param expectedVersion current version the caller expects (If-Match), or null
+     * @return version of the restored file
+     */
+    public String rollback(String file, long revision, String expectedVersion) throws IOException {
+        checkAvailable();
+        Path path = resolveFile(file);
+        byte[] content = historyStore.read(path, revision);
+        String filePath = path.toString();
+        return fileLockManager.withWriteLock(filePath, () -> {
+            fileService.checkVersion(filePath, expectedVersion);
+            String deviceName = deviceRegistry.deviceName(path);
+            try {
+                return fileService.restoreFile(filePath, content);
+            } finally {
+                if (deviceName != null) {
+                    deviceRegistry.refresh(deviceName);
+                }
+            }
+        });
+    }
+
+    private Path resolveFile(String file) {
+        Path path = historyStore.resolveFile(file);
+        if (path == null || !isConfigFile(path)) {
+            throw new IllegalArgumentException("No history for file: " + file);
+        }
+        return path;
+    }
+
+    private boolean isConfigFile(Path path) {
+        for (String configured : List.of(devicesPath, propertiesPath, interfacesPath)) {
+            if (path.equals(Paths.get(configured).toAbsolutePath().normalize())) {
+                return true;
+            }
+        }
+        String deviceName = deviceRegistry.deviceName(path);
+        return deviceName != null && deviceRegistry.contains(deviceName);
+    }
+
+    private void checkAvailable() {
+        if (!historyStore.isAvailable()) {
+            throw new IllegalStateException("Config history is disabled");
+        }
+    }
+
+    private static Long parseTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException ignored) {
+                throw new IllegalArgumentException("Invalid time: " + value);
+            }
+        }
+    }
+}
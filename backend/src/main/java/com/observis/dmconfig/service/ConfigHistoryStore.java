@@ -0,0 +1,705 @@
+package com.observis.dmconfig.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Local history of every config file written through FileService.
+ *
+ * Each tracked file has an append-only revision log in its own directory under
+ * dm.history.dir. A revision is stored either as a full snapshot or as a delta
+ * against the previous revision (common prefix/suffix lengths plus the changed
+ * middle), both deflated; a snapshot is written every dm.history.snapshot-interval
+ * revisions, so reading any revision applies at most that many deltas.
+ * The index (revision, time, offset) is kept in memory and rebuilt from the log
+ * headers at startup. A background task trims each log to dm.history.retention revisions.
+ * Appends are fsynced before the write that recorded them returns.
+ */
+@Component
+public class ConfigHistoryStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigHistoryStore.class);
+
+    private static final int MAGIC = 0x444D4831; // "DMH1"
+    private static final String LOG_FILE = "revisions.log";
+    private static final byte SNAPSHOT = 0;
+    private static final byte DELTA = 1;
+
+    @Autowired
+    private AtomicFileWriter atomicFileWriter;
+
+    @Value("${dm.history.enabled:true}")
+    private boolean enabled;
+
+    @Value("${dm.history.dir:/opt/dm/.history}")
+    private String historyDir;
+
+    @Value("${dm.history.snapshot-interval:20}")
+    private int snapshotInterval;
+
+    @Value("${dm.history.retention:1000}")
+    private int retention;
+
+    @Value("${dm.history.compaction-interval-ms:3600000}")
+    private long compactionIntervalMs;
+
+    @Value("${dm.config.devices.path:/opt/dm/devices.json}")
+    private String devicesPath;
+
+    @Value("${dm.config.properties.path:/opt/dm/config.properties}")
+    private String propertiesPath;
+
+    @Value("${dm.config.devices.dir:/opt/dm/devices.d/}")
+    private String devicesDir;
+
+    @Value("${dm.network.interfaces.path:/etc/network/interfaces}")
+    private String interfacesPath;
+
+    private final Map<Path, FileHistory> histories = new ConcurrentHashMap<>();
+    private volatile boolean available;
+    private ScheduledExecutorService compactionScheduler;
+
+    /**
+     * One revision of a tracked file
+     */
+    public static final class Revision {
+        private final String file;
+        private final long revision;
+        private final long timestamp;
+        private final String version;
+        private final int size;
+
+        Revision(String file, long revision, long timestamp, String version, int size) {
+            this.file = file;
+            this.revision = revision;
+            this.timestamp = timestamp;
+            this.version = version;
+            this.size = size;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public long getRevision() {
+            return revision;
+        }
+
+        public String getTimestamp() {
+            return Instant.ofEpochMilli(timestamp).toString();
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public int getSize() {
+            return size;
+        }
+    }
+
+    private static final class Entry {
+        final long revision;
+        final long timestamp;
+        final byte kind;
+        final int size;
+        final String version;
+        long payloadOffset;
+        final int payloadLength;
+
+        Entry(long revision, long timestamp, byte kind, int size, String version, long payloadOffset, int payloadLength) {
+            this.revision = revision;
+            this.timestamp = timestamp;
+            this.kind = kind;
+            this.size = size;
+            this.version = version;
+            this.payloadOffset = payloadOffset;
+            this.payloadLength = payloadLength;
+        }
+    }
+
+    private static final class FileHistory {
+        final Path file;
+        final Path log;
+        final List<Entry> entries = new ArrayList<>();
+        byte[] lastContent;
+        long logSize;
+
+        FileHistory(Path file, Path log) {
+            this.file = file;
+            this.log = log;
+        }
+
+        Entry last() {
+            return entries.isEmpty() ? null : entries.get(entries.size() - 1);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        Path root = Paths.get(historyDir);
+        try {
+            Files.createDirectories(root);
+            if (!Files.isWritable(root)) {
+                throw new IOException("Not writable: " + root.toAbsolutePath());
+            }
+            try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+                for (Path dir : dirs) {
+                    Path log = dir.resolve(LOG_FILE);
+                    if (Files.exists(log)) {
+                        FileHistory history = load(log);
+                        histories.put(history.file, history);
+                    }
+                }
+            }
+            available = true;
+        } catch (IOException e) {
+            logger.warn("Config history disabled: {}", e.getMessage());
+            return;
+        }
+
+        compactionScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "config-history-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactionScheduler.scheduleWithFixedDelay(this::compactQuietly,
+                compactionIntervalMs, compactionIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Record the current on-disk content of a file before its first tracked write,
+     * so the state from before the first save can be rolled back to
+     */
+    public void recordBaseline(Path file) {
+        if (!available || histories.containsKey(key(file)) || !Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            record(file, Files.readAllBytes(file));
+        } catch (IOException e) {
+            logger.warn("Could not record history baseline of {}", file, e);
+        }
+    }
+
+    /**
+     * Append a revision with the file's new content; unchanged content is not recorded.
+     * History failures are logged and never fail the write itself.
+     */
+    public void record(Path file, byte[] content) {
+        if (!available) {
+            return;
+        }
+        Path key = key(file);
+        FileHistory history = histories.computeIfAbsent(key, k -> new FileHistory(k, logPathFor(k)));
+        synchronized (history) {
+            try {
+                append(history, content);
+            } catch (IOException | DataFormatException e) {
+                logger.warn("Could not record history of {}", file, e);
+            }
+        }
+    }
+
+    /**
+     * Revisions of one file (or all files when null) within a time range, oldest first
+     *
+     * @param from inclusive lower bound in epoch millis, or null
+     * @param to   inclusive upper bound in epoch millis, or null
+     */
+    public List<Revision> list(Path file, Long from, Long to) {
+        List<Revision> result = new ArrayList<>();
+        List<FileHistory> selected = new ArrayList<>();
+        if (file == null) {
+            selected.addAll(histories.values());
+        } else if (histories.containsKey(key(file))) {
+            selected.add(histories.get(key(file)));
+        }
+        for (FileHistory history : selected) {
+            synchronized (history) {
+                int start = from == null ? 0 : firstAtOrAfter(history.entries, from);
+                for (int i = start; i < history.entries.size(); i++) {
+                    Entry entry = history.entries.get(i);
+                    if (to != null && entry.timestamp > to) {
+                        break;
+                    }
+                    result.add(toRevision(history, entry));
+                }
+            }
+        }
+        result.sort(Comparator.comparingLong((Revision r) -> r.timestamp).thenComparing(r -> r.file));
+        return result;
+    }
+
+    /**
+     * The revision of a file that was current at the given time, or null if it is older than the history
+     */
+    public Revision findAt(Path file, long timestamp) {
+        FileHistory history = histories.get(key(file));
+        if (history == null) {
+            return null;
+        }
+        synchronized (history) {
+            int index = firstAtOrAfter(history.entries, timestamp + 1) - 1;
+            return index < 0 ? null : toRevision(history, history.entries.get(index));
+        }
+    }
+
+    /**
+     * Content of a file at a revision
+     */
+    public byte[] read(Path file, long revision) throws IOException {
+        FileHistory history = histories.get(key(file));
+        if (history != null) {
+            synchronized (history) {
+                int index = indexOf(history.entries, revision);
+                if (index >= 0) {
+                    try {
+                        return reconstruct(history, index);
+                    } catch (DataFormatException e) {
+                        throw new IOException("Corrupt history for " + file, e);
+                    }
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown revision " + revision + " of " + file);
+    }
+
+    /**
+     * Tracked file matching a path or a bare file name (e.g. "S900.json"), or null.
+     * A bare name is looked up only in the directories of the currently configured config
+     * files, so logs left in a shared history dir by other installs or checkouts never match.
+     */
+    public Path resolveFile(String file) {
+        if (file == null || file.isBlank()) {
+            return null;
+        }
+        Path key = key(Paths.get(file));
+        if (histories.containsKey(key)) {
+            return key;
+        }
+        Path match = null;
+        for (Path dir : configDirectories()) {
+            Path candidate = key(dir.resolve(file));
+            if (!candidate.equals(match) && histories.containsKey(candidate)) {
+                if (match != null) {
+                    throw new IllegalArgumentException("Ambiguous file name: " + file);
+                }
+                match = candidate;
+            }
+        }
+        return match;
+    }
+
+    private List<Path> configDirectories() {
+        List<Path> dirs = new ArrayList<>();
+        dirs.add(Paths.get(devicesDir));
+        for (String path : List.of(devicesPath, propertiesPath, interfacesPath)) {
+            Path parent = key(Paths.get(path)).getParent();
+            if (parent != null) {
+                dirs.add(parent);
+            }
+        }
+        return dirs;
+    }
+
+    /**
+     * Trim every revision log to the retention limit. The oldest kept revision becomes a snapshot.
+     */
+    public void compact() throws IOException {
+        for (FileHistory history : histories.values()) {
+            synchronized (history) {
+                if (history.entries.size() > retention) {
+                    try {
+                        compact(history);
+                    } catch (DataFormatException e) {
+                        throw new IOException("Corrupt history for " + history.file, e);
+                    }
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (compactionScheduler != null) {
+            compactionScheduler.shutdownNow();
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException e) {
+            logger.warn("Config history compaction failed", e);
+        }
+    }
+
+    private void append(FileHistory history, byte[] content) throws IOException, DataFormatException {
+        Entry last = history.last();
+        if (last != null && history.lastContent == null) {
+            history.lastContent = reconstruct(history, history.entries.size() - 1);
+        }
+        if (last != null && Arrays.equals(history.lastContent, content)) {
+            return;
+        }
+
+        byte kind = SNAPSHOT;
+        byte[] payload = deflate(content);
+        if (last != null && last.revision - lastSnapshot(history).revision + 1 < snapshotInterval) {
+            byte[] delta = deflate(delta(history.lastContent, content));
+            if (delta.length < payload.length) {
+                kind = DELTA;
+                payload = delta;
+            }
+        }
+
+        long revision = last == null ? 1 : last.revision + 1;
+        // Keep the time index sorted even if the clock steps back
+        long timestamp = Math.max(System.currentTimeMillis(), last == null ? 0 : last.timestamp);
+        String version = FileService.contentVersion(content);
+
+        boolean created = !Files.exists(history.log);
+        if (created) {
+            Files.createDirectories(history.log.getParent());
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(payload.length + 64);
+        DataOutputStream out = new DataOutputStream(buffer);
+        if (created) {
+            writeHeader(out, history.file);
+            history.logSize = 0;
+        }
+        long recordStart = history.logSize + buffer.size();
+        long payloadOffset = recordStart + writeRecordHeader(out, revision, timestamp, kind, content.length, version, payload.length);
+        out.write(payload);
+        out.flush();
+
+        try (FileChannel channel = FileChannel.open(history.log,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(true);
+        }
+        if (created) {
+            atomicFileWriter.syncDirectory(history.log.getParent());
+            atomicFileWriter.syncDirectory(history.log.getParent().getParent());
+        }
+        history.logSize += buffer.size();
+        history.entries.add(new Entry(revision, timestamp, kind, content.length, version, payloadOffset, payload.length));
+        history.lastContent = content.clone();
+    }
+
+    private byte[] reconstruct(FileHistory history, int index) throws IOException, DataFormatException {
+        if (index == history.entries.size() - 1 && history.lastContent != null) {
+            return history.lastContent.clone();
+        }
+        int start = index;
+        while (history.entries.get(start).kind != SNAPSHOT) {
+            start--;
+        }
+        try (FileChannel channel = FileChannel.open(history.log, StandardOpenOption.READ)) {
+            byte[] content = inflate(readPayload(channel, history.entries.get(start)), history.entries.get(start).size);
+            for (int i = start + 1; i <= index; i++) {
+                Entry entry = history.entries.get(i);
+                content = applyDelta(content, inflate(readPayload(channel, entry), -1));
+            }
+            return content;
+        }
+    }
+
+    private void compact(FileHistory history) throws IOException, DataFormatException {
+        int firstKept = history.entries.size() - retention;
+        Path temp = history.log.resolveSibling(LOG_FILE + ".tmp");
+        List<Entry> kept = new ArrayList<>(retention);
+        try (FileChannel source = FileChannel.open(history.log, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(temp, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(buffer);
+            writeHeader(out, history.file);
+
+            for (int i = firstKept; i < history.entries.size(); i++) {
+                Entry entry = history.entries.get(i);
+                byte kind = entry.kind;
+                byte[] payload;
+                if (i == firstKept && kind != SNAPSHOT) {
+                    kind = SNAPSHOT;
+                    payload = deflate(reconstruct(history, i));
+                } else {
+                    payload = readPayload(source, entry);
+                }
+                long recordStart = target.position() + buffer.size();
+                long payloadOffset = recordStart
+                        + writeRecordHeader(out, entry.revision, entry.timestamp, kind, entry.size, entry.version, payload.length);
+                out.write(payload);
+                kept.add(new Entry(entry.revision, entry.timestamp, kind, entry.size, entry.version, payloadOffset, payload.length));
+
+                out.flush();
+                target.write(ByteBuffer.wrap(buffer.toByteArray()));
+                buffer.reset();
+            }
+            target.force(true);
+        }
+        Files.move(temp, history.log, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        atomicFileWriter.syncDirectory(history.log.getParent());
+
+        history.entries.clear();
+        history.entries.addAll(kept);
+        history.logSize = Files.size(history.log);
+        logger.debug("Compacted history of {} to {} revisions", history.file, kept.size());
+    }
+
+    /**
+     * Rebuild the index of one log from its record headers; a torn last record is cut off
+     */
+    private FileHistory load(Path log) throws IOException {
+        long size = Files.size(log);
+        FileHistory history;
+        long position;
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(log))) {
+            DataInputStream in = new DataInputStream(stream);
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a history log: " + log);
+            }
+            String file = in.readUTF();
+            history = new FileHistory(Paths.get(file), log);
+            position = 4 + utfLength(file);
+
+            while (position < size) {
+                try {
+                    long revision = in.readLong();
+                    long timestamp = in.readLong();
+                    byte kind = in.readByte();
+                    int contentSize = in.readInt();
+                    String version = in.readUTF();
+                    int payloadLength = in.readInt();
+                    long payloadOffset = position + 8 + 8 + 1 + 4 + utfLength(version) + 4;
+                    if (payloadOffset + payloadLength > size) {
+                        break;
+                    }
+                    in.skipNBytes(payloadLength);
+                    history.entries.add(new Entry(revision, timestamp, kind, contentSize, version, payloadOffset, payloadLength));
+                    position = payloadOffset + payloadLength;
+                } catch (EOFException e) {
+                    break;
+                }
+            }
+        }
+        if (position < size) {
+            logger.warn("Truncating incomplete history record in {}", log);
+            try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+                channel.truncate(position);
+            }
+        }
+        history.logSize = position;
+        return history;
+    }
+
+    private static void writeHeader(DataOutputStream out, Path file) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeUTF(file.toString());
+    }
+
+    /**
+     * @return number of header bytes written before the payload
+     */
+    private static int writeRecordHeader(DataOutputStream out, long revision, long timestamp, byte kind,
+                                         int size, String version, int payloadLength) throws IOException {
+        out.writeLong(revision);
+        out.writeLong(timestamp);
+        out.writeByte(kind);
+        out.writeInt(size);
+        out.writeUTF(version);
+        out.writeInt(payloadLength);
+        return 8 + 8 + 1 + 4 + utfLength(version) + 4;
+    }
+
+    private static int utfLength(String text) {
+        // History strings are paths and hex versions; modified UTF-8 equals UTF-8 for them
+        return 2 + text.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static byte[] readPayload(FileChannel channel, Entry entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(entry.payloadLength);
+        long position = entry.payloadOffset;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("History record truncated");
+            }
+            position += read;
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Delta of two revisions: common prefix length, common suffix length, changed middle
+     */
+    private static byte[] delta(byte[] previous, byte[] current) throws IOException {
+        int max = Math.min(previous.length, current.length);
+        int prefix = 0;
+        while (prefix < max && previous[prefix] == current[prefix]) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < max - prefix
+                && previous[previous.length - 1 - suffix] == current[current.length - 1 - suffix]) {
+            suffix++;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(current.length - prefix - suffix + 8);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(prefix);
+        out.writeInt(suffix);
+        out.write(current, prefix, current.length - prefix - suffix);
+        return buffer.toByteArray();
+    }
+
+    private static byte[] applyDelta(byte[] previous, byte[] delta) {
+        ByteBuffer in = ByteBuffer.wrap(delta);
+        int prefix = in.getInt();
+        int suffix = in.getInt();
+        int middle = in.remaining();
+        byte[] result = new byte[prefix + middle + suffix];
+        System.arraycopy(previous, 0, result, 0, prefix);
+        in.get(result, prefix, middle);
+        System.arraycopy(previous, previous.length - suffix, result, prefix + middle, suffix);
+        return result;
+    }
+
+    private static byte[] deflate(byte[] data) {
+        // Runs under the file's write lock: the default level compresses config text nearly as
+        // well as BEST_COMPRESSION at a fraction of the time
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int expectedSize) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(expectedSize > 0 ? expectedSize : data.length * 4);
+            byte[] chunk = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated history payload");
+                }
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static Entry lastSnapshot(FileHistory history) {
+        for (int i = history.entries.size() - 1; i >= 0; i--) {
+            if (history.entries.get(i).kind == SNAPSHOT) {
+                return history.entries.get(i);
+            }
+        }
+        return history.entries.get(0);
+    }
+
+    /**
+     * Index of the first entry with a timestamp at or after the given time
+     */
+    private static int firstAtOrAfter(List<Entry> entries, long timestamp) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries.get(mid).timestamp < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int indexOf(List<Entry> entries, long revision) {
+        // Revisions are consecutive, so the position is known once the first one is
+        if (entries.isEmpty()) {
+            return -1;
+        }
+        long index = revision - entries.get(0).revision;
+        return index < 0 || index >= entries.size() ? -1 : (int) index;
+    }
+
+    private static Revision toRevision(FileHistory history, Entry entry) {
+        return new Revision(history.file.toString(), entry.revision, entry.timestamp, entry.version, entry.size);
+    }
+
+    private Path logPathFor(Path file) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(file.toString().getBytes(StandardCharsets.UTF_8));
+            String name = file.getFileName() + "-" + HexFormat.of().formatHex(digest, 0, 6);
+            return Paths.get(historyDir).resolve(name).resolve(LOG_FILE);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Path key(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+}
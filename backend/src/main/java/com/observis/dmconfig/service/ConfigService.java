@@ -1,17 +1,30 @@
 package com.observis.dmconfig.service;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.observis.dmconfig.validation.DeviceValidator;
+import com.observis.dmconfig.validation.ValidationException;
+import com.observis.dmconfig.validation.ValidationResult;
+import com.observis.dmconfig.validation.ValidationRules;
 import com.observis.dmconfig.validation.ValidationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 /**
  * Service for managing configuration files
@@ -25,9 +38,26 @@ public class ConfigService {
     @Autowired
     private ValidationService validationService;
 
+    @Autowired
+    private ValidationRules validationRules;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private DeviceConfigExtractor deviceConfigExtractor;
+
+    @Autowired
+    private FileLockManager fileLockManager;
+
+    @Autowired
+    private DeviceRegistry deviceRegistry;
+
+    @Autowired
+    private DeviceMappings deviceMappings;
+
+    private static final Pattern DEVICE_NAME_PATTERN = Pattern.compile("^[A-Za-z0-9_-][A-Za-z0-9_.-]*$");
+
     @Value("${dm.config.devices.path:/opt/dm/devices.json}")
     private String devicesPath;
 
@@ -41,33 +71,111 @@ public class ConfigService {
      * Get devices.json configuration
      */
     public JsonNode getDevicesConfig() throws IOException {
-        return fileService.readJsonFile(devicesPath);
+        return getDevicesConfigVersioned().getValue();
+    }
+
+    /**
+     * Get devices.json configuration with its version
+     */
+    public Versioned<JsonNode> getDevicesConfigVersioned() throws IOException {
+        return fileLockManager.withReadLock(devicesPath, () -> {
+            JsonNode config = fileService.readJsonFile(devicesPath);
+            return new Versioned<>(config, fileService.getVersion(devicesPath));
+        });
     }
 
     /**
      * Save devices.json configuration
      */
     public void saveDevicesConfig(JsonNode config) throws IOException {
-        // Validate deviceManagerKey
-        String key = config.get("deviceManagerKey").asText();
-        if (!validationService.validateDeviceManagerKey(key)) {
-            throw new IllegalArgumentException("Invalid deviceManagerKey: must be max 20 chars, valid MQTT topic characters only");
-        }
+        saveDevicesConfig(config, null);
+    }
+
+    /**
+     * Save devices.json configuration if it is still at the expected version (null to skip the check)
+     *
+     * @return version of the saved file
+     */
+    public String saveDevicesConfig(JsonNode config, String expectedVersion) throws IOException {
+        validateDevicesConfig(config);
 
-        // Validate deviceManagerName
-        String name = config.get("deviceManagerName").asText();
-        if (!validationService.validateDeviceManagerName(name)) {
-            throw new IllegalArgumentException("Invalid deviceManagerName: must be max 50 chars");
+        return fileLockManager.withWriteLock(devicesPath, () -> {
+            fileService.checkVersion(devicesPath, expectedVersion);
+            return fileService.writeJsonFile(devicesPath, config);
+        });
+    }
+
+    /**
+     * Changes saving devices.json would make, without writing
+     */
+    public ChangePreview previewDevicesConfig(JsonNode config) throws IOException {
+        validateDevicesConfig(config);
+
+        JsonNode existingConfig = fileLockManager.withReadLock(devicesPath, () -> fileService.readJsonFile(devicesPath));
+        return new ChangePreview(devicesPath, JsonDiff.diff(existingConfig, config),
+                ChangePreview.RestartImpact.DM_CONTAINER);
+    }
+
+    /**
+     * Apply a merge patch or JSON Patch to devices.json
+     *
+     * @return version of the saved file
+     */
+    public String patchDevicesConfig(JsonPatcher.Format format, JsonNode patch, String expectedVersion) throws IOException {
+        return fileLockManager.withWriteLock(devicesPath, () -> {
+            JsonNode existingConfig = fileService.readSharedJsonFile(devicesPath);
+            fileService.checkVersion(devicesPath, expectedVersion);
+
+            JsonNode patched = JsonPatcher.apply(format, existingConfig, patch);
+            if (!patched.isObject()) {
+                throw new IllegalArgumentException("devices.json must remain a JSON object");
+            }
+            validateDevicesConfig(patched);
+            return fileService.writeJsonFile(devicesPath, patched);
+        });
+    }
+
+    /**
+     * Check the device manager identity in devices.json
+     */
+    public ValidationResult checkDevicesConfig(JsonNode config) {
+        ValidationResult result = new ValidationResult();
+        if (!validationService.validateDeviceManagerKey(config.path("deviceManagerKey").asText())) {
+            result.addError("deviceManagerKey",
+                    "Invalid deviceManagerKey: must be max 20 chars, valid MQTT topic characters only");
         }
+        if (!validationService.validateDeviceManagerName(config.path("deviceManagerName").asText())) {
+            result.addError("deviceManagerName", "Invalid deviceManagerName: must be max 50 chars");
+        }
+        return result;
+    }
+
+    private void validateDevicesConfig(JsonNode config) {
+        checkDevicesConfig(config).throwIfInvalid();
+    }
 
-        fileService.writeJsonFile(devicesPath, config);
+    /**
+     * Write all pending (write-behind) changes to disk
+     */
+    public void flushPendingWrites() throws IOException {
+        fileService.flushPendingWrites();
     }
 
     /**
      * Get config.properties
      */
     public Properties getConfigProperties() throws IOException {
-        return fileService.readPropertiesFile(configPropertiesPath);
+        return getConfigPropertiesVersioned().getValue();
+    }
+
+    /**
+     * Get config.properties with its version
+     */
+    public Versioned<Properties> getConfigPropertiesVersioned() throws IOException {
+        return fileLockManager.withReadLock(configPropertiesPath, () -> {
+            Properties properties = fileService.readPropertiesFile(configPropertiesPath);
+            return new Versioned<>(properties, fileService.getVersion(configPropertiesPath));
+        });
     }
 
     /**
@@ -75,9 +183,72 @@ public class ConfigService {
      * Handles both simple format (mqtt.broker, mqtt.port) and full format (fi.observis.sas.mqtt.url)
      */
     public void saveConfigProperties(Map<String, String> configMap) throws IOException {
+        saveConfigProperties(configMap, null);
+    }
+
+    /**
+     * Save config.properties if it is still at the expected version (null to skip the check)
+     *
+     * @return version of the saved file
+     */
+    public String saveConfigProperties(Map<String, String> configMap, String expectedVersion) throws IOException {
+        // Read-modify-write under the file's write lock so concurrent saves cannot lose updates
+        return fileLockManager.withWriteLock(configPropertiesPath,
+                () -> mergeConfigProperties(configMap, expectedVersion));
+    }
+
+    /**
+     * Changes saving config.properties would make, without writing
+     */
+    public ChangePreview previewConfigProperties(Map<String, String> configMap) throws IOException {
+        // The merge only sets keys, so applying it to an empty set yields exactly the updated keys
+        Properties updates = new Properties();
+        applyConfigProperties(updates, configMap);
+
+        Properties properties = fileLockManager.withReadLock(configPropertiesPath,
+                () -> fileService.readPropertiesFile(configPropertiesPath));
+        Map<String, String> before = new HashMap<>();
+        Map<String, String> after = new HashMap<>();
+        for (String key : updates.stringPropertyNames()) {
+            after.put(key, updates.getProperty(key));
+            if (properties.getProperty(key) != null) {
+                before.put(key, properties.getProperty(key));
+            }
+        }
+        return new ChangePreview(configPropertiesPath, JsonDiff.diff(before, after),
+                ChangePreview.RestartImpact.DM_CONTAINER);
+    }
+
+    private String mergeConfigProperties(Map<String, String> configMap, String expectedVersion) throws IOException {
         // Read existing properties to preserve all fields
         Properties properties = fileService.readPropertiesFile(configPropertiesPath);
-        
+        fileService.checkVersion(configPropertiesPath, expectedVersion);
+        applyConfigProperties(properties, configMap);
+        return fileService.writePropertiesFile(configPropertiesPath, properties);
+    }
+
+    /**
+     * Check config.properties settings in the simplified format (mqtt.broker, mqtt.port)
+     */
+    public ValidationResult checkConfigProperties(Map<String, String> configMap) {
+        ValidationResult result = new ValidationResult();
+        if (configMap.containsKey("mqtt.broker") && configMap.containsKey("mqtt.port")) {
+            if (!validationService.validateIPv4(configMap.get("mqtt.broker"))) {
+                result.addError("mqtt.broker", "Invalid MQTT broker IP address");
+            }
+            if (!validationService.validatePortNumber(configMap.get("mqtt.port"))) {
+                result.addError("mqtt.port", "Invalid MQTT port number");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Merge the given settings into properties; only sets keys, never reads them
+     */
+    private void applyConfigProperties(Properties properties, Map<String, String> configMap) {
+        checkConfigProperties(configMap).throwIfInvalid();
+
         // Check if we're receiving simplified format (from frontend)
         if (configMap.containsKey("mqtt.broker") && configMap.containsKey("mqtt.port")) {
             String broker = configMap.get("mqtt.broker");
@@ -85,14 +256,6 @@ public class ConfigService {
             String username = configMap.get("mqtt.username");
             String password = configMap.get("mqtt.password");
             
-            // Validate
-            if (!validationService.validateIPv4(broker)) {
-                throw new IllegalArgumentException("Invalid MQTT broker IP address");
-            }
-            if (!validationService.validatePortNumber(Integer.parseInt(port))) {
-                throw new IllegalArgumentException("Invalid MQTT port number");
-            }
-            
             // Update fi.observis.sas.mqtt.url with new IP and port
             String mqttUrl = String.format("tcp://%s:%s", broker, port);
             properties.setProperty("fi.observis.sas.mqtt.url", mqttUrl);
@@ -108,8 +271,6 @@ public class ConfigService {
             // Direct property update
             properties.putAll(configMap);
         }
-        
-        fileService.writePropertiesFile(configPropertiesPath, properties);
     }
     
     /**
@@ -140,233 +301,274 @@ public class ConfigService {
         }
     }
 
+    /**
+     * List registered devices matching all filters (indexed field to value), sorted by name
+     */
+    public List<DeviceRegistry.DeviceInfo> listDevices(Map<String, String> filters) {
+        return deviceRegistry.find(filters);
+    }
+
     /**
      * Get device-specific configuration
      * Extracts nested configuration and returns simplified format for UI
      */
     public JsonNode getDeviceConfig(String deviceName) throws IOException {
-        String devicePath = devicesDir + deviceName + ".json";
-        JsonNode fullConfig = fileService.readJsonFile(devicePath);
-        
-        // Extract nested configuration for UI
-        return extractSimplifiedConfig(deviceName, fullConfig);
+        return getDeviceConfig(deviceName, null);
     }
-    
+
     /**
-     * Extract simplified configuration from nested structure
+     * Get device-specific configuration, limited to the given fields (null for all)
+     * The cached tree is walked with a streaming parser; only the device section is read
      */
-    private JsonNode extractSimplifiedConfig(String deviceName, JsonNode fullConfig) {
-        ObjectNode simplified = objectMapper.createObjectNode();
-        
-        // Check for serialDeviceConfiguration (IBAC, WXT53X)
-        if (fullConfig.has("serialDeviceConfiguration")) {
-            JsonNode config = fullConfig.get("serialDeviceConfiguration");
-            simplified.put("address", config.path("address").asText(""));
-            simplified.put("speed", config.path("speed").asText(""));
-            simplified.put("bits", config.path("bits").asText(""));
-            simplified.put("stopBits", config.path("stopBits").asText(""));
-            simplified.put("parity", config.path("parity").asText(""));
-            simplified.put("serialPortType", config.path("serialPortType").asText(""));
-            simplified.put("name", config.path("name").asText(""));
-            simplified.put("enabled", config.path("enabled").asBoolean(true));
-        }
-        // Check for networkDeviceConfiguration (S900, Oritest)
-        else if (fullConfig.has("networkDeviceConfiguration")) {
-            JsonNode config = fullConfig.get("networkDeviceConfiguration");
-            simplified.put("address", config.path("address").asText(""));
-            simplified.put("portNumber", config.path("portNumber").asText(""));
-            simplified.put("name", config.path("name").asText(""));
-            simplified.put("enabled", config.path("enabled").asBoolean(true));
-        }
-        // Fallback: return as-is for simple format
-        else {
-            return fullConfig;
-        }
-        
-        return simplified;
+    public JsonNode getDeviceConfig(String deviceName, Set<String> fields) throws IOException {
+        return getDeviceConfigVersioned(deviceName, fields).getValue();
     }
 
     /**
-     * Save device-specific configuration
-     * Merges simplified UI format back into nested structure
+     * Get device-specific configuration with the version of its devices.d file.
+     * On a cache miss the file is read once and its tree cached for later reads.
      */
-    public void saveDeviceConfig(String deviceName, JsonNode config) throws IOException {
-        // Validate the simplified config
-        validateDeviceConfig(deviceName, config);
+    public Versioned<JsonNode> getDeviceConfigVersioned(String deviceName, Set<String> fields) throws IOException {
+        String devicePath = getDevicePath(deviceName);
 
-        String devicePath = devicesDir + deviceName + ".json";
-        
-        // Read existing full configuration
-        JsonNode existingConfig = fileService.readJsonFile(devicePath);
-        
-        // Merge simplified config into nested structure
-        JsonNode mergedConfig = mergeIntoNestedConfig(deviceName, existingConfig, config);
-        
-        // Write merged configuration back
-        fileService.writeJsonFile(devicePath, mergedConfig);
+        return fileLockManager.withReadLock(devicePath, () -> {
+            // One read on a miss: the same bytes are cached and hashed for the version
+            Versioned<JsonNode> stored = fileService.readSharedJsonFileVersioned(devicePath);
+            JsonNode simplified;
+            try (JsonParser parser = stored.getValue().traverse(objectMapper)) {
+                simplified = deviceConfigExtractor.extract(parser, fields);
+            }
+            if (simplified == null) {
+                // Fallback: return as-is for simple format
+                simplified = deviceConfigExtractor.project(stored.getValue().deepCopy(), fields);
+            }
+            return new Versioned<>(simplified, stored.getVersion());
+        });
     }
-    
+
     /**
-     * Merge simplified UI config into nested structure, preserving other fields
+     * Apply a merge patch or JSON Patch to a device file. Paths address the stored (nested)
+     * document, e.g. /networkDeviceConfiguration/portNumber or /phenomenons/0/name.
+     * The patch is applied copy-on-write to the cached tree, copying only the containers on
+     * the patched paths; the resulting device settings are validated like a regular save.
+     *
+     * @return version of the saved file
      */
-    private JsonNode mergeIntoNestedConfig(String deviceName, JsonNode existing, JsonNode simplified) {
-        ObjectNode result = (ObjectNode) existing.deepCopy();
-        
-        // Check for serialDeviceConfiguration (IBAC, WXT53X)
-        if (result.has("serialDeviceConfiguration")) {
-            ObjectNode config = (ObjectNode) result.get("serialDeviceConfiguration");
-            if (simplified.has("address")) config.put("address", simplified.get("address").asText());
-            if (simplified.has("speed")) {
-                // Convert string to number
-                String speedStr = simplified.get("speed").asText();
-                try {
-                    config.put("speed", Integer.parseInt(speedStr));
-                } catch (NumberFormatException e) {
-                    config.put("speed", speedStr);
-                }
-            }
-            if (simplified.has("bits")) {
-                String bitsStr = simplified.get("bits").asText();
-                try {
-                    config.put("bits", Integer.parseInt(bitsStr));
-                } catch (NumberFormatException e) {
-                    config.put("bits", bitsStr);
-                }
-            }
-            if (simplified.has("stopBits")) {
-                String stopBitsStr = simplified.get("stopBits").asText();
-                try {
-                    config.put("stopBits", Integer.parseInt(stopBitsStr));
-                } catch (NumberFormatException e) {
-                    config.put("stopBits", stopBitsStr);
-                }
+    public String patchDeviceConfig(String deviceName, JsonPatcher.Format format, JsonNode patch,
+                                    String expectedVersion) throws IOException {
+        String devicePath = getDevicePath(deviceName);
+
+        return fileLockManager.withWriteLock(devicePath, () -> {
+            JsonNode existingConfig = fileService.readSharedJsonFile(devicePath);
+            fileService.checkVersion(devicePath, expectedVersion);
+
+            JsonNode patched = JsonPatcher.apply(format, existingConfig, patch);
+            if (!patched.isObject()) {
+                throw new IllegalArgumentException("Device configuration must remain a JSON object");
             }
-            if (simplified.has("parity")) config.put("parity", simplified.get("parity").asText());
-            if (simplified.has("serialPortType")) config.put("serialPortType", simplified.get("serialPortType").asText());
-            if (simplified.has("name")) config.put("name", simplified.get("name").asText());
-            if (simplified.has("enabled")) config.put("enabled", simplified.get("enabled").asBoolean());
-        }
-        // Check for networkDeviceConfiguration (S900, Oritest)
-        else if (result.has("networkDeviceConfiguration")) {
-            ObjectNode config = (ObjectNode) result.get("networkDeviceConfiguration");
-            if (simplified.has("address")) config.put("address", simplified.get("address").asText());
-            if (simplified.has("portNumber")) config.put("portNumber", simplified.get("portNumber").asText());
-            if (simplified.has("name")) config.put("name", simplified.get("name").asText());
-            if (simplified.has("enabled")) config.put("enabled", simplified.get("enabled").asBoolean());
-        }
-        // Fallback: return simplified config as-is
-        else {
-            return simplified;
-        }
-        
-        return result;
+            validateDeviceConfig(deviceName, simplifiedForValidation(patched));
+
+            String version = fileService.writeJsonFile(devicePath, patched);
+            deviceRegistry.refresh(deviceName);
+            return version;
+        });
     }
 
     /**
-     * Validate device-specific configuration
+     * Simplified view of a stored device document, without the fields it does not set
      */
-    private void validateDeviceConfig(String deviceName, JsonNode config) {
-        // Common validation: name field
-        if (config.has("name")) {
-            String name = config.get("name").asText();
-            if (!validationService.validateDeviceName(name)) {
-                throw new IllegalArgumentException("Invalid device name: must be max 50 chars");
-            }
+    private JsonNode simplifiedForValidation(JsonNode stored) throws IOException {
+        ObjectNode simplified;
+        try (JsonParser parser = stored.traverse(objectMapper)) {
+            simplified = deviceConfigExtractor.extract(parser, null);
         }
-
-        // Device-specific validation
-        switch (deviceName.toUpperCase()) {
-            case "IBAC":
-            case "WXT53X":
-                validateSerialDeviceConfig(config);
-                break;
-            case "S900":
-                validateS900Config(config);
-                break;
-            case "ORITESTGTDB":
-                validateOritestgtdbConfig(config);
-                break;
-            default:
-                throw new IllegalArgumentException("Unknown device: " + deviceName);
+        if (simplified == null) {
+            return stored;
         }
+        simplified.properties().removeIf(field -> field.getValue().isTextual() && field.getValue().asText().isEmpty());
+        return simplified;
     }
 
     /**
-     * Validate serial device configuration (IBAC, WXT53X)
+     * Save several devices as one unit: every entry is validated first, all merged documents
+     * are prepared in memory, and the files are replaced together or not at all.
+     *
+     * @param configs simplified config per device name
+     * @param expectedVersions expected file version per device name (devices without one are not checked)
+     * @return version of each saved file, keyed by device name
      */
-    private void validateSerialDeviceConfig(JsonNode config) {
-        if (config.has("address")) {
-            String address = config.get("address").asText();
-            if (!validationService.validateSerialPort(address)) {
-                throw new IllegalArgumentException("Invalid serial port address");
-            }
+    public Map<String, String> saveDeviceConfigs(Map<String, JsonNode> configs,
+                                                 Map<String, String> expectedVersions) throws IOException {
+        if (configs.isEmpty()) {
+            throw new IllegalArgumentException("No devices to save");
         }
 
-        if (config.has("speed")) {
-            String speed = config.get("speed").asText();
-            if (!validationService.validateBaudRate(speed)) {
-                throw new IllegalArgumentException("Invalid baud rate");
+        // Validate everything before touching any file
+        Map<String, String> devicePaths = new LinkedHashMap<>();
+        ValidationResult errors = new ValidationResult();
+        for (Map.Entry<String, JsonNode> entry : configs.entrySet()) {
+            String deviceName = entry.getKey();
+            ValidationResult result = checkDeviceConfig(deviceName, entry.getValue());
+            for (ValidationResult.FieldError error : result.getErrors()) {
+                errors.addError(deviceName + "." + error.getField(), deviceName + ": " + error.getMessage());
             }
-        }
-
-        if (config.has("serialPortType")) {
-            String type = config.get("serialPortType").asText();
-            if (!validationService.validateSerialPortType(type)) {
-                throw new IllegalArgumentException("Invalid serial port type");
+            if (result.isValid()) {
+                devicePaths.put(deviceName, getDevicePath(deviceName));
             }
         }
+        if (!errors.isValid()) {
+            throw new ValidationException("Validation failed: " + errors.describe(), errors);
+        }
 
-        if (config.has("parity")) {
-            String parity = config.get("parity").asText();
-            if (!validationService.validateParity(parity)) {
-                throw new IllegalArgumentException("Invalid parity");
+        return fileLockManager.withWriteLocks(devicePaths.values(), () -> {
+            Map<String, JsonNode> merged = new LinkedHashMap<>();
+            for (Map.Entry<String, String> device : devicePaths.entrySet()) {
+                String deviceName = device.getKey();
+                String devicePath = device.getValue();
+                JsonNode existingConfig = fileService.readJsonFile(devicePath);
+                fileService.checkVersion(devicePath, expectedVersions.get(deviceName));
+                merged.put(devicePath, mergeIntoNestedConfig(existingConfig, configs.get(deviceName)));
             }
-        }
 
-        if (config.has("bits")) {
-            String bits = config.get("bits").asText();
-            if (!validationService.validateDataBits(bits)) {
-                throw new IllegalArgumentException("Invalid data bits");
+            Map<String, String> fileVersions;
+            try {
+                fileVersions = fileService.writeJsonFiles(merged);
+            } finally {
+                devicePaths.keySet().forEach(deviceRegistry::refresh);
             }
+
+            Map<String, String> versions = new LinkedHashMap<>();
+            devicePaths.forEach((deviceName, devicePath) -> versions.put(deviceName, fileVersions.get(devicePath)));
+            return versions;
+        });
+    }
+
+    /**
+     * Open device configuration file for raw (unparsed) streaming.
+     * The returned channel is a consistent snapshot: atomic writes replace the file, not its content.
+     */
+    public FileChannel openDeviceConfigRaw(String deviceName) throws IOException {
+        String devicePath = getDevicePath(deviceName);
+        try {
+            return fileService.openReadChannel(devicePath);
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException("Device not found: " + deviceName);
         }
+    }
 
-        if (config.has("stopBits")) {
-            String stopBits = config.get("stopBits").asText();
-            if (!validationService.validateStopBits(stopBits)) {
-                throw new IllegalArgumentException("Invalid stop bits");
-            }
+    /**
+     * Resolve the devices.d file for a device, rejecting names that could escape the directory
+     * and devices that are not in the registry
+     */
+    private String getDevicePath(String deviceName) {
+        if (deviceName == null || !DEVICE_NAME_PATTERN.matcher(deviceName).matches()) {
+            throw new IllegalArgumentException("Invalid device name: " + deviceName);
+        }
+        if (!deviceRegistry.contains(deviceName)) {
+            throw new IllegalArgumentException("Device not found: " + deviceName);
         }
+        return devicesDir + deviceName + ".json";
     }
 
     /**
-     * Validate S900 configuration
+     * Save device-specific configuration
+     * Merges simplified UI format back into nested structure
      */
-    private void validateS900Config(JsonNode config) {
-        if (config.has("address")) {
-            String address = config.get("address").asText();
-            if (!validationService.validateIPv4(address)) {
-                throw new IllegalArgumentException("Invalid IP address");
-            }
+    public void saveDeviceConfig(String deviceName, JsonNode config) throws IOException {
+        saveDeviceConfig(deviceName, config, null);
+    }
+
+    /**
+     * Save device-specific configuration if its file is still at the expected version (null to skip the check)
+     *
+     * @return version of the saved file
+     */
+    public String saveDeviceConfig(String deviceName, JsonNode config, String expectedVersion) throws IOException {
+        // Validate the simplified config
+        validateDeviceConfig(deviceName, config);
+
+        String devicePath = getDevicePath(deviceName);
+
+        return fileLockManager.withWriteLock(devicePath, () -> {
+            // Read existing full configuration
+            JsonNode existingConfig = fileService.readJsonFile(devicePath);
+            fileService.checkVersion(devicePath, expectedVersion);
+
+            // Merge simplified config into nested structure
+            JsonNode mergedConfig = mergeIntoNestedConfig(existingConfig, config);
+
+            // Write merged configuration back
+            String version = fileService.writeJsonFile(devicePath, mergedConfig);
+            deviceRegistry.refresh(deviceName);
+            return version;
+        });
+    }
+    
+    /**
+     * Changes saving device-specific configuration would make, without writing.
+     * Only the section fields present in the simplified config can change, so just those
+     * subtrees are compared.
+     */
+    public ChangePreview previewDeviceConfig(String deviceName, JsonNode config) throws IOException {
+        validateDeviceConfig(deviceName, config);
+
+        String devicePath = getDevicePath(deviceName);
+        JsonNode existingConfig = fileLockManager.withReadLock(devicePath, () -> fileService.readJsonFile(devicePath));
+
+        DeviceMapping mapping = deviceMappings.find(existingConfig);
+        if (mapping == null) {
+            return new ChangePreview(devicePath, JsonDiff.diff(existingConfig, mergeIntoNestedConfig(existingConfig, config)),
+                    ChangePreview.RestartImpact.DM_CONTAINER);
         }
 
-        if (config.has("portNumber")) {
-            int port = config.get("portNumber").asInt();
-            if (!validationService.validatePortNumber(port)) {
-                throw new IllegalArgumentException("Invalid port number: must be 1-65535");
+        // The merge replaces field nodes rather than mutating them, so the old nodes stay intact
+        JsonNode section = existingConfig.get(mapping.getSection());
+        Map<DeviceMapping.Field, JsonNode> before = new LinkedHashMap<>();
+        for (DeviceMapping.Field field : mapping.getFields()) {
+            if (config.has(field.getName())) {
+                before.put(field, section.get(field.getProperty()));
             }
         }
+        mergeIntoNestedConfig(existingConfig, config);
+
+        ArrayNode changes = JsonNodeFactory.instance.arrayNode();
+        before.forEach((field, value) ->
+                JsonDiff.diff(value, section.get(field.getProperty()), field.getPointer(), changes));
+        return new ChangePreview(devicePath, changes, ChangePreview.RestartImpact.DM_CONTAINER);
     }
 
     /**
-     * Validate oritestgtdb configuration
+     * Merge simplified config into the nested device section described by its device mapping.
+     * existing is our own copy (FileService never hands out shared trees), so it is merged in place.
      */
-    private void validateOritestgtdbConfig(JsonNode config) {
-        if (config.has("address")) {
-            String address = config.get("address").asText();
-            if (!validationService.validateIPv4(address)) {
-                throw new IllegalArgumentException("Invalid IP address");
-            }
+    private JsonNode mergeIntoNestedConfig(JsonNode existing, JsonNode simplified) {
+        DeviceMapping mapping = deviceMappings.find(existing);
+        if (mapping == null) {
+            // Fallback: simple format, store the simplified config as-is
+            return simplified;
         }
+        mapping.merge(existing, simplified);
+        return existing;
     }
-}
 
+    /**
+     * Check simplified device config against the compiled rules of its device type,
+     * collecting every field error
+     */
+    public ValidationResult checkDeviceConfig(String deviceName, JsonNode config) {
+        ValidationResult result = new ValidationResult();
+        DeviceRegistry.DeviceInfo device = deviceName == null ? null : deviceRegistry.get(deviceName);
+        DeviceValidator validator = device == null ? null
+                : validationRules.forDevice(device.getDeviceMainType(), device.getConnectionType());
+        if (validator == null) {
+            result.addError("deviceName", "Unknown device: " + deviceName);
+        } else {
+            validator.check(config, result);
+        }
+        return result;
+    }
+
+    private void validateDeviceConfig(String deviceName, JsonNode config) {
+        checkDeviceConfig(deviceName, config).throwIfInvalid();
+    }
+}
@@ -0,0 +1,147 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Reads the simplified configuration of many devices at once.
+ *
+ * Device files are read and extracted in parallel (at most dm.batch.read-threads at a time,
+ * in a {@link TaskScope}), so a batch costs roughly as much as its slowest file rather than
+ * the sum of all of them. Every device gets its own result; one missing or broken file does
+ * not fail the batch.
+ */
+@Component
+public class DeviceBatchReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceBatchReader.class);
+
+    @Autowired
+    private ConfigService configService;
+
+    @Autowired
+    private DeviceRegistry deviceRegistry;
+
+    @Value("${dm.batch.read-threads:8}")
+    private int readThreads;
+
+    @Value("${dm.batch.max-devices:1000}")
+    private int maxDevices;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ExecutorService readExecutor;
+
+    /**
+     * Outcome of reading one device: the config and its version, or an error
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static final class Result {
+        private final boolean success;
+        private final JsonNode config;
+        private final String version;
+        private final String error;
+
+        private Result(boolean success, JsonNode config, String version, String error) {
+            this.success = success;
+            this.config = config;
+            this.version = version;
+            this.error = error;
+        }
+
+        static Result of(Versioned<JsonNode> config) {
+            return new Result(true, config.getValue(), config.getVersion(), null);
+        }
+
+        static Result failed(String error) {
+            return new Result(false, null, null, error);
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public JsonNode getConfig() {
+            return config;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    /**
+     * Read every registered device
+     */
+    public Map<String, Result> readAll(Set<String> fields) {
+        return read(deviceRegistry.getDeviceNames(), fields);
+    }
+
+    /**
+     * Read the given devices (duplicates are read once), keyed by name in request order
+     */
+    public Map<String, Result> read(Collection<String> deviceNames, Set<String> fields) {
+        Set<String> names = new LinkedHashSet<>(deviceNames);
+        if (names.size() > maxDevices) {
+            throw new IllegalArgumentException("Too many devices in one batch (max " + maxDevices + ")");
+        }
+
+        Map<String, TaskScope.Subtask<Result>> subtasks = new LinkedHashMap<>();
+        try (TaskScope<Result> scope = new TaskScope<>(executor(), readThreads)) {
+            for (String name : names) {
+                subtasks.put(name, scope.fork(() -> readOne(name, fields)));
+            }
+            scope.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading devices", e);
+        }
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        subtasks.forEach((name, subtask) -> results.put(name, subtask.get()));
+        return results;
+    }
+
+    private Result readOne(String deviceName, Set<String> fields) {
+        try {
+            return Result.of(configService.getDeviceConfigVersioned(deviceName, fields));
+        } catch (IllegalArgumentException e) {
+            return Result.failed(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error reading device config {}", deviceName, e);
+            return Result.failed("Could not read device configuration: " + e.getMessage());
+        }
+    }
+
+    private synchronized ExecutorService executor() {
+        if (readExecutor == null) {
+            readExecutor = VirtualThreads.newExecutor(virtualThreads, readThreads, "config-batch-read-");
+        }
+        return readExecutor;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (readExecutor != null) {
+            readExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming extraction of the simplified (UI) device configuration.
+ *
+ * Reads only the device section named by a {@link DeviceMapping} (e.g.
+ * serialDeviceConfiguration), skips nested structures such as phenomenons and
+ * measPoints without building them, and stops as soon as all requested fields
+ * have been seen. Cost is therefore independent of how many phenomenons a device defines.
+ */
+@Component
+public class DeviceConfigExtractor {
+
+    @Autowired
+    private DeviceMappings deviceMappings;
+
+    /**
+     * Extract the simplified configuration from a streaming parser.
+     * Returns null when the document has no known device section (simple/flat format).
+     *
+     * @param fields fields to include, or null for all
+     */
+    public ObjectNode extract(JsonParser parser, Set<String> fields) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+
+        ObjectNode result = null;
+        int resultPrecedence = Integer.MAX_VALUE;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            DeviceMapping mapping = deviceMappings.forSection(parser.getCurrentName());
+            parser.nextToken();
+            if (mapping != null && mapping.getPrecedence() < resultPrecedence) {
+                // Highest precedence section: nothing after it is read, so it may be left early
+                boolean last = mapping.getPrecedence() == 0;
+                result = readSection(parser, mapping, fields, last);
+                resultPrecedence = mapping.getPrecedence();
+                if (last) {
+                    return result;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Keep only the requested top-level fields of an already parsed configuration
+     */
+    public JsonNode project(JsonNode config, Set<String> fields) {
+        if (fields == null || !config.isObject()) {
+            return config;
+        }
+        ObjectNode projected = JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> it = config.fields();
+        while (it.hasNext()) {
+            Map.Entry<String, JsonNode> field = it.next();
+            if (fields.contains(field.getKey())) {
+                projected.set(field.getKey(), field.getValue());
+            }
+        }
+        return projected;
+    }
+
+    /**
+     * Read the wanted scalar fields of a section; the parser is positioned on its START_OBJECT
+     *
+     * @param stopEarly stop once all wanted fields are seen, leaving the parser inside the section;
+     *                  otherwise the parser ends on the section's END_OBJECT
+     */
+    private ObjectNode readSection(JsonParser parser, DeviceMapping mapping, Set<String> fields,
+                                   boolean stopEarly) throws IOException {
+        List<DeviceMapping.Field> sectionFields = mapping.getFields();
+        Map<String, Object> values = new HashMap<>();
+        int wanted = 0;
+        for (DeviceMapping.Field field : sectionFields) {
+            if (fields == null || fields.contains(field.getName())) {
+                wanted++;
+            }
+        }
+
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            boolean ended = false;
+            while (values.size() < wanted) {
+                if (parser.nextToken() != JsonToken.FIELD_NAME) {
+                    ended = true;
+                    break;
+                }
+                DeviceMapping.Field field = mapping.fieldForProperty(parser.getCurrentName());
+                JsonToken token = parser.nextToken();
+                if (field != null && (fields == null || fields.contains(field.getName()))) {
+                    values.put(field.getName(), field.getType() == DeviceMapping.FieldType.BOOLEAN
+                            ? readBoolean(parser, token) : readText(parser, token));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (!ended && !stopEarly) {
+                // All wanted fields seen: skip the rest, so the caller continues at the top level
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+
+        ObjectNode simplified = JsonNodeFactory.instance.objectNode();
+        for (DeviceMapping.Field field : sectionFields) {
+            if (fields != null && !fields.contains(field.getName())) {
+                continue;
+            }
+            Object value = values.get(field.getName());
+            if (field.getType() == DeviceMapping.FieldType.BOOLEAN) {
+                simplified.put(field.getName(), value == null || (Boolean) value);
+            } else {
+                simplified.put(field.getName(), value == null ? "" : (String) value);
+            }
+        }
+        return simplified;
+    }
+
+    /**
+     * Same result as JsonNode.asText("") on the value
+     */
+    private static String readText(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+            case VALUE_NUMBER_INT:
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return parser.getText();
+            case VALUE_NUMBER_FLOAT:
+                return String.valueOf(parser.getDoubleValue());
+            case VALUE_NULL:
+                return null;
+            default:
+                parser.skipChildren();
+                return "";
+        }
+    }
+
+    /**
+     * Same result as JsonNode.asBoolean(true) on the value
+     */
+    private static Boolean readBoolean(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_STRING:
+                String text = parser.getText().trim();
+                if ("true".equals(text)) {
+                    return Boolean.TRUE;
+                }
+                return "false".equals(text) ? Boolean.FALSE : null;
+            case VALUE_NUMBER_INT:
+                return parser.getLongValue() != 0;
+            default:
+                parser.skipChildren();
+                return null;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled mapping between one stored device section (e.g. serialDeviceConfiguration)
+ * and the simplified (UI) fields, built once from device-mappings.json by {@link DeviceMappings}.
+ *
+ * Field pointers and converters are resolved up front, so extract and merge are plain
+ * loops over the field table.
+ */
+public final class DeviceMapping {
+
+    /**
+     * How a simplified value is stored in the device file
+     */
+    public enum FieldType {
+        /** Stored as text */
+        STRING {
+            @Override
+            JsonNode convert(JsonNode value) {
+                return value.isTextual() ? value : TextNode.valueOf(value.asText());
+            }
+        },
+        /** Stored as a number when the value is an integer, otherwise as the text given */
+        INTEGER {
+            @Override
+            JsonNode convert(JsonNode value) {
+                if (value.isInt()) {
+                    return value;
+                }
+                String text = value.asText();
+                try {
+                    return IntNode.valueOf(Integer.parseInt(text));
+                } catch (NumberFormatException e) {
+                    return TextNode.valueOf(text);
+                }
+            }
+        },
+        /** Stored as a boolean */
+        BOOLEAN {
+            @Override
+            JsonNode convert(JsonNode value) {
+                return BooleanNode.valueOf(value.asBoolean());
+            }
+        };
+
+        abstract JsonNode convert(JsonNode value);
+
+        static FieldType parse(String type) {
+            switch (type) {
+                case "string": return STRING;
+                case "integer": return INTEGER;
+                case "boolean": return BOOLEAN;
+                default: throw new IllegalArgumentException("Unknown field type: " + type);
+            }
+        }
+    }
+
+    /**
+     * One simplified field and where it lives in the section
+     */
+    public static final class Field {
+        private final String name;
+        private final String property;
+        private final JsonPointer pointer;
+        private final FieldType type;
+
+        Field(String name, String property, JsonPointer pointer, FieldType type) {
+            this.name = name;
+            this.property = property;
+            this.pointer = pointer;
+            this.type = type;
+        }
+
+        /** Name in the simplified config */
+        public String getName() {
+            return name;
+        }
+
+        /** Property name inside the stored section */
+        public String getProperty() {
+            return property;
+        }
+
+        /** Pointer from the document root */
+        public JsonPointer getPointer() {
+            return pointer;
+        }
+
+        public FieldType getType() {
+            return type;
+        }
+    }
+
+    private final String section;
+    private final int precedence;
+    private final String connectionType;
+    private final JsonPointer sectionPointer;
+    private final Field[] fields;
+    private final List<Field> fieldList;
+    private final Map<String, Field> fieldsByProperty = new HashMap<>();
+
+    DeviceMapping(String section, int precedence, String connectionType, List<Field> fields) {
+        this.section = section;
+        this.precedence = precedence;
+        this.connectionType = connectionType;
+        this.sectionPointer = JsonPointer.empty().appendProperty(section);
+        this.fields = fields.toArray(new Field[0]);
+        this.fieldList = List.of(this.fields);
+        for (Field field : this.fields) {
+            fieldsByProperty.put(field.getProperty(), field);
+        }
+    }
+
+    public String getSection() {
+        return section;
+    }
+
+    /**
+     * Position in the descriptor; lower wins when a file has several sections
+     */
+    public int getPrecedence() {
+        return precedence;
+    }
+
+    public String getConnectionType() {
+        return connectionType;
+    }
+
+    /**
+     * Pointer to the section from the document root
+     */
+    public JsonPointer getSectionPointer() {
+        return sectionPointer;
+    }
+
+    public List<Field> getFields() {
+        return fieldList;
+    }
+
+    /**
+     * Field stored under the given section property, or null
+     */
+    public Field fieldForProperty(String property) {
+        return fieldsByProperty.get(property);
+    }
+
+    /**
+     * Whether the document contains this mapping's section
+     */
+    public boolean matches(JsonNode document) {
+        return document.get(section) instanceof ObjectNode;
+    }
+
+    /**
+     * Write the simplified fields present in the input into the document's section, in place
+     */
+    public void merge(JsonNode document, JsonNode simplified) {
+        // Sections are top-level members, so a direct lookup replaces walking sectionPointer
+        ObjectNode target = (ObjectNode) document.get(section);
+        for (Field field : fields) {
+            JsonNode value = simplified.get(field.name);
+            if (value != null) {
+                target.set(field.property, field.type.convert(value));
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Device type field mappings, loaded once from the descriptor at dm.device-mappings.location
+ * (device-mappings.json on the classpath by default).
+ *
+ * Each mapping names a stored section, its connection type and the simplified fields with
+ * their storage type. Mappings are listed in precedence order: when a file has several
+ * known sections, the first mapping wins. Flat-format files have no section to take a
+ * connection type from; flatDevices gives theirs by device name. Supporting a new device
+ * type only needs new entries in the descriptor.
+ */
+@Component
+public class DeviceMappings {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceMappings.class);
+
+    @Value("${dm.device-mappings.location:classpath:device-mappings.json}")
+    private Resource location;
+
+    private volatile Map<String, DeviceMapping> mappings = Collections.emptyMap();
+    private volatile DeviceMapping[] ordered = new DeviceMapping[0];
+    private volatile Map<String, String> flatConnectionTypes = Collections.emptyMap();
+
+    @PostConstruct
+    void init() throws IOException {
+        try (InputStream input = location.getInputStream()) {
+            load(input);
+        }
+        logger.info("Loaded {} device mappings from {}", mappings.size(), location);
+    }
+
+    /**
+     * Compile and install the mappings of a descriptor
+     */
+    public void load(InputStream descriptor) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(descriptor);
+        Map<String, DeviceMapping> compiled = new LinkedHashMap<>();
+        for (JsonNode mapping : root.path("mappings")) {
+            String section = requiredText(mapping, "section").intern();
+            List<DeviceMapping.Field> fields = new ArrayList<>();
+            Set<String> names = new HashSet<>();
+            Set<String> properties = new HashSet<>();
+            for (JsonNode field : mapping.path("fields")) {
+                // Interned like the member names Jackson parses, so lookups hit on identity
+                String name = requiredText(field, "name").intern();
+                String property = field.path("property").asText(name).intern();
+                if (!names.add(name) || !properties.add(property)) {
+                    throw new IllegalArgumentException("Duplicate field " + name + " in mapping " + section);
+                }
+                JsonPointer pointer = JsonPointer.empty().appendProperty(section).appendProperty(property);
+                fields.add(new DeviceMapping.Field(name, property, pointer,
+                        DeviceMapping.FieldType.parse(field.path("type").asText("string"))));
+            }
+            if (compiled.put(section, new DeviceMapping(section, compiled.size(),
+                    mapping.path("connectionType").asText(null), fields)) != null) {
+                throw new IllegalArgumentException("Duplicate mapping for section " + section);
+            }
+        }
+        Map<String, String> flat = new HashMap<>();
+        root.path("flatDevices").fields().forEachRemaining(device -> {
+            if (!device.getValue().isTextual() || device.getValue().asText().isEmpty()) {
+                throw new IllegalArgumentException("Flat device " + device.getKey() + " needs a connection type");
+            }
+            flat.put(device.getKey().toUpperCase(Locale.ROOT), device.getValue().asText());
+        });
+        ordered = compiled.values().toArray(new DeviceMapping[0]);
+        mappings = Collections.unmodifiableMap(compiled);
+        flatConnectionTypes = Collections.unmodifiableMap(flat);
+    }
+
+    /**
+     * All mappings in precedence order
+     */
+    public List<DeviceMapping> getMappings() {
+        return List.of(ordered);
+    }
+
+    /**
+     * Mapping for a stored section name, or null if the name is not a device section
+     */
+    public DeviceMapping forSection(String section) {
+        return mappings.get(section);
+    }
+
+    /**
+     * Connection type of a flat-format device file by device name (case-insensitive), or null
+     */
+    public String flatConnectionType(String deviceName) {
+        return flatConnectionTypes.get(deviceName.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * First mapping whose section the document contains, or null (flat format)
+     */
+    public DeviceMapping find(JsonNode document) {
+        for (DeviceMapping mapping : ordered) {
+            if (mapping.matches(document)) {
+                return mapping;
+            }
+        }
+        return null;
+    }
+
+    private static String requiredText(JsonNode node, String member) {
+        JsonNode value = node.get(member);
+        if (value == null || !value.isTextual() || value.asText().isEmpty()) {
+            throw new IllegalArgumentException("Device mapping is missing \"" + member + "\"");
+        }
+        return value.asText();
+    }
+}
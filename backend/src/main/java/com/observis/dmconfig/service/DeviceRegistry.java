@@ -0,0 +1,465 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory registry of the device files in dm.config.devices.dir.
+ *
+ * The directory is scanned once at startup; afterwards single entries are refreshed
+ * on our own saves and on {@link ConfigFileWatcher} notifications. Devices are keyed
+ * by file name (without .json) and indexed by deviceKey, deviceMeasType,
+ * connectionType, deviceMainType and enabled, so listings and name lookups never
+ * touch the disk.
+ *
+ * Refreshes of one device (from a save and from the watcher thread) run one at a time,
+ * each reading the file and applying the result, listeners included, before the next
+ * starts; the last refresh therefore always reflects the latest file. A rescan excludes
+ * all refreshes.
+ */
+@Component
+public class DeviceRegistry implements ConfigFileWatcher.Listener {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceRegistry.class);
+
+    /**
+     * Fields that can be used as listing filters
+     */
+    public static final List<String> INDEXED_FIELDS =
+            List.of("deviceKey", "deviceMeasType", "connectionType", "deviceMainType", "enabled");
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private ConfigFileWatcher fileWatcher;
+
+    @Autowired
+    private DeviceMappings deviceMappings;
+
+    @Value("${dm.config.devices.dir:/opt/dm/devices.d/}")
+    private String devicesDir;
+
+    @Value("${dm.config.devices.path:/opt/dm/devices.json}")
+    private String devicesPath;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, DeviceInfo> devices = new TreeMap<>();
+    private final Map<String, Map<String, NavigableSet<String>>> indexes = new HashMap<>();
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Refreshes hold the read lock plus their device's monitor; a rescan holds the write lock
+    private final ReentrantReadWriteLock refreshLock = new ReentrantReadWriteLock();
+    private final Map<String, Object> deviceRefreshLocks = new ConcurrentHashMap<>();
+
+    private Path directory;
+    private Path devicesFile;
+
+    /**
+     * Callback for registry changes, for indexes derived from the device files.
+     * Calls for one device never overlap and none overlap onRescan, so an implementation
+     * can read the file and apply what it read without ordering of its own.
+     */
+    public interface Listener {
+
+        /**
+         * A device file was added or changed (saved through the API or modified on disk)
+         */
+        void onDeviceChanged(String deviceName, Path file);
+
+        /**
+         * A device file was removed
+         */
+        void onDeviceRemoved(String deviceName);
+
+        /**
+         * The whole directory was re-scanned; derived state must be rebuilt
+         */
+        void onRescan();
+    }
+
+    /**
+     * Summary of one device file
+     */
+    public static final class DeviceInfo {
+        private final String name;
+        private final String displayName;
+        private final String deviceKey;
+        private final String deviceMeasType;
+        private final String connectionType;
+        private final String deviceMainType;
+        private final boolean enabled;
+
+        DeviceInfo(String name, String displayName, String deviceKey, String deviceMeasType,
+                   String connectionType, String deviceMainType, boolean enabled) {
+            this.name = name;
+            this.displayName = displayName;
+            this.deviceKey = deviceKey;
+            this.deviceMeasType = deviceMeasType;
+            this.connectionType = connectionType;
+            this.deviceMainType = deviceMainType;
+            this.enabled = enabled;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public String getDeviceKey() {
+            return deviceKey;
+        }
+
+        public String getDeviceMeasType() {
+            return deviceMeasType;
+        }
+
+        public String getConnectionType() {
+            return connectionType;
+        }
+
+        public String getDeviceMainType() {
+            return deviceMainType;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        String indexValue(String field) {
+            switch (field) {
+                case "deviceKey": return deviceKey;
+                case "deviceMeasType": return deviceMeasType;
+                case "connectionType": return connectionType;
+                case "deviceMainType": return deviceMainType;
+                case "enabled": return String.valueOf(enabled);
+                default: return null;
+            }
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        directory = Paths.get(devicesDir).toAbsolutePath().normalize();
+        devicesFile = Paths.get(devicesPath).toAbsolutePath().normalize();
+        for (String field : INDEXED_FIELDS) {
+            indexes.put(field, new HashMap<>());
+        }
+        fileWatcher.addListener(this);
+        fileWatcher.watchDirectory(directory);
+        rescan();
+    }
+
+    /**
+     * Register a listener and have it build its state from the current devices (onRescan).
+     * Its calls for one device never overlap, and none overlap a rescan.
+     */
+    public void addListener(Listener listener) {
+        refreshLock.writeLock().lock();
+        try {
+            listeners.add(listener);
+            listener.onRescan();
+        } finally {
+            refreshLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Path of a device's file in the devices directory
+     */
+    public Path getDeviceFile(String deviceName) {
+        return directory.resolve(deviceName + ".json");
+    }
+
+    /**
+     * Whether a device file with this name exists
+     */
+    public boolean contains(String deviceName) {
+        lock.readLock().lock();
+        try {
+            return devices.containsKey(deviceName);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Summary of a device, or null if unknown
+     */
+    public DeviceInfo get(String deviceName) {
+        lock.readLock().lock();
+        try {
+            return devices.get(deviceName);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Devices matching all given filters (field to value, case-insensitive), sorted by name
+     */
+    public List<DeviceInfo> find(Map<String, String> filters) {
+        for (String field : filters.keySet()) {
+            if (!INDEXED_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown filter: " + field);
+            }
+        }
+        lock.readLock().lock();
+        try {
+            if (filters.isEmpty()) {
+                return new ArrayList<>(devices.values());
+            }
+            // Intersect starting from the smallest posting set
+            List<Set<String>> postings = new ArrayList<>();
+            for (Map.Entry<String, String> filter : filters.entrySet()) {
+                Set<String> names = indexes.get(filter.getKey()).get(normalize(filter.getValue()));
+                if (names == null) {
+                    return List.of();
+                }
+                postings.add(names);
+            }
+            postings.sort((a, b) -> Integer.compare(a.size(), b.size()));
+            List<DeviceInfo> result = new ArrayList<>();
+            for (String name : postings.get(0)) {
+                boolean matches = true;
+                for (int i = 1; i < postings.size() && matches; i++) {
+                    matches = postings.get(i).contains(name);
+                }
+                if (matches) {
+                    result.add(devices.get(name));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Names of all registered devices, sorted
+     */
+    public Set<String> getDeviceNames() {
+        lock.readLock().lock();
+        try {
+            return Collections.unmodifiableSet(new TreeSet<>(devices.keySet()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Re-read one device file (e.g. after a save); removes it if the file is gone
+     */
+    public void refresh(String deviceName) {
+        refreshLock.readLock().lock();
+        try {
+            synchronized (deviceRefreshLocks.computeIfAbsent(deviceName, name -> new Object())) {
+                Path file = getDeviceFile(deviceName);
+                DeviceInfo info = Files.isRegularFile(file) ? read(deviceName, file) : null;
+                boolean existed;
+                lock.writeLock().lock();
+                try {
+                    existed = remove(deviceName);
+                    if (info != null) {
+                        add(info);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                for (Listener listener : listeners) {
+                    if (info != null) {
+                        listener.onDeviceChanged(deviceName, file);
+                    } else if (existed) {
+                        listener.onDeviceRemoved(deviceName);
+                    }
+                }
+            }
+        } finally {
+            refreshLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Re-scan the whole directory
+     */
+    public void rescan() {
+        refreshLock.writeLock().lock();
+        try {
+            Map<String, DeviceInfo> scanned = new TreeMap<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.json")) {
+                for (Path file : files) {
+                    String name = deviceName(file);
+                    if (name != null) {
+                        DeviceInfo info = read(name, file);
+                        if (info != null) {
+                            scanned.put(name, info);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Could not scan device directory {}: {}", directory, e.getMessage());
+            }
+
+            lock.writeLock().lock();
+            try {
+                devices.clear();
+                indexes.values().forEach(Map::clear);
+                scanned.values().forEach(this::add);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Device registry: {} devices in {}", scanned.size(), directory);
+            listeners.forEach(Listener::onRescan);
+        } finally {
+            refreshLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onFileChanged(Path file) {
+        String name = deviceName(file.toAbsolutePath().normalize());
+        if (name != null) {
+            refresh(name);
+        }
+    }
+
+    @Override
+    public void onDirectoryChanged(Path dir) {
+        if (directory.equals(dir.toAbsolutePath().normalize())) {
+            rescan();
+        }
+    }
+
+    /**
+     * Device name of a file (absolute, normalized) in the devices directory, or null if it is not a device file
+     */
+    public String deviceName(Path file) {
+        String fileName = file.getFileName().toString();
+        if (!directory.equals(file.getParent()) || file.equals(devicesFile)
+                || fileName.startsWith(".") || !fileName.endsWith(".json")) {
+            return null;
+        }
+        return fileName.substring(0, fileName.length() - ".json".length());
+    }
+
+    /**
+     * Read the indexed fields of a device file with a streaming parser
+     */
+    private DeviceInfo read(String name, Path file) {
+        try (JsonParser parser = fileService.openJsonParser(file.toString())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            Map<String, String> fields = new HashMap<>();
+            DeviceMapping section = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                DeviceMapping mapping = value == JsonToken.START_OBJECT ? deviceMappings.forSection(field) : null;
+                if (mapping != null) {
+                    if (section == null) {
+                        section = mapping;
+                        readScalars(parser, fields);
+                    } else {
+                        parser.skipChildren();
+                    }
+                } else if (value.isScalarValue()) {
+                    // Flat format: scalars at the top level
+                    if (section == null) {
+                        fields.putIfAbsent(field, parser.getValueAsString());
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            String connectionType = fields.get("connectionType");
+            if (connectionType == null) {
+                connectionType = section != null ? section.getConnectionType() : deviceMappings.flatConnectionType(name);
+            }
+            String deviceMainType = fields.getOrDefault("deviceMainType", fields.get("deviceType"));
+            boolean enabled = !"false".equalsIgnoreCase(fields.get("enabled"));
+            return new DeviceInfo(name, fields.get("name"), fields.get("deviceKey"), fields.get("deviceMeasType"),
+                    connectionType, deviceMainType, enabled);
+        } catch (IOException e) {
+            logger.warn("Skipping unreadable device file {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void readScalars(JsonParser parser, Map<String, String> fields) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value.isScalarValue()) {
+                fields.put(field, parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void add(DeviceInfo info) {
+        devices.put(info.getName(), info);
+        for (String field : INDEXED_FIELDS) {
+            String value = info.indexValue(field);
+            if (value != null) {
+                indexes.get(field).computeIfAbsent(normalize(value), v -> new TreeSet<>()).add(info.getName());
+            }
+        }
+    }
+
+    private boolean remove(String deviceName) {
+        DeviceInfo info = devices.remove(deviceName);
+        if (info == null) {
+            return false;
+        }
+        for (String field : INDEXED_FIELDS) {
+            String value = info.indexValue(field);
+            if (value != null) {
+                Map<String, NavigableSet<String>> index = indexes.get(field);
+                NavigableSet<String> names = index.get(normalize(value));
+                if (names != null) {
+                    names.remove(deviceName);
+                    if (names.isEmpty()) {
+                        index.remove(normalize(value));
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String value) {
+        return value.toUpperCase(Locale.ROOT);
+    }
+}
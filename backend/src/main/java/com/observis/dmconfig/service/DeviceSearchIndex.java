@@ -0,0 +1,291 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process full-text index over the name, description and categoryName of each device
+ * and the names of its phenomenons.
+ *
+ * Text is split into lower-case letter/digit tokens kept in a sorted map, so every query
+ * token matches as a prefix ("vais" finds "Vaisala") with a range lookup. Like
+ * {@link PhenomenonIndex} it is built once from the {@link DeviceRegistry} and then
+ * updated per device through its listener.
+ */
+@Component
+public class DeviceSearchIndex implements DeviceRegistry.Listener {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceSearchIndex.class);
+
+    private static final Set<String> TEXT_FIELDS = Set.of("name", "description", "categoryName");
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private DeviceRegistry deviceRegistry;
+
+    @Autowired
+    private DeviceMappings deviceMappings;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Hit> byDevice = new HashMap<>();
+    private final TreeMap<String, NavigableSet<String>> tokens = new TreeMap<>();
+
+    /**
+     * Searchable text of one device
+     */
+    public static final class Hit {
+        private final String device;
+        private final String name;
+        private final String description;
+        private final String categoryName;
+        private final Set<String> tokens;
+
+        Hit(String device, String name, String description, String categoryName, Set<String> tokens) {
+            this.device = device;
+            this.name = name;
+            this.description = description;
+            this.categoryName = categoryName;
+            this.tokens = tokens;
+        }
+
+        public String getDevice() {
+            return device;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getCategoryName() {
+            return categoryName;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        // Builds the index, ordered with the registry's own refreshes
+        deviceRegistry.addListener(this);
+    }
+
+    /**
+     * Devices containing every token of the query, each as a word prefix, sorted by device name
+     */
+    public List<Hit> search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Set<String> matches = null;
+            for (String term : terms) {
+                Set<String> devices = new HashSet<>();
+                for (NavigableSet<String> names : tokens.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                    if (matches == null) {
+                        devices.addAll(names);
+                    } else {
+                        for (String name : names) {
+                            if (matches.contains(name)) {
+                                devices.add(name);
+                            }
+                        }
+                    }
+                }
+                matches = devices;
+                if (matches.isEmpty()) {
+                    return List.of();
+                }
+            }
+            List<Hit> result = new ArrayList<>();
+            for (String device : new TreeSet<>(matches)) {
+                result.add(byDevice.get(device));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onDeviceChanged(String deviceName, Path file) {
+        Hit hit = read(deviceName, file);
+        lock.writeLock().lock();
+        try {
+            remove(deviceName);
+            if (hit != null) {
+                add(hit);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onDeviceRemoved(String deviceName) {
+        lock.writeLock().lock();
+        try {
+            remove(deviceName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onRescan() {
+        List<Hit> scanned = new ArrayList<>();
+        for (String deviceName : deviceRegistry.getDeviceNames()) {
+            Hit hit = read(deviceName, deviceRegistry.getDeviceFile(deviceName));
+            if (hit != null) {
+                scanned.add(hit);
+            }
+        }
+
+        int count;
+        lock.writeLock().lock();
+        try {
+            byDevice.clear();
+            tokens.clear();
+            scanned.forEach(this::add);
+            count = tokens.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Device search index: {} devices, {} tokens", scanned.size(), count);
+    }
+
+    /**
+     * Split text into lower-case runs of letters and digits
+     */
+    static List<String> tokenize(String text) {
+        List<String> result = new ArrayList<>();
+        if (text == null) {
+            return result;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                result.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read the text fields of a device file with a streaming parser, from its device
+     * section or, for the flat format, from the top level
+     */
+    private Hit read(String deviceName, Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (JsonParser parser = fileService.openJsonParser(file.toString())) {
+            Map<String, String> fields = new HashMap<>();
+            List<String> phenomenonNames = new ArrayList<>();
+            boolean read = DeviceSectionReader.read(parser, deviceMappings, new DeviceSectionReader.Handler() {
+                @Override
+                public void sectionStart() {
+                    fields.clear();
+                    phenomenonNames.clear();
+                }
+
+                @Override
+                public void member(JsonParser parser, String name) throws IOException {
+                    readField(parser, name, fields, phenomenonNames);
+                }
+            });
+            if (!read) {
+                return null;
+            }
+
+            Set<String> deviceTokens = new LinkedHashSet<>(tokenize(deviceName));
+            for (String field : TEXT_FIELDS) {
+                deviceTokens.addAll(tokenize(fields.get(field)));
+            }
+            phenomenonNames.forEach(name -> deviceTokens.addAll(tokenize(name)));
+            return new Hit(deviceName, fields.get("name"), fields.get("description"),
+                    fields.get("categoryName"), deviceTokens);
+        } catch (IOException e) {
+            logger.warn("Skipping unreadable device file {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void readField(JsonParser parser, String field, Map<String, String> fields,
+                                  List<String> phenomenonNames) throws IOException {
+        JsonToken value = parser.currentToken();
+        if (TEXT_FIELDS.contains(field) && value == JsonToken.VALUE_STRING) {
+            fields.put(field, parser.getText());
+        } else if ("phenomenons".equals(field) && value == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String nested = parser.getCurrentName();
+                    if (parser.nextToken() == JsonToken.VALUE_STRING && "name".equals(nested)) {
+                        phenomenonNames.add(parser.getText());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private void add(Hit hit) {
+        byDevice.put(hit.getDevice(), hit);
+        for (String token : hit.tokens) {
+            tokens.computeIfAbsent(token, t -> new TreeSet<>()).add(hit.getDevice());
+        }
+    }
+
+    private void remove(String deviceName) {
+        Hit hit = byDevice.remove(deviceName);
+        if (hit == null) {
+            return;
+        }
+        for (String token : hit.tokens) {
+            NavigableSet<String> names = tokens.get(token);
+            if (names != null) {
+                names.remove(deviceName);
+                if (names.isEmpty()) {
+                    tokens.remove(token);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Streaming walk over the members of a device file's device section, shared by the
+ * indexes derived from device files so they agree on what the device section is.
+ *
+ * The device section is the first top-level object whose name has a {@link DeviceMapping}
+ * (e.g. networkDeviceConfiguration). A file without one is in the flat format and its
+ * top-level members are used instead. Top-level members seen before the section are handed
+ * to the handler too, which forgets them again when the section starts.
+ */
+final class DeviceSectionReader {
+
+    /**
+     * Receives the members of the device section (or the top level of a flat file)
+     */
+    interface Handler {
+
+        /**
+         * The device section starts: drop whatever was collected from the top level
+         */
+        void sectionStart();
+
+        /**
+         * A member; the parser is on its value, which the handler must consume or skip
+         */
+        void member(JsonParser parser, String name) throws IOException;
+    }
+
+    private DeviceSectionReader() {
+    }
+
+    /**
+     * Walk a document from the parser's start
+     *
+     * @return false if the document is not a JSON object
+     */
+    static boolean read(JsonParser parser, DeviceMappings deviceMappings, Handler handler) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        boolean sectionRead = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_OBJECT && !sectionRead && deviceMappings.forSection(field) != null) {
+                sectionRead = true;
+                handler.sectionStart();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String nested = parser.getCurrentName();
+                    parser.nextToken();
+                    handler.member(parser, nested);
+                }
+            } else if (!sectionRead) {
+                handler.member(parser, field);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return true;
+    }
+}
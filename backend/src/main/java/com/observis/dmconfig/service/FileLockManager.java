@@ -0,0 +1,153 @@
+package com.observis.dmconfig.service;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Read/write locks for config files, keyed by canonical file path.
+ *
+ * Every file gets its own lock, so reading or writing one device never waits for
+ * another device. Read-modify-write sequences on the same file run under its write
+ * lock and are therefore linearizable. Contention counters are kept per lock.
+ */
+@Component
+public class FileLockManager {
+
+    /**
+     * Work done while holding a lock
+     */
+    @FunctionalInterface
+    public interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    private static final class FileLock {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final AtomicLong readAcquisitions = new AtomicLong();
+        final AtomicLong writeAcquisitions = new AtomicLong();
+        final AtomicLong contended = new AtomicLong();
+        final AtomicLong waitNanos = new AtomicLong();
+    }
+
+    private final Map<Path, FileLock> locks = new ConcurrentHashMap<>();
+    private final Map<Path, Path> canonicalPaths = new ConcurrentHashMap<>();
+
+    /**
+     * Run an action while holding the file's read lock
+     */
+    public <T> T withReadLock(String filePath, LockedAction<T> action) throws IOException {
+        FileLock fileLock = lockFor(filePath);
+        Lock lock = fileLock.lock.readLock();
+        acquire(fileLock, lock);
+        fileLock.readAcquisitions.incrementAndGet();
+        try {
+            return action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Run an action while holding the file's write lock
+     */
+    public <T> T withWriteLock(String filePath, LockedAction<T> action) throws IOException {
+        return withWriteLocks(List.of(filePath), action);
+    }
+
+    /**
+     * Run an action while holding the write locks of several files.
+     * Locks are taken in canonical path order so concurrent callers cannot deadlock.
+     */
+    public <T> T withWriteLocks(Collection<String> filePaths, LockedAction<T> action) throws IOException {
+        TreeSet<Path> ordered = new TreeSet<>();
+        for (String filePath : filePaths) {
+            ordered.add(canonical(filePath));
+        }
+
+        List<Lock> held = new ArrayList<>(ordered.size());
+        try {
+            for (Path path : ordered) {
+                FileLock fileLock = locks.computeIfAbsent(path, p -> new FileLock());
+                Lock lock = fileLock.lock.writeLock();
+                acquire(fileLock, lock);
+                fileLock.writeAcquisitions.incrementAndGet();
+                held.add(lock);
+            }
+            return action.run();
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+    }
+
+    /**
+     * Contention counters per locked file
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        locks.forEach((path, fileLock) -> {
+            Map<String, Object> lockStats = new LinkedHashMap<>();
+            lockStats.put("readAcquisitions", fileLock.readAcquisitions.get());
+            lockStats.put("writeAcquisitions", fileLock.writeAcquisitions.get());
+            lockStats.put("contended", fileLock.contended.get());
+            lockStats.put("waitMillis", fileLock.waitNanos.get() / 1_000_000);
+            lockStats.put("queueLength", fileLock.lock.getQueueLength());
+            stats.put(path.toString(), lockStats);
+        });
+        return stats;
+    }
+
+    private void acquire(FileLock fileLock, Lock lock) {
+        if (lock.tryLock()) {
+            return;
+        }
+        fileLock.contended.incrementAndGet();
+        long start = System.nanoTime();
+        lock.lock();
+        fileLock.waitNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    private FileLock lockFor(String filePath) {
+        return locks.computeIfAbsent(canonical(filePath), p -> new FileLock());
+    }
+
+    /**
+     * Canonical form of a path, so different spellings of the same file share a lock.
+     * Only the parent directory is resolved, so the key is the same before and after the
+     * file exists (atomic writes replace the directory entry, not what it points to).
+     */
+    private Path canonical(String filePath) {
+        Path absolute = Paths.get(filePath).toAbsolutePath().normalize();
+        Path known = canonicalPaths.get(absolute);
+        if (known != null) {
+            return known;
+        }
+        Path parent = absolute.getParent();
+        if (parent == null) {
+            return absolute;
+        }
+        try {
+            Path canonical = parent.toRealPath().resolve(absolute.getFileName());
+            canonicalPaths.put(absolute, canonical);
+            return canonical;
+        } catch (IOException e) {
+            // Parent does not exist (yet): fall back to the normalized absolute path
+            return absolute;
+        }
+    }
+}
@@ -1,17 +1,35 @@
 package com.observis.dmconfig.service;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.function.Supplier;
 
 /**
  * Service for reading and writing JSON and properties files
+ *
+ * Parsed files are kept in {@link ConfigFileCache}; callers always get their own copy.
+ * Every file also has a content version (a hash of its bytes) used for optimistic
+ * concurrency; it is computed from bytes that are read or written anyway.
  */
 @Service
 public class FileService {
@@ -19,47 +37,339 @@ public class FileService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ConfigFileCache cache;
+
+    @Autowired
+    private AtomicFileWriter atomicFileWriter;
+
+    @Autowired
+    private WriteBehindQueue writeBehindQueue;
+
+    @Autowired
+    private ConfigHistoryStore historyStore;
+
     /**
      * Read JSON file and return as JsonNode
      */
     public JsonNode readJsonFile(String filePath) throws IOException {
-        File file = new File(filePath);
-        if (!file.exists()) {
+        return readSharedJsonFile(filePath).deepCopy();
+    }
+
+    /**
+     * Read a JSON file without copying it: the cached (or pending write-behind) tree itself.
+     * The result is shared and must not be modified; for copy-on-write changes ({@link JsonPatcher}).
+     */
+    public JsonNode readSharedJsonFile(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        JsonNode pending = writeBehindQueue.getPending(path, JsonNode.class);
+        if (pending != null) {
+            return pending;
+        }
+        JsonNode cached = cache.get(path, JsonNode.class);
+        if (cached != null) {
+            return cached;
+        }
+        return loadJsonFile(path).getValue();
+    }
+
+    /**
+     * {@link #readSharedJsonFile} together with the file's content version. On a miss the
+     * file is read once, and those bytes are parsed, cached and hashed.
+     */
+    public Versioned<JsonNode> readSharedJsonFileVersioned(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        JsonNode shared = writeBehindQueue.getPending(path, JsonNode.class);
+        if (shared == null) {
+            shared = cache.get(path, JsonNode.class);
+        }
+        if (shared != null) {
+            return new Versioned<>(shared, getVersion(filePath));
+        }
+        return loadJsonFile(path);
+    }
+
+    private Versioned<JsonNode> loadJsonFile(Path path) throws IOException {
+        long ticket = cache.beginLoad(path);
+        if (!Files.exists(path)) {
+            throw new IOException("File not found: " + path);
+        }
+        byte[] content = Files.readAllBytes(path);
+        JsonNode jsonNode = objectMapper.readTree(content);
+        String version = contentVersion(content);
+        cache.put(path, jsonNode, content.length, version, ticket);
+        return new Versioned<>(jsonNode, version);
+    }
+
+    /**
+     * Open a streaming parser over a JSON file, for reads that only need part of it.
+     * Served from the cached tree when present, otherwise streamed from disk without caching.
+     */
+    public JsonParser openJsonParser(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        JsonNode pending = writeBehindQueue.getPending(path, JsonNode.class);
+        if (pending != null) {
+            return pending.traverse(objectMapper);
+        }
+        JsonNode cached = cache.get(path, JsonNode.class);
+        if (cached != null) {
+            return cached.traverse(objectMapper);
+        }
+        if (!Files.exists(path)) {
             throw new IOException("File not found: " + filePath);
         }
-        return objectMapper.readTree(file);
+        return objectMapper.getFactory().createParser(Files.newInputStream(path));
     }
 
     /**
      * Write JsonNode to JSON file
+     *
+     * @return content version of the written file
      */
-    public void writeJsonFile(String filePath, JsonNode jsonNode) throws IOException {
+    public String writeJsonFile(String filePath, JsonNode jsonNode) throws IOException {
         File file = new File(filePath);
         File parentDir = file.getParentFile();
         if (parentDir != null && !parentDir.exists()) {
             throw new IOException("Parent directory does not exist: " + parentDir.getAbsolutePath());
         }
-        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, jsonNode);
+        byte[] content = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(jsonNode);
+        return submitOrWrite(file.toPath(), jsonNode::deepCopy, content);
+    }
+
+    /**
+     * Write several JSON files as one atomic unit: either all of them are replaced or none,
+     * also across a crash (see {@link AtomicFileWriter#writeAll}).
+     * Bypasses write-behind; pending states of these files are flushed first.
+     *
+     * @return content version of each written file, keyed by the given path
+     */
+    public Map<String, String> writeJsonFiles(Map<String, JsonNode> files) throws IOException {
+        Map<Path, byte[]> contents = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> file : files.entrySet()) {
+            Path path = Paths.get(file.getKey());
+            writeBehindQueue.flush(path);
+            contents.put(path, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(file.getValue()));
+        }
+
+        contents.keySet().forEach(historyStore::recordBaseline);
+        try {
+            atomicFileWriter.writeAll(contents);
+        } finally {
+            contents.keySet().forEach(cache::invalidate);
+        }
+
+        Map<String, String> versions = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> file : files.entrySet()) {
+            byte[] content = contents.get(Paths.get(file.getKey()));
+            historyStore.record(Paths.get(file.getKey()), content);
+            versions.put(file.getKey(), contentVersion(content));
+        }
+        return versions;
     }
 
     /**
      * Read properties file
      */
     public Properties readPropertiesFile(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        Properties pending = writeBehindQueue.getPending(path, Properties.class);
+        if (pending != null) {
+            return copyOf(pending);
+        }
+        Properties cached = cache.get(path, Properties.class);
+        if (cached != null) {
+            return copyOf(cached);
+        }
+
+        long ticket = cache.beginLoad(path);
+        byte[] content = Files.readAllBytes(path);
         Properties properties = new Properties();
-        try (InputStream input = Files.newInputStream(Paths.get(filePath))) {
+        try (InputStream input = new ByteArrayInputStream(content)) {
             properties.load(input);
         }
-        return properties;
+        cache.put(path, properties, content.length, contentVersion(content), ticket);
+        return copyOf(properties);
     }
 
     /**
      * Write properties to file
+     *
+     * The existing file is patched line by line ({@link PropertiesDocument}): order,
+     * comments and escaping are kept, and nothing is written when the bytes would not change.
+     *
+     * @return content version of the written file
+     */
+    public String writePropertiesFile(String filePath, Properties properties) throws IOException {
+        Path path = Paths.get(filePath);
+        byte[] existing = writeBehindQueue.getPendingContent(path);
+        if (existing == null && Files.exists(path)) {
+            existing = Files.readAllBytes(path);
+        }
+        PropertiesDocument document = PropertiesDocument.parse(existing != null ? existing : new byte[0]);
+        document.update(properties);
+        byte[] content = document.toBytes();
+        if (existing != null && Arrays.equals(existing, content)) {
+            return contentVersion(existing);
+        }
+        return submitOrWrite(path, () -> copyOf(properties), content);
+    }
+
+    /**
+     * Read a plain text file (UTF-8), e.g. /etc/network/interfaces
+     */
+    public String readTextFile(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        long ticket = cache.beginLoad(path);
+        byte[] content = Files.readAllBytes(path);
+        cache.putVersion(path, contentVersion(content), ticket);
+        return new String(content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write a plain text file (UTF-8), e.g. /etc/network/interfaces
+     * Always written immediately, also in write-behind mode
+     *
+     * @return content version of the written file
+     */
+    public String writeTextFile(String filePath, String content) throws IOException {
+        return writeFile(Paths.get(filePath), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Current content version of a file, or null if it does not exist.
+     * Served from the pending write-behind state or the cache when known,
+     * otherwise the file is hashed once and the result remembered until it changes.
+     */
+    public String getVersion(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        String version = writeBehindQueue.getPendingVersion(path);
+        if (version != null) {
+            return version;
+        }
+        version = cache.getVersion(path);
+        if (version != null) {
+            return version;
+        }
+        long ticket = cache.beginLoad(path);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        version = contentVersion(Files.readAllBytes(path));
+        cache.putVersion(path, version, ticket);
+        return version;
+    }
+
+    /**
+     * Verify that a file is still at the version a caller based its change on.
+     * Call while holding the file's write lock; a null expected version skips the check.
+     */
+    public void checkVersion(String filePath, String expectedVersion) throws IOException {
+        if (expectedVersion == null) {
+            return;
+        }
+        String currentVersion = getVersion(filePath);
+        if (!expectedVersion.equals(currentVersion)) {
+            throw new VersionConflictException(filePath, currentVersion);
+        }
+    }
+
+    /**
+     * Replace a file with earlier content (history rollback), bypassing write-behind
+     *
+     * @return content version of the written file
      */
-    public void writePropertiesFile(String filePath, Properties properties) throws IOException {
-        try (OutputStream output = Files.newOutputStream(Paths.get(filePath))) {
-            properties.store(output, null);
+    public String restoreFile(String filePath, byte[] content) throws IOException {
+        Path path = Paths.get(filePath);
+        writeBehindQueue.flush(path);
+        return writeFile(path, content);
+    }
+
+    /**
+     * Hand a parsed file state to write-behind when enabled, otherwise write it now.
+     * The state is only copied for write-behind; a direct write needs just the bytes.
+     */
+    private String submitOrWrite(Path path, Supplier<Object> state, byte[] content) throws IOException {
+        if (!writeBehindQueue.isEnabled()) {
+            return writeFile(path, content);
         }
+        String version = contentVersion(content);
+        historyStore.recordBaseline(path);
+        writeBehindQueue.submit(path, state.get(), content, version);
+        historyStore.record(path, content);
+        return version;
+    }
+
+    /**
+     * Replace a file atomically and durably (temp file, fsync, rename, directory fsync)
+     * and record the new content in the config history
+     */
+    private String writeFile(Path path, byte[] content) throws IOException {
+        historyStore.recordBaseline(path);
+        try {
+            atomicFileWriter.write(path, content);
+        } finally {
+            cache.invalidate(path);
+        }
+        historyStore.record(path, content);
+        return contentVersion(content);
+    }
+
+    /**
+     * Open a file for zero-copy transfer; a pending write-behind state is flushed first
+     */
+    public FileChannel openReadChannel(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        writeBehindQueue.flush(path);
+        return FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    /**
+     * Barrier for write-behind mode: returns once every pending write is durable on disk
+     */
+    public void flushPendingWrites() throws IOException {
+        writeBehindQueue.flushAll();
+    }
+
+    /**
+     * Stream the whole channel to the output without copying it onto the heap
+     */
+    public static void transferFully(FileChannel channel, OutputStream output) throws IOException {
+        WritableByteChannel target = Channels.newChannel(output);
+        long size = channel.size();
+        long position = 0;
+        while (position < size) {
+            long transferred = channel.transferTo(position, size - position, target);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+        }
+        output.flush();
+    }
+
+    /**
+     * Cache counters (hits, misses, evictions, invalidations)
+     */
+    public Map<String, Object> getCacheStats() {
+        return cache.getStats();
+    }
+
+    /**
+     * Content version of a file: the first 64 bits of the SHA-256 of its bytes, in hex
+     */
+    static String contentVersion(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Properties copyOf(Properties source) {
+        Properties copy = new Properties();
+        copy.putAll(source);
+        return copy;
     }
 }
 
@@ -0,0 +1,137 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Structural diff between two JSON trees, as a list of RFC 6902 style operations.
+ *
+ * Each change has op (add, remove, replace), path (JSON Pointer) and, where they apply,
+ * the old and new value. Objects are compared member by member and arrays index by index,
+ * so only the subtrees that actually differ produce changes. Callers that know which
+ * subtrees an edit can touch diff just those, at their pointer.
+ */
+public final class JsonDiff {
+
+    private JsonDiff() {
+    }
+
+    /**
+     * Changes turning before into after (null or missing means absent)
+     */
+    public static ArrayNode diff(JsonNode before, JsonNode after) {
+        ArrayNode changes = JsonNodeFactory.instance.arrayNode();
+        diff(before, after, "", changes);
+        return changes;
+    }
+
+    /**
+     * Changes between two flat string maps, one member per key (null values are absent)
+     */
+    public static ArrayNode diff(Map<String, String> before, Map<String, String> after) {
+        ArrayNode changes = JsonNodeFactory.instance.arrayNode();
+        Set<String> keys = new TreeSet<>(before.keySet());
+        keys.addAll(after.keySet());
+        for (String key : keys) {
+            diff(text(before.get(key)), text(after.get(key)), member("", key), changes);
+        }
+        return changes;
+    }
+
+    /**
+     * Append the changes turning before into after, located at path, to changes
+     */
+    public static void diff(JsonNode before, JsonNode after, JsonPointer path, ArrayNode changes) {
+        diff(before, after, path.toString(), changes);
+    }
+
+    private static void diff(JsonNode before, JsonNode after, String path, ArrayNode changes) {
+        boolean hadBefore = before != null && !before.isMissingNode();
+        boolean hasAfter = after != null && !after.isMissingNode();
+        if (!hadBefore && !hasAfter) {
+            return;
+        }
+        if (!hadBefore) {
+            change(changes, "add", path, null, after);
+        } else if (!hasAfter) {
+            change(changes, "remove", path, before, null);
+        } else if (before.isObject() && after.isObject()) {
+            diffObjects(before, after, path, changes);
+        } else if (before.isArray() && after.isArray()) {
+            diffArrays(before, after, path, changes);
+        } else if (!sameValue(before, after)) {
+            change(changes, "replace", path, before, after);
+        }
+    }
+
+    private static void diffObjects(JsonNode before, JsonNode after, String path, ArrayNode changes) {
+        Iterator<Map.Entry<String, JsonNode>> members = before.fields();
+        while (members.hasNext()) {
+            Map.Entry<String, JsonNode> member = members.next();
+            diff(member.getValue(), after.get(member.getKey()), member(path, member.getKey()), changes);
+        }
+        Iterator<Map.Entry<String, JsonNode>> added = after.fields();
+        while (added.hasNext()) {
+            Map.Entry<String, JsonNode> member = added.next();
+            if (!before.has(member.getKey())) {
+                change(changes, "add", member(path, member.getKey()), null, member.getValue());
+            }
+        }
+    }
+
+    private static void diffArrays(JsonNode before, JsonNode after, String path, ArrayNode changes) {
+        int common = Math.min(before.size(), after.size());
+        for (int i = 0; i < common; i++) {
+            diff(before.get(i), after.get(i), path + "/" + i, changes);
+        }
+        for (int i = common; i < after.size(); i++) {
+            change(changes, "add", path + "/" + i, null, after.get(i));
+        }
+        // Highest index first, so the operations stay valid when applied in order
+        for (int i = before.size() - 1; i >= common; i--) {
+            change(changes, "remove", path + "/" + i, before.get(i), null);
+        }
+    }
+
+    /**
+     * Equal, treating numbers by value (2 and 2.0 are the same)
+     */
+    private static boolean sameValue(JsonNode before, JsonNode after) {
+        if (before.isNumber() && after.isNumber()) {
+            return before.decimalValue().compareTo(after.decimalValue()) == 0;
+        }
+        return before.equals(after);
+    }
+
+    /**
+     * Pointer to a member, escaping ~ and / in its name (RFC 6901)
+     */
+    private static String member(String path, String name) {
+        return path + "/" + name.replace("~", "~0").replace("/", "~1");
+    }
+
+    private static void change(ArrayNode changes, String op, String path, JsonNode oldValue, JsonNode value) {
+        ObjectNode change = changes.addObject();
+        change.put("op", op);
+        change.put("path", path);
+        if (oldValue != null) {
+            change.set("old", oldValue);
+        }
+        if (value != null) {
+            change.set("value", value);
+        }
+    }
+
+    private static JsonNode text(String value) {
+        return value == null ? null : TextNode.valueOf(value);
+    }
+}
@@ -0,0 +1,313 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies JSON Merge Patch (RFC 7396) and JSON Patch (RFC 6902) documents.
+ *
+ * Patches are applied copy-on-write: the target is never modified, so it can be the
+ * shared cached tree. Only the containers on the path to a changed node are copied
+ * (shallowly, one level each); every other subtree is shared between the target and the
+ * result. The result must therefore be treated as read-only as well. An invalid patch
+ * throws IllegalArgumentException and leaves the target as it was.
+ */
+public final class JsonPatcher {
+
+    public enum Format {
+        MERGE_PATCH,
+        JSON_PATCH
+    }
+
+    private static final Comparator<JsonNode> NUMERIC_AWARE = (a, b) -> {
+        if (a.isNumber() && b.isNumber()) {
+            return a.decimalValue().compareTo(b.decimalValue());
+        }
+        return a.equals(b) ? 0 : 1;
+    };
+
+    private JsonPatcher() {
+    }
+
+    /**
+     * Apply a patch of the given format
+     *
+     * @return the patched document, sharing unchanged subtrees with the target
+     */
+    public static JsonNode apply(Format format, JsonNode target, JsonNode patch) {
+        return format == Format.JSON_PATCH ? applyJsonPatch(target, patch) : applyMergePatch(target, patch);
+    }
+
+    /**
+     * RFC 7396: objects are merged recursively, null removes a member, anything else replaces
+     */
+    public static JsonNode applyMergePatch(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch;
+        }
+        ObjectNode result = JsonNodeFactory.instance.objectNode();
+        if (target != null && target.isObject()) {
+            result.setAll((ObjectNode) target);
+        }
+        patch.fields().forEachRemaining(member -> {
+            if (member.getValue().isNull()) {
+                result.remove(member.getKey());
+            } else {
+                result.set(member.getKey(), applyMergePatch(result.get(member.getKey()), member.getValue()));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * RFC 6902: apply the operations (add, remove, replace, move, copy, test) in order
+     */
+    public static JsonNode applyJsonPatch(JsonNode target, JsonNode operations) {
+        if (!operations.isArray()) {
+            throw new IllegalArgumentException("JSON Patch must be an array of operations");
+        }
+        Document document = new Document(target);
+        int index = 0;
+        for (JsonNode operation : operations) {
+            try {
+                applyOperation(document, operation);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Patch operation " + index + ": " + e.getMessage(), e);
+            }
+            index++;
+        }
+        return document.root;
+    }
+
+    /**
+     * Document being patched. Containers copied by this patch are owned and changed in
+     * place; any other container is copied (one level) the first time a change passes
+     * through it. A node is owned only if its parent is, so an unowned subtree never
+     * contains owned nodes and may be referenced from more than one place.
+     */
+    private static final class Document {
+        JsonNode root;
+        final Set<JsonNode> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        Document(JsonNode root) {
+            this.root = root;
+        }
+
+        /**
+         * The container at a path, made safe to change: it and its ancestors are owned
+         */
+        JsonNode writable(List<String> path) {
+            root = own(root);
+            JsonNode node = root;
+            for (String token : path) {
+                JsonNode child = child(node, token);
+                if (child == null) {
+                    throw new IllegalArgumentException("Path not found: " + token);
+                }
+                JsonNode copy = own(child);
+                if (copy != child) {
+                    if (node.isObject()) {
+                        ((ObjectNode) node).set(token, copy);
+                    } else {
+                        ((ArrayNode) node).set(arrayIndex(token, node.size() - 1), copy);
+                    }
+                }
+                node = copy;
+            }
+            return node;
+        }
+
+        private JsonNode own(JsonNode node) {
+            if (owned.contains(node) || !node.isContainerNode()) {
+                return node;
+            }
+            JsonNode copy = node.isObject()
+                    ? JsonNodeFactory.instance.objectNode().setAll((ObjectNode) node)
+                    : JsonNodeFactory.instance.arrayNode(node.size()).addAll((ArrayNode) node);
+            owned.add(copy);
+            return copy;
+        }
+    }
+
+    private static void applyOperation(Document document, JsonNode operation) {
+        String op = requiredText(operation, "op");
+        List<String> path = parsePointer(requiredText(operation, "path"));
+        switch (op) {
+            case "add":
+                add(document, path, requiredValue(operation));
+                break;
+            case "remove":
+                remove(document, path);
+                break;
+            case "replace":
+                if (path.isEmpty()) {
+                    document.root = requiredValue(operation);
+                    document.owned.clear();
+                } else {
+                    replace(document, path, requiredValue(operation));
+                }
+                break;
+            case "move": {
+                String fromPointer = requiredText(operation, "from");
+                List<String> from = parsePointer(fromPointer);
+                if (path.size() > from.size() && path.subList(0, from.size()).equals(from)) {
+                    throw new IllegalArgumentException("Cannot move " + fromPointer + " into itself");
+                }
+                JsonNode value = get(document.root, from);
+                remove(document, from);
+                add(document, path, value);
+                break;
+            }
+            case "copy": {
+                JsonNode value = get(document.root, parsePointer(requiredText(operation, "from")));
+                // An unowned subtree can be shared; an owned one would be changed through both places
+                add(document, path, document.owned.contains(value) ? value.deepCopy() : value);
+                break;
+            }
+            case "test":
+                if (!get(document.root, path).equals(NUMERIC_AWARE, requiredValue(operation))) {
+                    throw new IllegalArgumentException("Test failed at " + operation.get("path").asText());
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + op);
+        }
+    }
+
+    private static void add(Document document, List<String> path, JsonNode value) {
+        if (path.isEmpty()) {
+            document.root = value;
+            document.owned.clear();
+            return;
+        }
+        String token = path.get(path.size() - 1);
+        JsonNode parent = get(document.root, path.subList(0, path.size() - 1));
+        if (parent.isObject()) {
+            ((ObjectNode) document.writable(path.subList(0, path.size() - 1))).set(token, value);
+        } else if (parent.isArray()) {
+            int index = "-".equals(token) ? parent.size() : arrayIndex(token, parent.size());
+            ((ArrayNode) document.writable(path.subList(0, path.size() - 1))).insert(index, value);
+        } else {
+            throw new IllegalArgumentException("Parent of " + token + " is not a container");
+        }
+    }
+
+    private static void replace(Document document, List<String> path, JsonNode value) {
+        String token = path.get(path.size() - 1);
+        JsonNode parent = get(document.root, path.subList(0, path.size() - 1));
+        if (parent.isObject() && parent.has(token)) {
+            // Keeps the member's position in the file
+            ((ObjectNode) document.writable(path.subList(0, path.size() - 1))).set(token, value);
+        } else if (parent.isArray()) {
+            int index = arrayIndex(token, parent.size() - 1);
+            ((ArrayNode) document.writable(path.subList(0, path.size() - 1))).set(index, value);
+        } else {
+            throw new IllegalArgumentException("No such member: " + token);
+        }
+    }
+
+    private static void remove(Document document, List<String> path) {
+        if (path.isEmpty()) {
+            throw new IllegalArgumentException("Cannot remove the whole document");
+        }
+        String token = path.get(path.size() - 1);
+        JsonNode parent = get(document.root, path.subList(0, path.size() - 1));
+        if (parent.isObject() && parent.has(token)) {
+            ((ObjectNode) document.writable(path.subList(0, path.size() - 1))).remove(token);
+        } else if (parent.isArray()) {
+            int index = arrayIndex(token, parent.size() - 1);
+            ((ArrayNode) document.writable(path.subList(0, path.size() - 1))).remove(index);
+        } else {
+            throw new IllegalArgumentException("No such member: " + token);
+        }
+    }
+
+    private static JsonNode child(JsonNode node, String token) {
+        if (node.isObject()) {
+            return node.get(token);
+        }
+        if (node.isArray()) {
+            return node.get(arrayIndex(token, node.size() - 1));
+        }
+        return null;
+    }
+
+    private static JsonNode get(JsonNode document, List<String> path) {
+        JsonNode node = document;
+        for (String token : path) {
+            JsonNode child = child(node, token);
+            if (child == null) {
+                throw new IllegalArgumentException("Path not found: " + token);
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Array index token: decimal without leading zeros, at most max
+     */
+    private static int arrayIndex(String token, int max) {
+        if (token.isEmpty() || token.length() > 9 || (token.length() > 1 && token.charAt(0) == '0')) {
+            throw new IllegalArgumentException("Invalid array index: " + token);
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) < '0' || token.charAt(i) > '9') {
+                throw new IllegalArgumentException("Invalid array index: " + token);
+            }
+        }
+        int index = Integer.parseInt(token);
+        if (index > max) {
+            throw new IllegalArgumentException("Array index out of bounds: " + token);
+        }
+        return index;
+    }
+
+    /**
+     * Split an RFC 6901 JSON Pointer into unescaped reference tokens
+     */
+    static List<String> parsePointer(String pointer) {
+        List<String> tokens = new ArrayList<>();
+        if (pointer.isEmpty()) {
+            return tokens;
+        }
+        if (pointer.charAt(0) != '/') {
+            throw new IllegalArgumentException("Invalid JSON Pointer: " + pointer);
+        }
+        int start = 1;
+        while (true) {
+            int end = pointer.indexOf('/', start);
+            String token = pointer.substring(start, end < 0 ? pointer.length() : end);
+            tokens.add(token.replace("~1", "/").replace("~0", "~"));
+            if (end < 0) {
+                return tokens;
+            }
+            start = end + 1;
+        }
+    }
+
+    private static String requiredText(JsonNode operation, String member) {
+        JsonNode value = operation.get(member);
+        if (value == null || !value.isTextual()) {
+            throw new IllegalArgumentException("Missing \"" + member + "\"");
+        }
+        return value.asText();
+    }
+
+    private static JsonNode requiredValue(JsonNode operation) {
+        JsonNode value = operation.get("value");
+        if (value == null) {
+            throw new IllegalArgumentException("Missing \"value\"");
+        }
+        return value;
+    }
+}
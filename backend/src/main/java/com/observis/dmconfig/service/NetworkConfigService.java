@@ -1,6 +1,7 @@
 package com.observis.dmconfig.service;
 
-import com.observis.dmconfig.validation.ValidationService;
+import com.observis.dmconfig.validation.Ipv4;
+import com.observis.dmconfig.validation.ValidationResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -8,8 +9,6 @@ import org.springframework.stereotype.Service;
 import java.io.IOException;
 import java.net.NetworkInterface;
 import java.net.SocketException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
@@ -21,7 +20,10 @@ import java.util.Map;
 public class NetworkConfigService {
 
     @Autowired
-    private ValidationService validationService;
+    private FileService fileService;
+
+    @Autowired
+    private FileLockManager fileLockManager;
 
     @Value("${dm.network.interfaces.path:/etc/network/interfaces}")
     private String interfacesPath;
@@ -30,37 +32,122 @@ public class NetworkConfigService {
      * Read network configuration from /etc/network/interfaces
      */
     public Map<String, String> getNetworkConfig() throws IOException {
-        String content = Files.readString(Paths.get(interfacesPath));
-        return parseNetworkConfig(content);
+        return getNetworkConfigVersioned().getValue();
+    }
+
+    /**
+     * Read network configuration together with the version of the interfaces file
+     */
+    public Versioned<Map<String, String>> getNetworkConfigVersioned() throws IOException {
+        return fileLockManager.withReadLock(interfacesPath, () -> {
+            String content = fileService.readTextFile(interfacesPath);
+            return new Versioned<>(parseNetworkConfig(content), fileService.getVersion(interfacesPath));
+        });
     }
 
     /**
      * Save network configuration to /etc/network/interfaces
      */
     public void saveNetworkConfig(Map<String, String> config) throws IOException {
+        saveNetworkConfig(config, null);
+    }
+
+    /**
+     * Save network configuration if the interfaces file is still at the expected version (null to skip the check)
+     *
+     * @return version of the saved file
+     */
+    public String saveNetworkConfig(Map<String, String> config, String expectedVersion) throws IOException {
+        String content = prepareInterfacesContent(config);
+        return fileLockManager.withWriteLock(interfacesPath, () -> {
+            fileService.checkVersion(interfacesPath, expectedVersion);
+            return fileService.writeTextFile(interfacesPath, content);
+        });
+    }
+
+    /**
+     * Changes saving network configuration would make, without writing.
+     * Compares the settings parsed from the current and the generated interfaces file.
+     */
+    public ChangePreview previewNetworkConfig(Map<String, String> config) throws IOException {
+        String content = prepareInterfacesContent(config);
+        String existingContent = fileLockManager.withReadLock(interfacesPath,
+                () -> fileService.readTextFile(interfacesPath));
+        return new ChangePreview(interfacesPath,
+                JsonDiff.diff(parseNetworkConfig(existingContent), parseNetworkConfig(content)),
+                ChangePreview.RestartImpact.NETWORK);
+    }
+
+    /**
+     * Validate network configuration and generate the interfaces file content for it
+     */
+    private String prepareInterfacesContent(Map<String, String> config) {
         // Override interface with auto-detected one (ignore client-provided value)
         config.put("interface", detectNetworkInterface());
-        
-        // Validate IP addresses (only if not empty - empty is allowed for DHCP)
-        String address = config.get("address");
-        String netmask = config.get("netmask");
-        String gateway = config.get("gateway");
+        checkNetworkConfig(config).throwIfInvalid();
 
-        if (address != null && !address.isEmpty() && !validationService.validateIPv4(address)) {
-            throw new IllegalArgumentException("Invalid IP address");
-        }
+        // Generate interfaces file content
+        return generateInterfacesContent(config);
+    }
 
-        if (netmask != null && !netmask.isEmpty() && !validationService.validateIPv4(netmask)) {
-            throw new IllegalArgumentException("Invalid netmask");
+    /**
+     * Check network configuration, collecting every invalid address
+     * (empty values are allowed: DHCP leaves them unset)
+     *
+     * Besides the format, the netmask must be contiguous, the address must be a host
+     * address of its subnet, and the gateway must be another host in that subnet;
+     * a gateway the box cannot reach would only cost another reboot cycle.
+     */
+    public ValidationResult checkNetworkConfig(Map<String, String> config) {
+        ValidationResult result = new ValidationResult();
+        long address = parseOptionalIPv4(config, "address", "Invalid IP address", result);
+        long gateway = parseOptionalIPv4(config, "gateway", "Invalid gateway", result);
+        long netmask = parseOptionalIPv4(config, "netmask", "Invalid netmask", result);
+        if (netmask == 0) {
+            result.addError("netmask", "Invalid netmask: 0.0.0.0 (/0) leaves no room for a subnet");
+            netmask = Ipv4.INVALID;
+        } else if (netmask != Ipv4.INVALID && !Ipv4.isContiguousMask((int) netmask)) {
+            result.addError("netmask", "Invalid netmask: the mask bits must be contiguous (e.g. 255.255.255.0)");
+            netmask = Ipv4.INVALID;
+        }
+        if (address == Ipv4.INVALID || netmask == Ipv4.INVALID) {
+            return result;
         }
 
-        if (gateway != null && !gateway.isEmpty() && !validationService.validateIPv4(gateway)) {
-            throw new IllegalArgumentException("Invalid gateway");
+        int host = (int) address;
+        int mask = (int) netmask;
+        if (!Ipv4.isHostAddress(host, mask)) {
+            result.addError("address", "IP address is the network or broadcast address of " + subnet(host, mask));
+        }
+        if (gateway != Ipv4.INVALID) {
+            if (!Ipv4.inSubnet(host, (int) gateway, mask)) {
+                result.addError("gateway", "Gateway is outside " + subnet(host, mask));
+            } else if (gateway == address) {
+                result.addError("gateway", "Gateway must differ from the IP address");
+            } else if (!Ipv4.isHostAddress((int) gateway, mask)) {
+                result.addError("gateway", "Gateway is the network or broadcast address of " + subnet(host, mask));
+            }
         }
+        return result;
+    }
 
-        // Generate interfaces file content
-        String content = generateInterfacesContent(config);
-        Files.writeString(Paths.get(interfacesPath), content);
+    private static String subnet(int address, int mask) {
+        return "subnet " + Ipv4.format(Ipv4.networkAddress(address, mask)) + "/" + Ipv4.prefixLength(mask);
+    }
+
+    /**
+     * The address in a field, or {@link Ipv4#INVALID} when it is empty or (with an error added) malformed
+     */
+    private long parseOptionalIPv4(Map<String, String> config, String field, String message, ValidationResult result) {
+        String value = config.get(field);
+        if (value == null || value.isEmpty()) {
+            return Ipv4.INVALID;
+        }
+        long address = Ipv4.parse(value);
+        if (address == Ipv4.INVALID) {
+            result.addError(field, message);
+        }
+        return address;
     }
 
     /**
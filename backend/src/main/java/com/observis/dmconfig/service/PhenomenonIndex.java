@@ -0,0 +1,367 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over the phenomenons maps and measPoints arrays of all device files.
+ *
+ * Maps phenomenon type to the devices producing it, and type, unit and measValueType to
+ * the phenomenon entries carrying them. Built once from the {@link DeviceRegistry} and
+ * then kept up to date per device through its listener, so saves and on-disk changes
+ * only re-read the affected file.
+ */
+@Component
+public class PhenomenonIndex implements DeviceRegistry.Listener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhenomenonIndex.class);
+
+    /**
+     * Fields that can be used as phenomenon filters
+     */
+    public static final List<String> INDEXED_FIELDS = List.of("type", "unit", "measValueType");
+
+    private static final Comparator<Phenomenon> ORDER =
+            Comparator.comparing(Phenomenon::getDevice).thenComparing(Phenomenon::getKey);
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private DeviceRegistry deviceRegistry;
+
+    @Autowired
+    private DeviceMappings deviceMappings;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, DeviceEntries> byDevice = new HashMap<>();
+    private final Map<String, NavigableSet<String>> devicesByType = new HashMap<>();
+    private final Map<String, Map<String, NavigableSet<Phenomenon>>> indexes = new HashMap<>();
+
+    /**
+     * One entry of a device's phenomenons map
+     */
+    public static final class Phenomenon {
+        private final String device;
+        private final String key;
+        private final String type;
+        private final String name;
+        private final String unit;
+        private final String measValueType;
+
+        Phenomenon(String device, String key, String type, String name, String unit, String measValueType) {
+            this.device = device;
+            this.key = key;
+            this.type = type;
+            this.name = name;
+            this.unit = unit;
+            this.measValueType = measValueType;
+        }
+
+        public String getDevice() {
+            return device;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        public String getMeasValueType() {
+            return measValueType;
+        }
+
+        String indexValue(String field) {
+            switch (field) {
+                case "type": return type;
+                case "unit": return unit;
+                case "measValueType": return measValueType;
+                default: return null;
+            }
+        }
+    }
+
+    /**
+     * Everything one device contributes to the index
+     */
+    private static final class DeviceEntries {
+        final List<Phenomenon> phenomenons = new ArrayList<>();
+        final Set<String> types = new LinkedHashSet<>();
+    }
+
+    @PostConstruct
+    void init() {
+        for (String field : INDEXED_FIELDS) {
+            indexes.put(field, new HashMap<>());
+        }
+        // Builds the index, ordered with the registry's own refreshes
+        deviceRegistry.addListener(this);
+    }
+
+    /**
+     * Devices producing a phenomenon type (from phenomenons or measPoints), sorted
+     */
+    public Set<String> findDevices(String type) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<String> devices = devicesByType.get(normalize(type));
+            return devices == null ? Set.of() : Collections.unmodifiableSet(new TreeSet<>(devices));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Phenomenons matching all given filters (field to value, case-insensitive),
+     * sorted by device and key
+     */
+    public List<Phenomenon> find(Map<String, String> filters) {
+        for (String field : filters.keySet()) {
+            if (!INDEXED_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown filter: " + field);
+            }
+        }
+        lock.readLock().lock();
+        try {
+            if (filters.isEmpty()) {
+                List<Phenomenon> all = new ArrayList<>();
+                byDevice.values().forEach(entries -> all.addAll(entries.phenomenons));
+                all.sort(ORDER);
+                return all;
+            }
+            // Intersect starting from the smallest posting set
+            List<Set<Phenomenon>> postings = new ArrayList<>();
+            for (Map.Entry<String, String> filter : filters.entrySet()) {
+                Set<Phenomenon> entries = indexes.get(filter.getKey()).get(normalize(filter.getValue()));
+                if (entries == null) {
+                    return List.of();
+                }
+                postings.add(entries);
+            }
+            postings.sort((a, b) -> Integer.compare(a.size(), b.size()));
+            List<Phenomenon> result = new ArrayList<>();
+            for (Phenomenon phenomenon : postings.get(0)) {
+                boolean matches = true;
+                for (int i = 1; i < postings.size() && matches; i++) {
+                    matches = postings.get(i).contains(phenomenon);
+                }
+                if (matches) {
+                    result.add(phenomenon);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onDeviceChanged(String deviceName, Path file) {
+        DeviceEntries entries = read(deviceName, file);
+        lock.writeLock().lock();
+        try {
+            remove(deviceName);
+            if (entries != null) {
+                add(deviceName, entries);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onDeviceRemoved(String deviceName) {
+        lock.writeLock().lock();
+        try {
+            remove(deviceName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onRescan() {
+        Map<String, DeviceEntries> scanned = new HashMap<>();
+        for (String deviceName : deviceRegistry.getDeviceNames()) {
+            DeviceEntries entries = read(deviceName, deviceRegistry.getDeviceFile(deviceName));
+            if (entries != null) {
+                scanned.put(deviceName, entries);
+            }
+        }
+
+        int count = 0;
+        int types;
+        lock.writeLock().lock();
+        try {
+            byDevice.clear();
+            devicesByType.clear();
+            indexes.values().forEach(Map::clear);
+            for (Map.Entry<String, DeviceEntries> entry : scanned.entrySet()) {
+                add(entry.getKey(), entry.getValue());
+                count += entry.getValue().phenomenons.size();
+            }
+            types = devicesByType.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Phenomenon index: {} phenomenons, {} types", count, types);
+    }
+
+    /**
+     * Read the phenomenons and measPoints of a device file with a streaming parser,
+     * from its device section or, for the flat format, from the top level
+     */
+    private DeviceEntries read(String deviceName, Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (JsonParser parser = fileService.openJsonParser(file.toString())) {
+            DeviceEntries entries = new DeviceEntries();
+            boolean read = DeviceSectionReader.read(parser, deviceMappings, new DeviceSectionReader.Handler() {
+                @Override
+                public void sectionStart() {
+                    entries.phenomenons.clear();
+                    entries.types.clear();
+                }
+
+                @Override
+                public void member(JsonParser parser, String name) throws IOException {
+                    readField(parser, deviceName, name, entries);
+                }
+            });
+            return read ? entries : null;
+        } catch (IOException e) {
+            logger.warn("Skipping unreadable device file {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void readField(JsonParser parser, String deviceName, String field,
+                                  DeviceEntries entries) throws IOException {
+        if ("phenomenons".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                Map<String, String> values = readScalars(parser);
+                Phenomenon phenomenon = new Phenomenon(deviceName, key, values.get("type"), values.get("name"),
+                        values.get("unit"), values.get("measValueType"));
+                entries.phenomenons.add(phenomenon);
+                if (phenomenon.getType() != null) {
+                    entries.types.add(phenomenon.getType());
+                }
+            }
+        } else if ("measPoints".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                String type = readScalars(parser).get("phenomenonType");
+                if (type != null) {
+                    entries.types.add(type);
+                }
+            }
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private static Map<String, String> readScalars(JsonParser parser) throws IOException {
+        Map<String, String> values = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+                values.put(field, parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return values;
+    }
+
+    private void add(String deviceName, DeviceEntries entries) {
+        byDevice.put(deviceName, entries);
+        for (String type : entries.types) {
+            devicesByType.computeIfAbsent(normalize(type), t -> new TreeSet<>()).add(deviceName);
+        }
+        for (Phenomenon phenomenon : entries.phenomenons) {
+            for (String field : INDEXED_FIELDS) {
+                String value = phenomenon.indexValue(field);
+                if (value != null) {
+                    indexes.get(field).computeIfAbsent(normalize(value), v -> new TreeSet<>(ORDER)).add(phenomenon);
+                }
+            }
+        }
+    }
+
+    private void remove(String deviceName) {
+        DeviceEntries entries = byDevice.remove(deviceName);
+        if (entries == null) {
+            return;
+        }
+        for (String type : entries.types) {
+            NavigableSet<String> devices = devicesByType.get(normalize(type));
+            if (devices != null) {
+                devices.remove(deviceName);
+                if (devices.isEmpty()) {
+                    devicesByType.remove(normalize(type));
+                }
+            }
+        }
+        for (Phenomenon phenomenon : entries.phenomenons) {
+            for (String field : INDEXED_FIELDS) {
+                String value = phenomenon.indexValue(field);
+                if (value != null) {
+                    Map<String, NavigableSet<Phenomenon>> index = indexes.get(field);
+                    NavigableSet<Phenomenon> postings = index.get(normalize(value));
+                    if (postings != null) {
+                        postings.remove(phenomenon);
+                        if (postings.isEmpty()) {
+                            index.remove(normalize(value));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.toUpperCase(Locale.ROOT);
+    }
+}
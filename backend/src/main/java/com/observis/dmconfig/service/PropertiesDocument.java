@@ -0,0 +1,336 @@
+package com.observis.dmconfig.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Line-oriented model of a .properties file (ISO-8859-1, as read by Properties.load)
+ *
+ * Keeps the original text of every line - order, comments, blank lines, separators
+ * and escaping - so that updating one value patches only that line. New keys are
+ * appended at the end, escaped the same way Properties.store escapes them.
+ */
+public final class PropertiesDocument {
+
+    private static final String DEFAULT_LINE_SEPARATOR = "\n";
+
+    private static final class Line {
+        String text;
+        String terminator;
+        final String key;
+        String value;
+        final int valueStart;
+
+        Line(String text, String terminator, String key, String value, int valueStart) {
+            this.text = text;
+            this.terminator = terminator;
+            this.key = key;
+            this.value = value;
+            this.valueStart = valueStart;
+        }
+    }
+
+    private final List<Line> lines = new ArrayList<>();
+    private String lineSeparator = DEFAULT_LINE_SEPARATOR;
+
+    /**
+     * Parse file content; an empty array gives an empty document
+     */
+    public static PropertiesDocument parse(byte[] content) {
+        PropertiesDocument document = new PropertiesDocument();
+        String text = new String(content, StandardCharsets.ISO_8859_1);
+
+        List<String[]> physical = splitLines(text);
+        if (!physical.isEmpty() && !physical.get(0)[1].isEmpty()) {
+            document.lineSeparator = physical.get(0)[1];
+        }
+
+        int i = 0;
+        while (i < physical.size()) {
+            String first = physical.get(i)[0];
+            int start = skipWhitespace(first, 0);
+            if (start == first.length() || first.charAt(start) == '#' || first.charAt(start) == '!') {
+                // Blank line or comment: never continued
+                document.lines.add(new Line(first, physical.get(i)[1], null, null, -1));
+                i++;
+                continue;
+            }
+
+            // Join continuation lines (odd number of trailing backslashes)
+            StringBuilder raw = new StringBuilder(first);
+            StringBuilder logical = new StringBuilder();
+            String part = first;
+            String terminator = physical.get(i)[1];
+            while (endsWithContinuation(part)) {
+                logical.append(part, 0, part.length() - 1);
+                if (i + 1 >= physical.size()) {
+                    part = "";
+                    break;
+                }
+                i++;
+                raw.append(terminator).append(physical.get(i)[0]);
+                terminator = physical.get(i)[1];
+                part = physical.get(i)[0].substring(skipWhitespace(physical.get(i)[0], 0));
+            }
+            logical.append(part);
+            i++;
+
+            int[] keyAndValue = scanKeyValue(logical, 0);
+            String key = unescape(logical, skipWhitespace(logical, 0), keyAndValue[0]);
+            String value = unescape(logical, keyAndValue[1], logical.length());
+
+            // Value replacement keeps the original key and separator when both are on the first line
+            int[] firstKeyAndValue = scanKeyValue(first, 0);
+            boolean continued = raw.length() != first.length();
+            int valueStart = !continued || firstKeyAndValue[0] < first.length() ? firstKeyAndValue[1] : -1;
+            document.lines.add(new Line(raw.toString(), terminator, key, value, valueStart));
+        }
+        return document;
+    }
+
+    /**
+     * Value of a key (the last occurrence wins, as in Properties), or null
+     */
+    public String get(String key) {
+        Line line = findLast(key);
+        return line == null ? null : line.value;
+    }
+
+    /**
+     * Set a key, patching its line in place or appending a new line
+     *
+     * @return true if the document changed
+     */
+    public boolean set(String key, String value) {
+        Line line = findLast(key);
+        if (line != null) {
+            if (value.equals(line.value)) {
+                return false;
+            }
+            String prefix;
+            if (line.valueStart < 0) {
+                prefix = escape(key, true) + "=";
+            } else if (scanKeyValue(line.text, 0)[0] == line.valueStart) {
+                // Bare key without separator ("foo"): appending the value would extend the key
+                prefix = line.text.substring(0, line.valueStart) + "=";
+            } else {
+                prefix = line.text.substring(0, line.valueStart);
+            }
+            line.text = prefix + escape(value, false);
+            line.value = value;
+            return true;
+        }
+        if (!lines.isEmpty() && lines.get(lines.size() - 1).terminator.isEmpty()) {
+            lines.get(lines.size() - 1).terminator = lineSeparator;
+        }
+        lines.add(new Line(escape(key, true) + "=" + escape(value, false), lineSeparator, key, value, -1));
+        return true;
+    }
+
+    /**
+     * Remove every line defining a key
+     *
+     * @return true if the document changed
+     */
+    public boolean remove(String key) {
+        return lines.removeIf(line -> key.equals(line.key));
+    }
+
+    /**
+     * Make the document hold exactly the given properties, touching only lines that differ.
+     * Keys not yet in the document are appended in sorted order.
+     *
+     * @return true if the document changed
+     */
+    public boolean update(Properties properties) {
+        Set<String> keys = properties.stringPropertyNames();
+        boolean changed = lines.removeIf(line -> line.key != null && !keys.contains(line.key));
+
+        Map<String, String> added = new TreeMap<>();
+        Set<String> present = new HashSet<>();
+        for (Line line : lines) {
+            if (line.key != null) {
+                present.add(line.key);
+            }
+        }
+        for (String key : keys) {
+            if (present.contains(key)) {
+                changed |= set(key, properties.getProperty(key));
+            } else {
+                added.put(key, properties.getProperty(key));
+            }
+        }
+        for (Map.Entry<String, String> entry : added.entrySet()) {
+            changed |= set(entry.getKey(), entry.getValue());
+        }
+        return changed;
+    }
+
+    /**
+     * Serialize the document (ISO-8859-1)
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        for (Line line : lines) {
+            output.writeBytes(line.text.getBytes(StandardCharsets.ISO_8859_1));
+            output.writeBytes(line.terminator.getBytes(StandardCharsets.ISO_8859_1));
+        }
+        return output.toByteArray();
+    }
+
+    private Line findLast(String key) {
+        for (int i = lines.size() - 1; i >= 0; i--) {
+            if (key.equals(lines.get(i).key)) {
+                return lines.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Split into {line, terminator} pairs; the terminator is empty for a last line without one
+     */
+    private static List<String[]> splitLines(String text) {
+        List<String[]> result = new ArrayList<>();
+        int start = 0;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r') {
+                int end = i;
+                if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                result.add(new String[] {text.substring(start, end), text.substring(end, i + 1)});
+                start = i + 1;
+            }
+            i++;
+        }
+        if (start < text.length()) {
+            result.add(new String[] {text.substring(start), ""});
+        }
+        return result;
+    }
+
+    private static boolean endsWithContinuation(String line) {
+        int backslashes = 0;
+        for (int i = line.length() - 1; i >= 0 && line.charAt(i) == '\\'; i--) {
+            backslashes++;
+        }
+        return backslashes % 2 == 1;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+
+    private static int skipWhitespace(CharSequence text, int from) {
+        int i = from;
+        while (i < text.length() && isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Find the end of the key and the start of the value, following Properties.load
+     *
+     * @return {keyEnd, valueStart}
+     */
+    private static int[] scanKeyValue(CharSequence text, int from) {
+        int i = skipWhitespace(text, from);
+        boolean escaped = false;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '=' || c == ':' || isWhitespace(c)) {
+                break;
+            }
+            i++;
+        }
+        int keyEnd = i;
+        i = skipWhitespace(text, i);
+        if (i < text.length() && (text.charAt(i) == '=' || text.charAt(i) == ':')) {
+            i = skipWhitespace(text, i + 1);
+        }
+        return new int[] {keyEnd, i};
+    }
+
+    private static String unescape(CharSequence text, int from, int to) {
+        StringBuilder result = new StringBuilder(to - from);
+        int i = from;
+        while (i < to) {
+            char c = text.charAt(i++);
+            if (c != '\\' || i >= to) {
+                result.append(c);
+                continue;
+            }
+            c = text.charAt(i++);
+            switch (c) {
+                case 't': result.append('\t'); break;
+                case 'n': result.append('\n'); break;
+                case 'r': result.append('\r'); break;
+                case 'f': result.append('\f'); break;
+                case 'u':
+                    if (i + 4 > to) {
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                    }
+                    try {
+                        result.append((char) Integer.parseInt(text.subSequence(i, i + 4).toString(), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                    }
+                    i += 4;
+                    break;
+                default: result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Escape a key or value exactly like Properties.store(OutputStream, ...)
+     */
+    static String escape(String text, boolean isKey) {
+        StringBuilder result = new StringBuilder(text.length() * 2);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c > 61 && c < 127) {
+                result.append(c == '\\' ? "\\\\" : String.valueOf(c));
+                continue;
+            }
+            switch (c) {
+                case ' ':
+                    result.append(i == 0 || isKey ? "\\ " : " ");
+                    break;
+                case '\t': result.append("\\t"); break;
+                case '\n': result.append("\\n"); break;
+                case '\r': result.append("\\r"); break;
+                case '\f': result.append("\\f"); break;
+                case '=':
+                case ':':
+                case '#':
+                case '!':
+                    result.append('\\').append(c);
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        result.append(String.format("\\u%04X", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+            }
+        }
+        return result.toString();
+    }
+}
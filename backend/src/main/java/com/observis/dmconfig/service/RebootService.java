@@ -2,6 +2,7 @@ package com.observis.dmconfig.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -28,6 +29,9 @@ public class RebootService {
 
     private static final Logger logger = LoggerFactory.getLogger(RebootService.class);
 
+    @Autowired
+    private FileService fileService;
+
     @Value("${dm.reboot.trigger.path:/opt/dm/.reboot-trigger}")
     private String rebootTriggerPath;
 
@@ -39,6 +43,9 @@ public class RebootService {
      * The dm-reboot-watcher.service monitors this file and executes the restart script
      */
     public void executeReboot() throws IOException {
+        // Pending write-behind saves must be on disk before the DM restarts
+        fileService.flushPendingWrites();
+
         if (testMode) {
             simulateReboot(true);
             return;
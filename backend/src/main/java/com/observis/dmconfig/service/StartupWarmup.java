@@ -0,0 +1,124 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Startup preload of every configuration file (dm.warmup.enabled).
+ *
+ * devices.json, config.properties, the interfaces file and each devices.d file are read
+ * once, in parallel, through the regular service paths. The parsed trees of devices.json,
+ * config.properties and the devices.d files land in the file cache with their versions,
+ * and the interfaces file (cached by version only) in the page cache. Each device is also extracted, validated and serialized once,
+ * which loads those classes and gives the JIT a first pass before the first UI request.
+ * A file that cannot be read is logged and counted; it never fails startup.
+ */
+@Component
+public class StartupWarmup {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    @Autowired
+    private ConfigService configService;
+
+    @Autowired
+    private NetworkConfigService networkConfigService;
+
+    @Autowired
+    private DeviceRegistry deviceRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${dm.warmup.threads:4}")
+    private int threads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private volatile Map<String, Object> stats;
+
+    /**
+     * Load and warm all files; blocks until every task has finished
+     */
+    public Map<String, Object> run() {
+        long start = System.nanoTime();
+        AtomicInteger failures = new AtomicInteger();
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(() -> {
+            JsonNode devices = configService.getDevicesConfigVersioned().getValue();
+            configService.checkDevicesConfig(devices);
+            objectMapper.writeValueAsBytes(devices);
+        });
+        tasks.add(() -> configService.getConfigPropertiesVersioned());
+        tasks.add(() -> {
+            Map<String, String> network = networkConfigService.getNetworkConfigVersioned().getValue();
+            networkConfigService.checkNetworkConfig(network);
+            objectMapper.writeValueAsBytes(network);
+        });
+        for (String deviceName : deviceRegistry.getDeviceNames()) {
+            tasks.add(() -> {
+                JsonNode config = configService.getDeviceConfigVersioned(deviceName, null).getValue();
+                configService.checkDeviceConfig(deviceName, config);
+                objectMapper.writeValueAsBytes(config);
+            });
+        }
+
+        ExecutorService executor = VirtualThreads.newExecutor(virtualThreads, threads, "config-warmup-");
+        try (TaskScope<Void> scope = new TaskScope<>(executor, threads)) {
+            for (Task task : tasks) {
+                scope.fork(() -> runTask(task, failures));
+            }
+            scope.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Warm-up interrupted");
+        } finally {
+            executor.shutdown();
+        }
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("files", tasks.size());
+        result.put("failures", failures.get());
+        result.put("durationMs", millis);
+        stats = result;
+        logger.info("Warm-up loaded {} configuration files in {} ms ({} failed)", tasks.size(), millis, failures.get());
+        return result;
+    }
+
+    /**
+     * Outcome of the last warm-up (files, failures, durationMs), or null if it has not run
+     */
+    public Map<String, Object> getStats() {
+        return stats;
+    }
+
+    private static Void runTask(Task task, AtomicInteger failures) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            logger.warn("Warm-up could not load a configuration file: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+}
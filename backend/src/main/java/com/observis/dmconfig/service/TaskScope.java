@@ -0,0 +1,188 @@
+package com.observis.dmconfig.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Structured fan-out: subtasks forked in a scope never outlive it.
+ *
+ * fork() starts a subtask on the scope's executor and join() waits for all of them.
+ * close() cancels the subtasks that have not started, interrupts the running ones and
+ * waits for them, so an owner leaving early (exception, interrupt) leaves nothing behind.
+ * At most maxConcurrency subtasks run at once; fork() waits for a slot. The shape follows
+ * the JDK's StructuredTaskScope, which is still a preview API in Java 21.
+ *
+ * A scope is used by the thread that opened it, in a try-with-resources block.
+ */
+public final class TaskScope<T> implements AutoCloseable {
+
+    /**
+     * Handle to a forked subtask; its outcome is available after join()
+     */
+    public interface Subtask<T> {
+
+        /**
+         * The result of a subtask that completed successfully
+         *
+         * @throws IllegalStateException if it failed or has not completed
+         */
+        T get();
+
+        /**
+         * The exception a failed subtask threw, or null if it succeeded
+         *
+         * @throws IllegalStateException if it has not completed
+         */
+        Throwable exception();
+    }
+
+    private final Executor executor;
+    private final Semaphore slots;
+    private final List<Fork> forks = new ArrayList<>();
+    private int pending;
+    private boolean closed;
+
+    public TaskScope(Executor executor, int maxConcurrency) {
+        this.executor = executor;
+        this.slots = new Semaphore(Math.max(1, maxConcurrency));
+    }
+
+    /**
+     * Start a subtask, waiting for a free slot first
+     */
+    public Subtask<T> fork(Callable<? extends T> task) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Scope is closed");
+        }
+        slots.acquire();
+        Fork fork = new Fork(task);
+        synchronized (this) {
+            pending++;
+        }
+        forks.add(fork);
+        try {
+            executor.execute(fork);
+        } catch (RuntimeException e) {
+            fork.cancel();
+            throw e;
+        }
+        return fork;
+    }
+
+    /**
+     * Wait until every forked subtask has completed
+     */
+    public synchronized TaskScope<T> join() throws InterruptedException {
+        while (pending > 0) {
+            wait();
+        }
+        return this;
+    }
+
+    /**
+     * Cancel what is still outstanding and wait for running subtasks to finish
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Fork fork : forks) {
+            fork.cancel();
+        }
+        boolean interrupted = false;
+        synchronized (this) {
+            while (pending > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void finished() {
+        slots.release();
+        if (--pending == 0) {
+            notifyAll();
+        }
+    }
+
+    private final class Fork implements Runnable, Subtask<T> {
+        private final Callable<? extends T> task;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private Thread thread;
+        private volatile boolean done;
+        private volatile T result;
+        private volatile Throwable failure;
+
+        Fork(Callable<? extends T> task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            synchronized (this) {
+                thread = Thread.currentThread();
+            }
+            try {
+                result = task.call();
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                synchronized (this) {
+                    thread = null;
+                    // Do not leak a late cancellation interrupt to a pooled thread
+                    Thread.interrupted();
+                }
+                done = true;
+                finished();
+            }
+        }
+
+        /**
+         * Never started: it will not run. Running: interrupt it.
+         */
+        void cancel() {
+            if (claimed.compareAndSet(false, true)) {
+                failure = new InterruptedException("Cancelled before it started");
+                done = true;
+                finished();
+                return;
+            }
+            synchronized (this) {
+                if (thread != null) {
+                    thread.interrupt();
+                }
+            }
+        }
+
+        @Override
+        public T get() {
+            if (!done) {
+                throw new IllegalStateException("Subtask has not completed");
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Subtask failed", failure);
+            }
+            return result;
+        }
+
+        @Override
+        public Throwable exception() {
+            if (!done) {
+                throw new IllegalStateException("Subtask has not completed");
+            }
+            return failure;
+        }
+    }
+}
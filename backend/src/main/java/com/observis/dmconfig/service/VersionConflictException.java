@@ -0,0 +1,18 @@
+package com.observis.dmconfig.service;
+
+/**
+ * Thrown when a save was based on a version of a file that is no longer current
+ */
+public class VersionConflictException extends RuntimeException {
+
+    private final String currentVersion;
+
+    public VersionConflictException(String filePath, String currentVersion) {
+        super("Configuration was modified by someone else: " + filePath);
+        this.currentVersion = currentVersion;
+    }
+
+    public String getCurrentVersion() {
+        return currentVersion;
+    }
+}
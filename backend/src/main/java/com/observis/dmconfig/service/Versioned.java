@@ -0,0 +1,23 @@
+package com.observis.dmconfig.service;
+
+/**
+ * A configuration value together with the content version of the file it was read from
+ */
+public final class Versioned<T> {
+
+    private final T value;
+    private final String version;
+
+    public Versioned(T value, String version) {
+        this.value = value;
+        this.version = version;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+}
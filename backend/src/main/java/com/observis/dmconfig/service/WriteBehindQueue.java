@@ -0,0 +1,245 @@
+package com.observis.dmconfig.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind for config files.
+ *
+ * Rapid saves to the same file are collapsed: only the latest state is kept and
+ * it is flushed once per window. Flushes of one file never overlap, so there is
+ * effectively a single writer per file. Until a flush completes, reads are served
+ * from the pending state. {@link #flushAll()} is the barrier to call before a
+ * reboot or whenever durability is required.
+ */
+@Component
+public class WriteBehindQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    @Autowired
+    private AtomicFileWriter atomicFileWriter;
+
+    @Autowired
+    private ConfigFileCache cache;
+
+    @Value("${dm.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${dm.write-behind.window-ms:500}")
+    private long windowMs;
+
+    private final Map<Path, PendingFile> pendingFiles = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flushScheduler;
+
+    /**
+     * Latest not yet written state of one file
+     */
+    private static final class PendingFile {
+        final ReentrantLock flushLock = new ReentrantLock();
+        Object state;
+        byte[] content;
+        String version;
+        long generation;
+        long flushedGeneration;
+        boolean scheduled;
+        boolean retired;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue the new state of a file; replaces any state still waiting for the same file
+     *
+     * @param state   parsed state served to readers until the flush (must not be modified afterwards)
+     * @param content serialized bytes to write
+     * @param version content version of the bytes
+     */
+    public void submit(Path path, Object state, byte[] content, String version) {
+        Path key = key(path);
+        while (true) {
+            PendingFile pending = pendingFiles.computeIfAbsent(key, k -> new PendingFile());
+            synchronized (pending) {
+                if (pending.retired) {
+                    continue;
+                }
+                pending.state = state;
+                pending.content = content;
+                pending.version = version;
+                pending.generation++;
+                if (!pending.scheduled) {
+                    pending.scheduled = true;
+                    scheduler().schedule(() -> flushQuietly(key), windowMs, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Pending state of a file, or null when nothing is waiting to be written
+     */
+    public <T> T getPending(Path path, Class<T> type) {
+        PendingFile pending = pendingFiles.get(key(path));
+        if (pending == null) {
+            return null;
+        }
+        synchronized (pending) {
+            return pending.retired || !type.isInstance(pending.state) ? null : type.cast(pending.state);
+        }
+    }
+
+    /**
+     * Serialized bytes of the pending state, or null when nothing is waiting to be written
+     */
+    public byte[] getPendingContent(Path path) {
+        PendingFile pending = pendingFiles.get(key(path));
+        if (pending == null) {
+            return null;
+        }
+        synchronized (pending) {
+            return pending.retired ? null : pending.content;
+        }
+    }
+
+    /**
+     * Content version of the pending state, or null when nothing is waiting to be written
+     */
+    public String getPendingVersion(Path path) {
+        PendingFile pending = pendingFiles.get(key(path));
+        if (pending == null) {
+            return null;
+        }
+        synchronized (pending) {
+            return pending.retired ? null : pending.version;
+        }
+    }
+
+    /**
+     * Write the pending state of one file now
+     */
+    public void flush(Path path) throws IOException {
+        Path key = key(path);
+        PendingFile pending = pendingFiles.get(key);
+        if (pending == null) {
+            return;
+        }
+
+        pending.flushLock.lock();
+        try {
+            byte[] content;
+            long generation;
+            synchronized (pending) {
+                pending.scheduled = false;
+                if (pending.retired || pending.generation == pending.flushedGeneration) {
+                    return;
+                }
+                content = pending.content;
+                generation = pending.generation;
+            }
+
+            try {
+                atomicFileWriter.write(key, content);
+            } finally {
+                cache.invalidate(key);
+            }
+
+            synchronized (pending) {
+                pending.flushedGeneration = generation;
+                if (pending.generation == generation) {
+                    // Nothing newer arrived: readers can go to the file again
+                    pending.retired = true;
+                    pendingFiles.remove(key, pending);
+                }
+            }
+        } finally {
+            pending.flushLock.unlock();
+        }
+    }
+
+    /**
+     * Barrier: write every pending file and return once all of them are durable
+     */
+    public void flushAll() throws IOException {
+        List<IOException> failures = new ArrayList<>();
+        for (Path path : new ArrayList<>(pendingFiles.keySet())) {
+            try {
+                flush(path);
+            } catch (IOException e) {
+                failures.add(e);
+            }
+        }
+        if (!failures.isEmpty()) {
+            IOException error = new IOException("Failed to flush " + failures.size() + " pending config file(s)", failures.get(0));
+            failures.stream().skip(1).forEach(error::addSuppressed);
+            throw error;
+        }
+    }
+
+    public int getPendingCount() {
+        return pendingFiles.size();
+    }
+
+    private void flushQuietly(Path path) {
+        try {
+            flush(path);
+        } catch (IOException e) {
+            logger.error("Write-behind flush failed for {}, retrying", path, e);
+            PendingFile pending = pendingFiles.get(path);
+            if (pending != null) {
+                synchronized (pending) {
+                    if (!pending.scheduled) {
+                        pending.scheduled = true;
+                        scheduler().schedule(() -> flushQuietly(path), windowMs * 4, TimeUnit.MILLISECONDS);
+                    }
+                }
+            }
+        }
+    }
+
+    private synchronized ScheduledExecutorService scheduler() {
+        if (flushScheduler == null) {
+            flushScheduler = Executors.newScheduledThreadPool(2, r -> {
+                Thread thread = new Thread(r, "config-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return flushScheduler;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flushAll();
+        } catch (IOException e) {
+            logger.error("Pending config writes lost on shutdown", e);
+        }
+        synchronized (this) {
+            if (flushScheduler != null) {
+                flushScheduler.shutdownNow();
+            }
+        }
+    }
+
+    private static Path key(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+}
@@ -0,0 +1,161 @@
+package com.observis.dmconfig.validation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled validation rules of one device type, built by {@link ValidationRules}.
+ *
+ * Each rule is a flat object checking one simplified field; membership tests use
+ * precomputed sets (and sorted int tables for numeric values), so a successful
+ * validation allocates nothing.
+ */
+public final class DeviceValidator {
+
+    /**
+     * Check of one field; returns null when valid, otherwise the error message
+     */
+    abstract static class FieldRule {
+        final String field;
+        final String message;
+
+        FieldRule(String field, String message) {
+            this.field = field;
+            this.message = message;
+        }
+
+        abstract boolean accepts(JsonNode value);
+    }
+
+    /**
+     * Value must be one of a fixed set. Text is compared as-is; integer nodes are looked up
+     * in a sorted int table so they are not turned into strings first.
+     */
+    static final class EnumRule extends FieldRule {
+        private final Set<String> values;
+        private final int[] intValues;
+
+        EnumRule(String field, String message, List<String> values) {
+            super(field, message);
+            this.values = Set.copyOf(values);
+            this.intValues = values.stream()
+                    .filter(value -> value.matches("-?[1-9][0-9]{0,8}|0"))
+                    .mapToInt(Integer::parseInt)
+                    .sorted()
+                    .toArray();
+        }
+
+        @Override
+        boolean accepts(JsonNode value) {
+            if (value.isTextual()) {
+                return values.contains(value.textValue());
+            }
+            if (value.isInt()) {
+                return Arrays.binarySearch(intValues, value.intValue()) >= 0;
+            }
+            return values.contains(value.asText());
+        }
+    }
+
+    /**
+     * Text length bounds
+     */
+    static final class LengthRule extends FieldRule {
+        private final int minLength;
+        private final int maxLength;
+
+        LengthRule(String field, String message, int minLength, int maxLength) {
+            super(field, message);
+            this.minLength = minLength;
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        boolean accepts(JsonNode value) {
+            int length = value.isTextual() ? value.textValue().length() : value.asText().length();
+            return length >= minLength && length <= maxLength;
+        }
+    }
+
+    /**
+     * Integer range; values are read like JsonNode.asInt (non-numbers count as 0)
+     */
+    static final class RangeRule extends FieldRule {
+        private final long minimum;
+        private final long maximum;
+
+        RangeRule(String field, String message, long minimum, long maximum) {
+            super(field, message);
+            this.minimum = minimum;
+            this.maximum = maximum;
+        }
+
+        @Override
+        boolean accepts(JsonNode value) {
+            int number = value.asInt();
+            return number >= minimum && number <= maximum;
+        }
+    }
+
+    /**
+     * IPv4 dotted quad
+     */
+    static final class Ipv4Rule extends FieldRule {
+        Ipv4Rule(String field, String message) {
+            super(field, message);
+        }
+
+        @Override
+        boolean accepts(JsonNode value) {
+            return Ipv4.isValid(value.isTextual() ? value.textValue() : value.asText());
+        }
+    }
+
+    /**
+     * Regular expression over the whole value (allocates a Matcher per check)
+     */
+    static final class PatternRule extends FieldRule {
+        private final Pattern pattern;
+
+        PatternRule(String field, String message, Pattern pattern) {
+            super(field, message);
+            this.pattern = pattern;
+        }
+
+        @Override
+        boolean accepts(JsonNode value) {
+            return pattern.matcher(value.asText()).matches();
+        }
+    }
+
+    private final String type;
+    private final FieldRule[] rules;
+
+    DeviceValidator(String type, List<FieldRule> rules) {
+        this.type = type;
+        this.rules = rules.toArray(new FieldRule[0]);
+    }
+
+    /**
+     * Device or connection type these rules were declared for
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Add every rule the config breaks to result. Fields that are absent are not checked.
+     */
+    public void check(JsonNode config, ValidationResult result) {
+        for (FieldRule rule : rules) {
+            JsonNode value = config.get(rule.field);
+            if (value != null && !rule.accepts(value)) {
+                result.addError(rule.field, rule.message);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.observis.dmconfig.validation;
+
+/**
+ * Allocation-free IPv4 address and subnet arithmetic
+ *
+ * Addresses are parsed straight into an int (the 32 address bits, so values from
+ * 128.0.0.0 up are negative); parse() returns a long so that -1 can mean invalid.
+ * Masks are plain ints as well, and every subnet check is a couple of bit operations.
+ */
+public final class Ipv4 {
+
+    /**
+     * parse() result for text that is not a dotted quad
+     */
+    public static final long INVALID = -1L;
+
+    private Ipv4() {
+    }
+
+    /**
+     * Dotted quad with four octets of 1-3 digits, each at most 255 (leading zeros allowed).
+     * Accepts exactly what the former IPV4_PATTERN regex accepted.
+     */
+    public static boolean isValid(CharSequence text) {
+        return parse(text) != INVALID;
+    }
+
+    /**
+     * The address as an unsigned 32-bit value, or {@link #INVALID}
+     */
+    public static long parse(CharSequence text) {
+        if (text == null) {
+            return INVALID;
+        }
+        int length = text.length();
+        int address = 0;
+        int octets = 0;
+        int i = 0;
+        while (i < length) {
+            int value = 0;
+            int digits = 0;
+            while (i < length && digits <= 3) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+                digits++;
+                i++;
+            }
+            if (digits == 0 || digits > 3 || value > 255) {
+                return INVALID;
+            }
+            address = (address << 8) | value;
+            octets++;
+            if (i == length) {
+                break;
+            }
+            if (text.charAt(i) != '.' || octets == 4) {
+                return INVALID;
+            }
+            i++;
+            if (i == length) {
+                return INVALID;
+            }
+        }
+        return octets == 4 ? address & 0xFFFFFFFFL : INVALID;
+    }
+
+    /**
+     * Whether the mask is contiguous: ones from the top, then only zeros (255.255.255.0, not 255.0.255.0)
+     */
+    public static boolean isContiguousMask(int mask) {
+        int hostBits = ~mask;
+        return (hostBits & (hostBits + 1)) == 0;
+    }
+
+    /**
+     * Prefix length of a contiguous mask (255.255.255.0 is 24)
+     */
+    public static int prefixLength(int mask) {
+        return Integer.bitCount(mask);
+    }
+
+    /**
+     * Mask for a prefix length from 0 to 32 (24 is 255.255.255.0)
+     */
+    public static int maskOf(int prefixLength) {
+        if (prefixLength < 0 || prefixLength > 32) {
+            throw new IllegalArgumentException("Prefix length out of range: " + prefixLength);
+        }
+        return prefixLength == 0 ? 0 : -1 << (32 - prefixLength);
+    }
+
+    /**
+     * Network address of the subnet the address is in
+     */
+    public static int networkAddress(int address, int mask) {
+        return address & mask;
+    }
+
+    /**
+     * Broadcast address of the subnet the address is in
+     */
+    public static int broadcastAddress(int address, int mask) {
+        return address | ~mask;
+    }
+
+    /**
+     * Whether both addresses are in the same subnet
+     */
+    public static boolean inSubnet(int address, int other, int mask) {
+        return ((address ^ other) & mask) == 0;
+    }
+
+    /**
+     * Whether the address can be given to a host: not the network or broadcast address of
+     * its subnet. /31 (point-to-point, RFC 3021) and /32 have no such reserved addresses.
+     */
+    public static boolean isHostAddress(int address, int mask) {
+        if (prefixLength(mask) >= 31) {
+            return true;
+        }
+        return address != networkAddress(address, mask) && address != broadcastAddress(address, mask);
+    }
+
+    /**
+     * Dotted quad text of an address (allocates; meant for messages)
+     */
+    public static String format(int address) {
+        return (address >>> 24) + "." + ((address >>> 16) & 0xFF) + "." + ((address >>> 8) & 0xFF) + "." + (address & 0xFF);
+    }
+}
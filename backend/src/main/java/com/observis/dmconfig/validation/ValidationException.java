@@ -0,0 +1,26 @@
+package com.observis.dmconfig.validation;
+
+/**
+ * Rejected input, with every field error of the validation pass.
+ *
+ * Thrown by saves to abort under their file locks. It is an expected outcome rather than
+ * a fault, so no stack trace is captured.
+ */
+public class ValidationException extends IllegalArgumentException {
+
+    private final transient ValidationResult result;
+
+    public ValidationException(String message, ValidationResult result) {
+        super(message);
+        this.result = result;
+    }
+
+    public ValidationResult getResult() {
+        return result;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
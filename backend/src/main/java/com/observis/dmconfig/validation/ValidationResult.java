@@ -0,0 +1,79 @@
+package com.observis.dmconfig.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Every field error found in one validation pass.
+ *
+ * Checks append to the result instead of throwing, so invalid input costs no exception
+ * and the caller sees all errors at once. The error list is only allocated on the first
+ * error; a valid result holds nothing.
+ */
+public final class ValidationResult {
+
+    /**
+     * One rejected field
+     */
+    public static final class FieldError {
+        private final String field;
+        private final String message;
+
+        FieldError(String field, String message) {
+            this.field = field;
+            this.message = message;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private List<FieldError> errors;
+
+    public void addError(String field, String message) {
+        if (errors == null) {
+            errors = new ArrayList<>();
+        }
+        errors.add(new FieldError(field, message));
+    }
+
+    public boolean isValid() {
+        return errors == null;
+    }
+
+    public List<FieldError> getErrors() {
+        return errors == null ? List.of() : Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Error messages joined by "; ", empty when valid
+     */
+    public String describe() {
+        if (errors == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (FieldError error : errors) {
+            if (text.length() > 0) {
+                text.append("; ");
+            }
+            text.append(error.message);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Throw a {@link ValidationException} carrying all errors, if any
+     */
+    public void throwIfInvalid() {
+        if (errors != null) {
+            throw new ValidationException(describe(), this);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.observis.dmconfig.validation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.observis.dmconfig.service.ConfigFileWatcher;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Device validation rules, declared per device type in a JSON-Schema-like descriptor
+ * (dm.validation.rules.location, validation-rules.json on the classpath by default).
+ *
+ * Each type lists its simplified fields with the keywords enum, minLength, maxLength,
+ * minimum, maximum, format ("ipv4") and pattern, plus the error message to report.
+ * Types are matched by device main type first, then by connection type (SERIAL, TCPIP).
+ *
+ * Rules are compiled into {@link DeviceValidator}s at startup. When the descriptor is a
+ * file it is watched and recompiled on change; a broken descriptor keeps the previous rules.
+ */
+@Component
+public class ValidationRules implements ConfigFileWatcher.Listener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValidationRules.class);
+
+    @Autowired
+    private ConfigFileWatcher fileWatcher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${dm.validation.rules.location:classpath:validation-rules.json}")
+    private Resource location;
+
+    private volatile Map<String, DeviceValidator> validators = Collections.emptyMap();
+    private Path watchedFile;
+
+    @PostConstruct
+    void init() throws IOException {
+        try (InputStream input = location.getInputStream()) {
+            validators = compile(objectMapper.readTree(input));
+        }
+        logger.info("Loaded validation rules for {} device types from {}", validators.size(), location);
+
+        if (location.isFile()) {
+            watchedFile = location.getFile().toPath().toAbsolutePath().normalize();
+            fileWatcher.addListener(this);
+            fileWatcher.watchDirectory(watchedFile.getParent());
+        }
+    }
+
+    /**
+     * Validator for a device: its main type's rules if declared, otherwise its connection type's.
+     * Returns null when neither is known.
+     */
+    public DeviceValidator forDevice(String deviceMainType, String connectionType) {
+        Map<String, DeviceValidator> current = validators;
+        DeviceValidator validator = deviceMainType != null ? current.get(deviceMainType.toUpperCase(Locale.ROOT)) : null;
+        if (validator == null && connectionType != null) {
+            validator = current.get(connectionType.toUpperCase(Locale.ROOT));
+        }
+        return validator;
+    }
+
+    /**
+     * Re-read and recompile the descriptor; the previous rules stay active if it is invalid
+     *
+     * @return whether the new rules were installed
+     */
+    public boolean reload() {
+        try (InputStream input = location.getInputStream()) {
+            validators = compile(objectMapper.readTree(input));
+            logger.info("Reloaded validation rules for {} device types", validators.size());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Invalid validation rules in {}, keeping the previous rules", location, e);
+            return false;
+        }
+    }
+
+    @Override
+    public void onFileChanged(Path file) {
+        if (file.toAbsolutePath().normalize().equals(watchedFile)) {
+            reload();
+        }
+    }
+
+    @Override
+    public void onDirectoryChanged(Path directory) {
+        if (watchedFile.startsWith(directory.toAbsolutePath().normalize())) {
+            reload();
+        }
+    }
+
+    /**
+     * Compile a rules descriptor into validators keyed by upper-case type
+     */
+    public static Map<String, DeviceValidator> compile(JsonNode descriptor) {
+        JsonNode types = descriptor.path("deviceTypes");
+        if (!types.isObject()) {
+            throw new IllegalArgumentException("Validation rules must contain a deviceTypes object");
+        }
+        Map<String, DeviceValidator> compiled = new HashMap<>();
+        types.fields().forEachRemaining(type -> {
+            List<DeviceValidator.FieldRule> rules = new ArrayList<>();
+            type.getValue().path("properties").fields().forEachRemaining(property ->
+                    compileField(type.getKey(), property.getKey(), property.getValue(), rules));
+            compiled.put(type.getKey().toUpperCase(Locale.ROOT), new DeviceValidator(type.getKey(), rules));
+        });
+        return Collections.unmodifiableMap(compiled);
+    }
+
+    private static void compileField(String type, String field, JsonNode schema, List<DeviceValidator.FieldRule> rules) {
+        String message = schema.path("message").asText("Invalid " + field);
+        boolean known = false;
+
+        if (schema.has("enum")) {
+            List<String> values = new ArrayList<>();
+            schema.get("enum").forEach(value -> values.add(value.asText()));
+            rules.add(new DeviceValidator.EnumRule(field, message, values));
+            known = true;
+        }
+        if (schema.has("minLength") || schema.has("maxLength")) {
+            rules.add(new DeviceValidator.LengthRule(field, message,
+                    schema.path("minLength").asInt(0), schema.path("maxLength").asInt(Integer.MAX_VALUE)));
+            known = true;
+        }
+        if (schema.has("minimum") || schema.has("maximum")) {
+            rules.add(new DeviceValidator.RangeRule(field, message,
+                    schema.path("minimum").asLong(Integer.MIN_VALUE), schema.path("maximum").asLong(Integer.MAX_VALUE)));
+            known = true;
+        }
+        if (schema.has("format")) {
+            String format = schema.get("format").asText();
+            if (!"ipv4".equals(format)) {
+                throw new IllegalArgumentException("Unsupported format " + format + " for " + type + "." + field);
+            }
+            rules.add(new DeviceValidator.Ipv4Rule(field, message));
+            known = true;
+        }
+        if (schema.has("pattern")) {
+            try {
+                rules.add(new DeviceValidator.PatternRule(field, message, Pattern.compile(schema.get("pattern").asText())));
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Invalid pattern for " + type + "." + field + ": " + e.getMessage());
+            }
+            known = true;
+        }
+        if (!known) {
+            throw new IllegalArgumentException("No supported rule for " + type + "." + field);
+        }
+    }
+}
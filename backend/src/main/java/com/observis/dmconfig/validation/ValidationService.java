@@ -2,13 +2,15 @@ package com.observis.dmconfig.validation;
 
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
-import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
  * Validation service for all configuration properties
  * Implements validation rules from TDD Plan Section 4
+ *
+ * Device settings are checked by the compiled per-type rules in {@link ValidationRules};
+ * the single-value checks here serve devices.json, config.properties and the network config.
  */
 @Service
 public class ValidationService {
@@ -17,19 +19,15 @@ public class ValidationService {
     private static final int DEVICE_MANAGER_NAME_MAX_LENGTH = 50;
     private static final int DEVICE_NAME_MAX_LENGTH = 50;
     
-    private static final Pattern IPV4_PATTERN = Pattern.compile(
-        "^((25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\.){3}(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)$"
-    );
-    
     // MQTT topic: allows any characters except /, #, and +
     private static final Pattern MQTT_TOPIC_PATTERN = Pattern.compile("^[^\\/#+]+$");
     
-    private static final List<String> VALID_SERIAL_PORTS = Arrays.asList("ttyS0", "ttyS1", "/dev/ttyS0", "/dev/ttyS1");
-    private static final List<String> VALID_BAUD_RATES = Arrays.asList("9600", "19200", "38400", "57600", "115200");
-    private static final List<String> VALID_SERIAL_PORT_TYPES = Arrays.asList("RS232", "RS485");
-    private static final List<String> VALID_PARITY_VALUES = Arrays.asList("N", "E", "O");
-    private static final List<String> VALID_DATA_BITS = Arrays.asList("7", "8");
-    private static final List<String> VALID_STOP_BITS = Arrays.asList("1", "2");
+    private static final Set<String> VALID_SERIAL_PORTS = Set.of("ttyS0", "ttyS1", "/dev/ttyS0", "/dev/ttyS1");
+    private static final Set<String> VALID_BAUD_RATES = Set.of("9600", "19200", "38400", "57600", "115200");
+    private static final Set<String> VALID_SERIAL_PORT_TYPES = Set.of("RS232", "RS485");
+    private static final Set<String> VALID_PARITY_VALUES = Set.of("N", "E", "O");
+    private static final Set<String> VALID_DATA_BITS = Set.of("7", "8");
+    private static final Set<String> VALID_STOP_BITS = Set.of("1", "2");
 
     /**
      * Validate deviceManagerKey: max 20 chars, valid MQTT topic characters only
@@ -63,7 +61,15 @@ public class ValidationService {
         if (ip == null || ip.isEmpty()) {
             return false;
         }
-        return IPV4_PATTERN.matcher(ip).matches();
+        return Ipv4.isValid(ip);
+    }
+
+    /**
+     * Validate netmask: dotted quad, contiguous, prefix length 1-32
+     */
+    public boolean validateNetmask(String netmask) {
+        long mask = Ipv4.parse(netmask);
+        return mask != Ipv4.INVALID && mask != 0 && Ipv4.isContiguousMask((int) mask);
     }
 
     /**
@@ -73,6 +79,24 @@ public class ValidationService {
         return port >= 1 && port <= 65535;
     }
 
+    /**
+     * Validate port number given as text: decimal digits only, 1-65535
+     */
+    public boolean validatePortNumber(String port) {
+        if (port == null || port.isEmpty() || port.length() > 5) {
+            return false;
+        }
+        int value = 0;
+        for (int i = 0; i < port.length(); i++) {
+            char c = port.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return validatePortNumber(value);
+    }
+
     /**
      * Validate serial port: only ttyS0 or ttyS1
      */
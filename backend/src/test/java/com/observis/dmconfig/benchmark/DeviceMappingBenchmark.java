@@ -0,0 +1,101 @@
+package com.observis.dmconfig.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.observis.dmconfig.service.DeviceMapping;
+import com.observis.dmconfig.service.DeviceMappings;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merging a simplified (UI) config into the stored device document:
+ * compiled device mapping vs. the former hand-written has()/put() chain
+ *
+ * Run from backend/: mvn -Pbenchmark test -Djmh.include=DeviceMapping
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceMappingBenchmark {
+
+    @Param({"S900", "IBAC"})
+    public String device;
+
+    private DeviceMappings mappings;
+    private JsonNode document;
+    private JsonNode simplified;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        mappings = new DeviceMappings();
+        try (InputStream input = DeviceMappingBenchmark.class.getResourceAsStream("/device-mappings.json")) {
+            mappings.load(input);
+        }
+        document = objectMapper.readTree(Files.readAllBytes(Paths.get("src/main/resources/dev-data/" + device + ".json")));
+        simplified = "IBAC".equals(device)
+                ? objectMapper.readTree("{\"address\":\"ttyS0\",\"speed\":\"19200\",\"bits\":\"8\",\"stopBits\":\"1\","
+                        + "\"parity\":\"N\",\"serialPortType\":\"RS232\",\"name\":\"Bio\",\"enabled\":true}")
+                : objectMapper.readTree("{\"address\":\"10.0.0.5\",\"portNumber\":\"21013\",\"name\":\"Rad\",\"enabled\":true}");
+    }
+
+    // Merges are idempotent, so both variants update the same document in place
+
+    @Benchmark
+    public JsonNode compiledMapping() {
+        DeviceMapping mapping = mappings.find(document);
+        mapping.merge(document, simplified);
+        return document;
+    }
+
+    @Benchmark
+    public JsonNode handWrittenMerge() {
+        return legacyMerge(document, simplified);
+    }
+
+    /**
+     * The merge as it was implemented in ConfigService before device mappings
+     */
+    private static JsonNode legacyMerge(JsonNode existing, JsonNode simplified) {
+        ObjectNode result = (ObjectNode) existing;
+        if (result.has("serialDeviceConfiguration")) {
+            ObjectNode config = (ObjectNode) result.get("serialDeviceConfiguration");
+            if (simplified.has("address")) config.put("address", simplified.get("address").asText());
+            if (simplified.has("speed")) config.set("speed", intOrText(simplified.get("speed").asText()));
+            if (simplified.has("bits")) config.set("bits", intOrText(simplified.get("bits").asText()));
+            if (simplified.has("stopBits")) config.set("stopBits", intOrText(simplified.get("stopBits").asText()));
+            if (simplified.has("parity")) config.put("parity", simplified.get("parity").asText());
+            if (simplified.has("serialPortType")) config.put("serialPortType", simplified.get("serialPortType").asText());
+            if (simplified.has("name")) config.put("name", simplified.get("name").asText());
+            if (simplified.has("enabled")) config.put("enabled", simplified.get("enabled").asBoolean());
+        } else if (result.has("networkDeviceConfiguration")) {
+            ObjectNode config = (ObjectNode) result.get("networkDeviceConfiguration");
+            if (simplified.has("address")) config.put("address", simplified.get("address").asText());
+            if (simplified.has("portNumber")) config.put("portNumber", simplified.get("portNumber").asText());
+            if (simplified.has("name")) config.put("name", simplified.get("name").asText());
+            if (simplified.has("enabled")) config.put("enabled", simplified.get("enabled").asBoolean());
+        } else {
+            return simplified;
+        }
+        return result;
+    }
+
+    private static JsonNode intOrText(String text) {
+        try {
+            return IntNode.valueOf(Integer.parseInt(text));
+        } catch (NumberFormatException e) {
+            return TextNode.valueOf(text);
+        }
+    }
+}
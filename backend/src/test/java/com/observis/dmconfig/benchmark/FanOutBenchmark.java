@@ -0,0 +1,68 @@
+package com.observis.dmconfig.benchmark;
+
+import com.observis.dmconfig.service.TaskScope;
+import com.observis.dmconfig.service.VirtualThreads;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fanning out blocking reads (1 ms of simulated storage latency each, like a batch-get
+ * over many device files): the fixed pool of dm.batch.read-threads (8) vs. a virtual
+ * thread per subtask with no concurrency cap
+ *
+ * Run from backend/ on Java 21 (virtual fails its setup on older JVMs):
+ * mvn -Pbenchmark test -Djmh.include=FanOut
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FanOutBenchmark {
+
+    private static final int POOL_THREADS = 8;
+    private static final long LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Param({"platform", "virtual"})
+    public String executor;
+
+    @Param({"16", "200"})
+    public int tasks;
+
+    private ExecutorService executorService;
+    private int maxConcurrency;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = "virtual".equals(executor);
+        if (virtual && !VirtualThreads.isSupported()) {
+            throw new IllegalStateException("Virtual threads need Java 21, running " + Runtime.version());
+        }
+        executorService = VirtualThreads.newExecutor(virtual, POOL_THREADS, "fan-out-benchmark-");
+        maxConcurrency = virtual ? tasks : POOL_THREADS;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Benchmark
+    public int fanOut() throws InterruptedException {
+        try (TaskScope<Integer> scope = new TaskScope<>(executorService, maxConcurrency)) {
+            for (int i = 0; i < tasks; i++) {
+                int n = i;
+                scope.fork(() -> {
+                    LockSupport.parkNanos(LATENCY_NANOS);
+                    return n;
+                });
+            }
+            scope.join();
+        }
+        return tasks;
+    }
+}
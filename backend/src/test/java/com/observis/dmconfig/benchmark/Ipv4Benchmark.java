@@ -0,0 +1,53 @@
+package com.observis.dmconfig.benchmark;
+
+import com.observis.dmconfig.validation.Ipv4;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * IPv4 checks: the hand-written parser vs. the former IPV4_PATTERN regex, plus a full
+ * address/netmask/gateway subnet check on parsed ints
+ *
+ * Run from backend/: mvn -Pbenchmark test -Djmh.include=Ipv4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Ipv4Benchmark {
+
+    private static final Pattern IPV4_PATTERN = Pattern.compile(
+            "^((25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\.){3}(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)$");
+
+    @Param({"192.168.1.100", "255.255.255.0", "256.1.1.1", "not-an-address"})
+    public String address;
+
+    private String netmask = "255.255.255.0";
+    private String gateway = "192.168.1.1";
+
+    @Benchmark
+    public boolean regex() {
+        return IPV4_PATTERN.matcher(address).matches();
+    }
+
+    @Benchmark
+    public boolean parser() {
+        return Ipv4.isValid(address);
+    }
+
+    @Benchmark
+    public boolean subnetCheck() {
+        long host = Ipv4.parse(address);
+        long mask = Ipv4.parse(netmask);
+        long router = Ipv4.parse(gateway);
+        if (host == Ipv4.INVALID || mask == Ipv4.INVALID || router == Ipv4.INVALID
+                || !Ipv4.isContiguousMask((int) mask)) {
+            return false;
+        }
+        return Ipv4.isHostAddress((int) host, (int) mask) && Ipv4.inSubnet((int) host, (int) router, (int) mask);
+    }
+}
@@ -0,0 +1,99 @@
+package com.observis.dmconfig.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.observis.dmconfig.validation.DeviceValidator;
+import com.observis.dmconfig.validation.ValidationResult;
+import com.observis.dmconfig.validation.ValidationRules;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Validating a simplified device config: compiled per-type rules vs. the former
+ * ValidationService checks (List.contains allowlists, IPv4 regex) behind a type switch
+ *
+ * Run from backend/: mvn -Pbenchmark test -Djmh.include=Validation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private static final Pattern IPV4_PATTERN = Pattern.compile(
+            "^((25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\.){3}(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)$");
+    private static final List<String> VALID_SERIAL_PORTS = Arrays.asList("ttyS0", "ttyS1", "/dev/ttyS0", "/dev/ttyS1");
+    private static final List<String> VALID_BAUD_RATES = Arrays.asList("9600", "19200", "38400", "57600", "115200");
+    private static final List<String> VALID_SERIAL_PORT_TYPES = Arrays.asList("RS232", "RS485");
+    private static final List<String> VALID_PARITY_VALUES = Arrays.asList("N", "E", "O");
+    private static final List<String> VALID_DATA_BITS = Arrays.asList("7", "8");
+    private static final List<String> VALID_STOP_BITS = Arrays.asList("1", "2");
+
+    @Param({"SERIAL", "TCPIP"})
+    public String connectionType;
+
+    private DeviceValidator validator;
+    private JsonNode config;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        try (InputStream input = ValidationBenchmark.class.getResourceAsStream("/validation-rules.json")) {
+            validator = ValidationRules.compile(objectMapper.readTree(input)).get(connectionType);
+        }
+        config = "SERIAL".equals(connectionType)
+                ? objectMapper.readTree("{\"address\":\"ttyS1\",\"speed\":115200,\"bits\":8,\"stopBits\":1,"
+                        + "\"parity\":\"N\",\"serialPortType\":\"RS232\",\"name\":\"Biological Detector\",\"enabled\":true}")
+                : objectMapper.readTree("{\"address\":\"172.19.0.50\",\"portNumber\":\"21013\","
+                        + "\"name\":\"Radiation Detector\",\"enabled\":true}");
+    }
+
+    @Benchmark
+    public ValidationResult compiledRules() {
+        ValidationResult result = new ValidationResult();
+        validator.check(config, result);
+        return result;
+    }
+
+    @Benchmark
+    public String formerValidation() {
+        return legacyValidate(connectionType, config);
+    }
+
+    /**
+     * The checks as ConfigService and ValidationService performed them before compiled rules
+     */
+    private static String legacyValidate(String connectionType, JsonNode config) {
+        if (config.has("name")) {
+            String name = config.get("name").asText();
+            if (name == null || name.isEmpty() || name.length() > 50) return "Invalid device name";
+        }
+        switch (connectionType) {
+            case "SERIAL":
+                if (config.has("address") && !VALID_SERIAL_PORTS.contains(config.get("address").asText())) return "Invalid serial port address";
+                if (config.has("speed") && !VALID_BAUD_RATES.contains(config.get("speed").asText())) return "Invalid baud rate";
+                if (config.has("serialPortType") && !VALID_SERIAL_PORT_TYPES.contains(config.get("serialPortType").asText())) return "Invalid serial port type";
+                if (config.has("parity") && !VALID_PARITY_VALUES.contains(config.get("parity").asText())) return "Invalid parity";
+                if (config.has("bits") && !VALID_DATA_BITS.contains(config.get("bits").asText())) return "Invalid data bits";
+                if (config.has("stopBits") && !VALID_STOP_BITS.contains(config.get("stopBits").asText())) return "Invalid stop bits";
+                return null;
+            case "TCPIP":
+                if (config.has("address") && !IPV4_PATTERN.matcher(config.get("address").asText()).matches()) return "Invalid IP address";
+                if (config.has("portNumber")) {
+                    int port = config.get("portNumber").asInt();
+                    if (port < 1 || port > 65535) return "Invalid port number: must be 1-65535";
+                }
+                return null;
+            default:
+                return "Unknown device";
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.observis.dmconfig.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payload size and (de)serialization time of the sample device files per wire format
+ *
+ * Run from backend/: mvn -Pbenchmark test -Djmh.include=WireFormat
+ * Payload sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"S900", "IBAC"})
+    public String device;
+
+    @Param({"json", "json-pretty", "cbor", "smile"})
+    public String format;
+
+    private JsonNode tree;
+    private ObjectMapper mapper;
+    private ObjectWriter writer;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper json = new ObjectMapper();
+        tree = json.readTree(Files.readAllBytes(Paths.get("src/main/resources/dev-data/" + device + ".json")));
+
+        switch (format) {
+            case "json":
+                mapper = json;
+                writer = json.writer();
+                break;
+            case "json-pretty":
+                mapper = json;
+                writer = json.writerWithDefaultPrettyPrinter();
+                break;
+            case "cbor":
+                mapper = new CBORMapper();
+                writer = mapper.writer();
+                break;
+            case "smile":
+                mapper = new SmileMapper();
+                writer = mapper.writer();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        payload = writer.writeValueAsBytes(tree);
+        System.out.printf("%n%s as %s: %d bytes%n", device, format, payload.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(tree);
+    }
+
+    @Benchmark
+    public JsonNode deserialize() throws IOException {
+        return mapper.readTree(payload);
+    }
+}
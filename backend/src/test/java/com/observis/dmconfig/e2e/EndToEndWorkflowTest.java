@@ -1,6 +1,8 @@
 package com.observis.dmconfig.e2e;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,13 +11,17 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * End-to-end tests for the complete application workflow
@@ -307,5 +313,455 @@ public class EndToEndWorkflowTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
-}
 
+    @Test
+    @DisplayName("E2E: Raw device file is streamed byte-for-byte")
+    public void testRawDeviceConfig() throws Exception {
+        byte[] onDisk = Files.readAllBytes(Paths.get("src/test/resources/S900.json"));
+
+        MvcResult result = mockMvc.perform(get("/api/device/S900/raw"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes(onDisk));
+    }
+
+    @Test
+    @DisplayName("E2E: Raw endpoint rejects unknown or unsafe device names")
+    public void testRawDeviceConfigNotFound() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/device/NO_SUCH_DEVICE/raw"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    @DisplayName("E2E: Device config field projection")
+    public void testDeviceConfigFieldProjection() throws Exception {
+        mockMvc.perform(get("/api/device/S900").param("fields", "address,portNumber"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.address").exists())
+                .andExpect(jsonPath("$.portNumber").exists())
+                .andExpect(jsonPath("$.name").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("E2E: Stale If-Match on device save is rejected with 412")
+    public void testDeviceSaveWithIfMatch() throws Exception {
+        // 1. Read the device and its version
+        String etag = mockMvc.perform(get("/api/device/S900"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // 2. Unchanged resource answers a conditional GET with 304
+        mockMvc.perform(get("/api/device/S900").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        // 3. Save based on the current version succeeds and returns the new version
+        Map<String, Object> s900Config = new HashMap<>();
+        s900Config.put("address", "192.168.1.60");
+        s900Config.put("portNumber", 8080);
+        s900Config.put("name", "Versioned S900 Device");
+        s900Config.put("deviceType", "S900");
+        s900Config.put("enabled", true);
+
+        String newEtag = mockMvc.perform(post("/api/device/S900")
+                .header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(s900Config)))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // 4. A second save still based on the old version is rejected
+        s900Config.put("name", "Lost Update");
+        mockMvc.perform(post("/api/device/S900")
+                .header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(s900Config)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string("ETag", newEtag))
+                .andExpect(jsonPath("$.success").value(false));
+
+        mockMvc.perform(get("/api/device/S900"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", newEtag))
+                .andExpect(jsonPath("$.name").value("Versioned S900 Device"));
+    }
+
+    @Test
+    @DisplayName("E2E: Stale If-Match on properties save is rejected with 412")
+    public void testPropertiesSaveWithStaleIfMatch() throws Exception {
+        Map<String, Object> saveRequest = new HashMap<>();
+        saveRequest.put("configType", "properties");
+        Map<String, String> propertiesData = new HashMap<>();
+        propertiesData.put("mqtt.broker", "192.168.1.200");
+        propertiesData.put("mqtt.port", "1883");
+        saveRequest.put("data", propertiesData);
+
+        mockMvc.perform(post("/api/save")
+                .header("If-Match", "\"0000000000000000\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(saveRequest)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    @DisplayName("E2E: Device config negotiated as CBOR and Smile")
+    public void testBinaryWireFormats() throws Exception {
+        byte[] cbor = mockMvc.perform(get("/api/device/S900").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("S900", new CBORMapper().readTree(cbor).get("deviceType").asText());
+
+        byte[] smile = mockMvc.perform(get("/api/device/S900").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("S900", new SmileMapper().readTree(smile).get("deviceType").asText());
+    }
+
+    @Test
+    @DisplayName("E2E: Device config saved from a CBOR request body")
+    public void testSaveDeviceConfigFromCbor() throws Exception {
+        Map<String, Object> s900Config = new HashMap<>();
+        s900Config.put("address", "192.168.1.70");
+        s900Config.put("portNumber", 8080);
+        s900Config.put("name", "CBOR S900 Device");
+        s900Config.put("deviceType", "S900");
+        s900Config.put("enabled", true);
+
+        mockMvc.perform(post("/api/device/S900")
+                .contentType("application/cbor")
+                .content(new CBORMapper().writeValueAsBytes(s900Config)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/device/S900"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.address").value("192.168.1.70"));
+    }
+
+    @Test
+    @DisplayName("E2E: JSON is compact unless pretty printing is requested")
+    public void testPrettyPrintingOnRequest() throws Exception {
+        String compact = mockMvc.perform(get("/api/devices"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+        assertFalse(compact.contains("\n"));
+
+        String pretty = mockMvc.perform(get("/api/devices").param("pretty", "true"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(pretty.contains("\n"));
+    }
+
+    @Test
+    @DisplayName("E2E: Saves are listed in the history and can be rolled back")
+    public void testHistoryAndRollback() throws Exception {
+        // 1. Save a device so it has at least the baseline and one revision
+        Map<String, Object> s900Config = new HashMap<>();
+        s900Config.put("address", "192.168.1.80");
+        s900Config.put("portNumber", 8080);
+        s900Config.put("name", "History S900 Device");
+        s900Config.put("deviceType", "S900");
+        s900Config.put("enabled", true);
+        mockMvc.perform(post("/api/device/S900")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(s900Config)))
+                .andExpect(status().isOk());
+
+        // 2. History lists the revisions of the file
+        String history = mockMvc.perform(get("/api/history").param("file", "S900.json"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].revision").exists())
+                .andReturn().getResponse().getContentAsString();
+        int revisions = objectMapper.readTree(history).size();
+        long previous = objectMapper.readTree(history).get(revisions - 2).get("revision").asLong();
+
+        // 3. Roll back to the revision before the save
+        Map<String, Object> rollback = new HashMap<>();
+        rollback.put("file", "S900.json");
+        rollback.put("revision", previous);
+        mockMvc.perform(post("/api/history/rollback")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(rollback)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+
+        mockMvc.perform(get("/api/history/content").param("file", "S900.json").param("revision", String.valueOf(previous)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/api/history").param("file", "S900.json"))
+                .andExpect(jsonPath("$.length()").value(revisions + 1));
+    }
+
+    @Test
+    @DisplayName("E2E: Device listing is paginated and filterable")
+    public void testListDevices() throws Exception {
+        // 1. First page holds the first two devices by name, total covers all of them
+        mockMvc.perform(get("/api/devices/list").param("page", "0").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].name").value("IBAC"))
+                .andExpect(jsonPath("$.total").value(4));
+
+        // 2. Pages past the end are empty
+        mockMvc.perform(get("/api/devices/list").param("page", "5").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+
+        // 3. Filters narrow the listing
+        mockMvc.perform(get("/api/devices/list").param("deviceMainType", "s900"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("S900"))
+                .andExpect(jsonPath("$.total").value(1));
+
+        // 4. Out of range page sizes are rejected
+        mockMvc.perform(get("/api/devices/list").param("size", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    @DisplayName("E2E: Batch device read returns every device with its own result")
+    public void testBatchGetDevices() throws Exception {
+        // 1. "all" reads every registered device
+        mockMvc.perform(post("/api/devices/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"devices\":\"all\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.devices.IBAC.success").value(true))
+                .andExpect(jsonPath("$.devices.IBAC.config").exists())
+                .andExpect(jsonPath("$.devices.IBAC.version").exists())
+                .andExpect(jsonPath("$.devices.S900.success").value(true))
+                .andExpect(jsonPath("$.devices.wxt53x.success").value(true))
+                .andExpect(jsonPath("$.devices.oritestgtdb.success").value(true));
+
+        // 2. An unknown device fails on its own, the rest of the batch succeeds
+        mockMvc.perform(post("/api/devices/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"devices\":[\"S900\",\"missing\"],\"fields\":\"address\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.devices.S900.success").value(true))
+                .andExpect(jsonPath("$.devices.S900.config.address").exists())
+                .andExpect(jsonPath("$.devices.S900.config.name").doesNotExist())
+                .andExpect(jsonPath("$.devices.missing.success").value(false))
+                .andExpect(jsonPath("$.devices.missing.error").value("Device not found: missing"));
+
+        // 3. A request without devices is rejected
+        mockMvc.perform(post("/api/devices/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"devices\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    @DisplayName("E2E: Batch save writes all devices or none")
+    public void testBatchSaveDevices() throws Exception {
+        String ibacBefore = mockMvc.perform(get("/api/device/IBAC"))
+                .andReturn().getResponse().getContentAsString();
+
+        // 1. One invalid entry rejects the whole batch, nothing is written
+        Map<String, Object> ibacConfig = new HashMap<>();
+        ibacConfig.put("address", "ttyS1");
+        ibacConfig.put("speed", 19200);
+        ibacConfig.put("bits", 8);
+        ibacConfig.put("stopBits", 1);
+        ibacConfig.put("parity", "N");
+        ibacConfig.put("serialPortType", "RS232");
+        ibacConfig.put("name", "Batch IBAC");
+        ibacConfig.put("deviceType", "IBAC");
+        ibacConfig.put("enabled", true);
+        Map<String, Object> invalidS900 = new HashMap<>();
+        invalidS900.put("address", "999.1.1.1");
+        invalidS900.put("portNumber", 8080);
+        Map<String, Object> devices = new HashMap<>();
+        devices.put("IBAC", ibacConfig);
+        devices.put("S900", invalidS900);
+
+        mockMvc.perform(post("/api/devices/batch-save")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("devices", devices))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.error", containsString("S900")));
+        mockMvc.perform(get("/api/device/IBAC"))
+                .andExpect(content().json(ibacBefore));
+
+        // 2. A valid batch saves every device and returns the new versions
+        Map<String, Object> s900Config = new HashMap<>();
+        s900Config.put("address", "192.168.1.90");
+        s900Config.put("portNumber", 8090);
+        s900Config.put("name", "Batch S900");
+        s900Config.put("deviceType", "S900");
+        s900Config.put("enabled", true);
+        devices.put("S900", s900Config);
+
+        mockMvc.perform(post("/api/devices/batch-save")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("devices", devices))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.versions.IBAC").exists())
+                .andExpect(jsonPath("$.versions.S900").exists());
+        mockMvc.perform(get("/api/device/S900"))
+                .andExpect(jsonPath("$.address").value("192.168.1.90"));
+        mockMvc.perform(get("/api/device/IBAC"))
+                .andExpect(jsonPath("$.name").value("Batch IBAC"));
+
+        // 3. A stale version for one device rejects the batch
+        Map<String, Object> stale = new HashMap<>();
+        stale.put("devices", devices);
+        stale.put("versions", Map.of("S900", "\"0000000000000000\""));
+        mockMvc.perform(post("/api/devices/batch-save")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(stale)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @DisplayName("E2E: Device and devices.json accept merge patches and JSON Patch")
+    public void testPatchDeviceConfig() throws Exception {
+        // 1. Merge patch changes one field and keeps the rest of the file
+        String etag = mockMvc.perform(patch("/api/device/S900")
+                .contentType("application/merge-patch+json")
+                .content("{\"portNumber\": 8081}"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/device/S900"))
+                .andExpect(jsonPath("$.portNumber").value(8081))
+                .andExpect(jsonPath("$.deviceType").value("S900"));
+
+        // 2. JSON Patch with the current ETag
+        mockMvc.perform(patch("/api/device/S900")
+                .contentType("application/json-patch+json")
+                .header("If-Match", etag)
+                .content("[{\"op\": \"replace\", \"path\": \"/portNumber\", \"value\": 8082}]"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/device/S900"))
+                .andExpect(jsonPath("$.portNumber").value(8082));
+
+        // 3. The resulting config is validated like a save
+        mockMvc.perform(patch("/api/device/S900")
+                .contentType("application/merge-patch+json")
+                .content("{\"address\": \"not-an-ip\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+
+        // 4. Stale ETag is rejected
+        mockMvc.perform(patch("/api/device/S900")
+                .contentType("application/json-patch+json")
+                .header("If-Match", etag)
+                .content("[{\"op\": \"remove\", \"path\": \"/portNumber\"}]"))
+                .andExpect(status().isPreconditionFailed());
+
+        // 5. devices.json
+        mockMvc.perform(patch("/api/devices")
+                .contentType("application/merge-patch+json")
+                .content("{\"deviceManagerName\": \"Patched Manager\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/devices"))
+                .andExpect(jsonPath("$.deviceManagerName").value("Patched Manager"));
+        mockMvc.perform(patch("/api/devices")
+                .contentType("application/json-patch+json")
+                .content("[{\"op\": \"remove\", \"path\": \"/deviceManagerKey\"}]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("E2E: Preview reports changes and restart impact without writing")
+    public void testPreviewConfig() throws Exception {
+        String s900Before = mockMvc.perform(get("/api/device/S900"))
+                .andReturn().getResponse().getContentAsString();
+
+        // 1. Device save preview
+        Map<String, Object> s900Config = new HashMap<>();
+        s900Config.put("address", "192.168.1.77");
+        s900Config.put("portNumber", 8080);
+        s900Config.put("name", "Preview S900");
+        s900Config.put("deviceType", "S900");
+        s900Config.put("enabled", true);
+        Map<String, Object> devicePreview = new HashMap<>();
+        devicePreview.put("configType", "device");
+        devicePreview.put("deviceName", "S900");
+        devicePreview.put("data", s900Config);
+
+        mockMvc.perform(post("/api/preview")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(devicePreview)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.restart").value("DM_CONTAINER"))
+                .andExpect(jsonPath("$.changes[?(@.path == '/address')].value").value(hasItem("192.168.1.77")));
+        mockMvc.perform(get("/api/device/S900"))
+                .andExpect(content().json(s900Before));
+
+        // 2. Network preview
+        Map<String, Object> networkPreview = new HashMap<>();
+        networkPreview.put("configType", "network");
+        networkPreview.put("data", Map.of("method", "static", "address", "10.9.8.7",
+                "netmask", "255.255.255.0", "gateway", "10.9.8.1"));
+
+        mockMvc.perform(post("/api/preview")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(networkPreview)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.restart").value("NETWORK"))
+                .andExpect(jsonPath("$.changes[?(@.path == '/address')].value").value(hasItem("10.9.8.7")));
+        mockMvc.perform(get("/api/network"))
+                .andExpect(jsonPath("$.address").value(not("10.9.8.7")));
+
+        // 3. Invalid data is rejected like a save
+        devicePreview.put("data", Map.of("address", "not-an-ip", "portNumber", 8080));
+        mockMvc.perform(post("/api/preview")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(devicePreview)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("E2E: Validate reports every field error without saving")
+    public void testValidateConfig() throws Exception {
+        // 1. Several invalid device fields are reported together
+        Map<String, Object> request = new HashMap<>();
+        request.put("configType", "device");
+        request.put("deviceName", "S900");
+        request.put("data", Map.of("address", "999.1.1.1", "portNumber", 70000));
+
+        mockMvc.perform(post("/api/validate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.valid").value(false))
+                .andExpect(jsonPath("$.errors", hasSize(2)))
+                .andExpect(jsonPath("$.errors[*].field", containsInAnyOrder("address", "portNumber")));
+
+        // 2. A valid network config
+        request.put("configType", "network");
+        request.put("data", Map.of("method", "static", "address", "10.0.0.5", "netmask", "255.255.255.0"));
+        mockMvc.perform(post("/api/validate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.valid").value(true))
+                .andExpect(jsonPath("$.errors", hasSize(0)));
+
+        // 3. A save lists all errors as well
+        mockMvc.perform(post("/api/network")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("address", "1.2.3", "gateway", "x"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[*].field", contains("address", "gateway")));
+    }
+}
@@ -148,6 +148,62 @@ public class NetworkConfigEndToEndTest {
                 .andExpect(jsonPath("$.success").value(false));
     }
 
+    @Test
+    @DisplayName("E2E: Reject gateway outside the configured subnet")
+    public void testRejectUnreachableGateway() throws Exception {
+        Map<String, String> networkConfig = new HashMap<>();
+        networkConfig.put("interface", "eth0");
+        networkConfig.put("method", "static");
+        networkConfig.put("address", "192.168.1.100");
+        networkConfig.put("netmask", "255.255.255.0");
+        networkConfig.put("gateway", "192.168.2.1");  // Not in 192.168.1.0/24
+
+        mockMvc.perform(post("/api/network")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(networkConfig)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].field").value("gateway"))
+                .andExpect(jsonPath("$.errors[0].message").value("Gateway is outside subnet 192.168.1.0/24"));
+    }
+
+    @Test
+    @DisplayName("E2E: Reject non-contiguous netmask and broadcast address")
+    public void testRejectNonContiguousNetmask() throws Exception {
+        Map<String, String> networkConfig = new HashMap<>();
+        networkConfig.put("interface", "eth0");
+        networkConfig.put("method", "static");
+        networkConfig.put("address", "192.168.1.100");
+        networkConfig.put("netmask", "255.0.255.0");  // Not contiguous
+        networkConfig.put("gateway", "192.168.1.1");
+
+        mockMvc.perform(post("/api/network")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(networkConfig)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].field").value("netmask"))
+                .andExpect(jsonPath("$.errors[0].message").value(
+                        "Invalid netmask: the mask bits must be contiguous (e.g. 255.255.255.0)"));
+
+        networkConfig.put("netmask", "0.0.0.0");  // Contiguous, but /0
+
+        mockMvc.perform(post("/api/network")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(networkConfig)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].field").value("netmask"))
+                .andExpect(jsonPath("$.errors[0].message").value(
+                        "Invalid netmask: 0.0.0.0 (/0) leaves no room for a subnet"));
+
+        networkConfig.put("netmask", "255.255.255.0");
+        networkConfig.put("address", "192.168.1.255");  // Broadcast address of the subnet
+
+        mockMvc.perform(post("/api/network")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(networkConfig)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].field").value("address"));
+    }
+
     @Test
     @DisplayName("E2E: Interface is auto-detected (ignores provided value)")
     public void testInterfaceAutoDetected() throws Exception {
@@ -0,0 +1,90 @@
+package com.observis.dmconfig.e2e;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * E2E tests on a real server with the small-box profile and a single worker thread:
+ * request bodies are read without blocking, so a client uploading slowly does not hold the worker
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=1",
+        "server.tomcat.threads.min-spare=1",
+        "dm.web.body-buffering.max-bytes=1024"
+})
+@ActiveProfiles("small-box")
+@DisplayName("Slow Client E2E Tests")
+public class SlowClientEndToEndTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    @DisplayName("E2E: Requests are served while another body is still uploading")
+    public void testSlowUploadDoesNotHoldWorker() throws Exception {
+        byte[] body = "{\"configType\":\"network\",\"data\":{\"address\":\"1.2.3.999\"}}"
+                .getBytes(StandardCharsets.UTF_8);
+        int half = body.length / 2;
+
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout(10000);
+            OutputStream output = socket.getOutputStream();
+            output.write(("POST /api/validate HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n"
+                    + "Content-Type: application/json\r\nContent-Length: " + body.length + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            output.write(body, 0, half);
+            output.flush();
+
+            // The only worker is free for other clients meanwhile
+            HttpResponse<String> devices = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/devices"))
+                            .timeout(Duration.ofSeconds(5)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, devices.statusCode());
+
+            output.write(body, half, body.length - half);
+            output.flush();
+
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertTrue(reader.readLine().startsWith("HTTP/1.1 200"));
+            String line;
+            StringBuilder response = new StringBuilder();
+            while ((line = reader.readLine()) != null) {
+                response.append(line);
+            }
+            assertTrue(response.toString().contains("Invalid IP address"));
+        }
+    }
+
+    @Test
+    @DisplayName("E2E: Bodies over max-bytes are rejected before they are buffered")
+    public void testOversizedBodyRejected() throws Exception {
+        String body = "{\"configType\":\"network\",\"data\":{\"comment\":\"" + "x".repeat(2048) + "\"}}";
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/validate"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .timeout(Duration.ofSeconds(5)).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(413, response.statusCode());
+    }
+}
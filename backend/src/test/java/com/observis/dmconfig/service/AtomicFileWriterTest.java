@@ -0,0 +1,176 @@
+package com.observis.dmconfig.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for AtomicFileWriter in group-commit mode
+ */
+@SpringBootTest(properties = {
+        "dm.write.group-commit.enabled=true",
+        "dm.write.group-commit.window-ms=50"
+})
+class AtomicFileWriterTest {
+
+    @Autowired
+    private AtomicFileWriter atomicFileWriter;
+
+    @TempDir
+    Path tempDir;
+
+    // ===== Test: Concurrent writes sharing a directory sync all complete =====
+    @Test
+    void testGroupCommit_ConcurrentWritesAllDurable() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 8; i++) {
+            Path target = tempDir.resolve("device" + i + ".json");
+            byte[] content = ("{\"index\": " + i + "}").getBytes(StandardCharsets.UTF_8);
+            futures.add(executor.submit(() -> {
+                atomicFileWriter.write(target, content);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        for (int i = 0; i < 8; i++) {
+            assertEquals("{\"index\": " + i + "}", Files.readString(tempDir.resolve("device" + i + ".json")));
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(8, files.count());
+        }
+    }
+
+    // ===== Test: An aborted prepared write leaves the target untouched =====
+    @Test
+    void testPreparedWrite_Abort_KeepsOriginal() throws IOException {
+        // Arrange
+        Path target = tempDir.resolve("config.properties");
+        Files.writeString(target, "key=original\n");
+
+        // Act
+        AtomicFileWriter.PreparedWrite write = atomicFileWriter.prepare(target, "key=new\n".getBytes(StandardCharsets.UTF_8));
+        write.abort();
+
+        // Assert
+        assertEquals("key=original\n", Files.readString(target));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    // ===== Test: A batch write replaces every file =====
+    @Test
+    void testWriteAll_ReplacesAllFiles() throws Exception {
+        // Arrange
+        Map<Path, byte[]> files = new LinkedHashMap<>();
+        for (int i = 0; i < 6; i++) {
+            Path target = tempDir.resolve("batch" + i + ".json");
+            Files.writeString(target, "old");
+            files.put(target, ("new" + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Act
+        atomicFileWriter.writeAll(files);
+
+        // Assert
+        for (int i = 0; i < 6; i++) {
+            assertEquals("new" + i, Files.readString(tempDir.resolve("batch" + i + ".json")));
+        }
+        try (Stream<Path> leftovers = Files.list(tempDir)) {
+            assertTrue(leftovers.noneMatch(p -> p.getFileName().toString().startsWith(".")));
+        }
+    }
+
+    // ===== Test: A target that is not a regular file fails the batch before any rename =====
+    @Test
+    void testWriteAll_TargetNotAFile_LeavesFilesUnchanged() throws Exception {
+        // Arrange
+        Path first = tempDir.resolve("first.json");
+        Path created = tempDir.resolve("created.json");
+        Path blocked = tempDir.resolve("blocked.json");
+        Files.writeString(first, "original");
+        Files.createDirectory(blocked);
+        Files.writeString(blocked.resolve("child"), "x");
+        Map<Path, byte[]> files = new LinkedHashMap<>();
+        files.put(first, "changed".getBytes(StandardCharsets.UTF_8));
+        files.put(created, "new".getBytes(StandardCharsets.UTF_8));
+        files.put(blocked, "cannot replace a directory".getBytes(StandardCharsets.UTF_8));
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> atomicFileWriter.writeAll(files));
+        assertEquals("original", Files.readString(first));
+        assertFalse(Files.exists(created));
+        try (Stream<Path> leftovers = Files.list(tempDir)) {
+            assertTrue(leftovers.noneMatch(p -> p.getFileName().toString().startsWith(".")));
+        }
+    }
+
+    // ===== Test: A batch cut short after its first rename is rolled back on recovery =====
+    @Test
+    void testRecover_InterruptedBatch_RollsBack() throws Exception {
+        // Arrange - journal a batch and rename only its first file, as if the process died then
+        Path first = tempDir.resolve("first.json");
+        Path second = tempDir.resolve("second.json");
+        Path created = tempDir.resolve("created.json");
+        Files.writeString(first, "original first");
+        Files.writeString(second, "original second");
+        List<AtomicFileWriter.PreparedWrite> writes = List.of(
+                atomicFileWriter.prepare(first, "changed".getBytes(StandardCharsets.UTF_8)),
+                atomicFileWriter.prepare(created, "new".getBytes(StandardCharsets.UTF_8)),
+                atomicFileWriter.prepare(second, "changed".getBytes(StandardCharsets.UTF_8)));
+        atomicFileWriter.beginBatch(writes);
+        writes.get(0).commit();
+        writes.get(1).commit();
+
+        // Act
+        atomicFileWriter.recover(tempDir);
+
+        // Assert
+        assertEquals("original first", Files.readString(first));
+        assertEquals("original second", Files.readString(second));
+        assertFalse(Files.exists(created));
+        try (Stream<Path> leftovers = Files.list(tempDir)) {
+            assertTrue(leftovers.noneMatch(p -> p.getFileName().toString().startsWith(".")));
+        }
+    }
+
+    // ===== Test: Nothing is replaced when a temp file cannot be prepared =====
+    @Test
+    void testWriteAll_PrepareFailure_LeavesFilesUnchanged() throws Exception {
+        // Arrange
+        Path existing = tempDir.resolve("existing.json");
+        Files.writeString(existing, "original");
+        Map<Path, byte[]> files = new LinkedHashMap<>();
+        files.put(existing, "changed".getBytes(StandardCharsets.UTF_8));
+        files.put(tempDir.resolve("missing-dir").resolve("device.json"), "new".getBytes(StandardCharsets.UTF_8));
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> atomicFileWriter.writeAll(files));
+        assertEquals("original", Files.readString(existing));
+    }
+}
@@ -0,0 +1,153 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ConfigFileCache - cached reads through FileService, invalidation and eviction
+ */
+@SpringBootTest(properties = "dm.cache.max-weight-bytes=1024")
+class ConfigFileCacheTest {
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private ConfigFileCache cache;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        cache.clear();
+    }
+
+    // ===== Test: Second read is served from cache =====
+    @Test
+    void testReadJsonFile_SecondRead_IsCacheHit() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("devices.json");
+        Files.writeString(file, "{\"deviceManagerKey\": \"cached\"}");
+        long hitsBefore = stat("hits");
+
+        // Act
+        fileService.readJsonFile(file.toString());
+        JsonNode second = fileService.readJsonFile(file.toString());
+
+        // Assert
+        assertEquals("cached", second.get("deviceManagerKey").asText());
+        assertEquals(hitsBefore + 1, stat("hits"));
+    }
+
+    // ===== Test: Callers cannot corrupt the cached tree =====
+    @Test
+    void testReadJsonFile_ReturnsIndependentCopies() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("IBAC.json");
+        Files.writeString(file, "{\"name\": \"original\"}");
+
+        // Act
+        ObjectNode first = (ObjectNode) fileService.readJsonFile(file.toString());
+        first.put("name", "mutated");
+        JsonNode second = fileService.readJsonFile(file.toString());
+
+        // Assert
+        assertEquals("original", second.get("name").asText());
+    }
+
+    // ===== Test: A versioned read caches the tree and its version from a single read =====
+    @Test
+    void testReadSharedJsonFileVersioned_CachesTreeAndVersion() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("S900.json");
+        Files.writeString(file, "{\"address\": \"10.0.0.1\"}");
+        long missesBefore = stat("misses");
+
+        // Act
+        Versioned<JsonNode> first = fileService.readSharedJsonFileVersioned(file.toString());
+        Versioned<JsonNode> second = fileService.readSharedJsonFileVersioned(file.toString());
+
+        // Assert
+        assertSame(first.getValue(), second.getValue());
+        assertEquals(first.getVersion(), second.getVersion());
+        assertEquals(first.getVersion(), cache.getVersion(file));
+        assertEquals(missesBefore + 1, stat("misses"));
+    }
+
+    // ===== Test: Writes through FileService invalidate the entry =====
+    @Test
+    void testWritePropertiesFile_InvalidatesCachedProperties() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("config.properties");
+        Files.writeString(file, "key=old\n");
+        fileService.readPropertiesFile(file.toString());
+
+        Properties updated = new Properties();
+        updated.setProperty("key", "new");
+
+        // Act
+        fileService.writePropertiesFile(file.toString(), updated);
+
+        // Assert
+        assertEquals("new", fileService.readPropertiesFile(file.toString()).getProperty("key"));
+    }
+
+    // ===== Test: Changes made by another process are picked up via the watcher =====
+    @Test
+    void testExternalModification_IsPickedUpByWatcher() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("S900.json");
+        Files.writeString(file, "{\"address\": \"10.0.0.1\"}");
+        fileService.readJsonFile(file.toString());
+
+        // Act
+        Files.writeString(file, "{\"address\": \"10.0.0.2\"}");
+
+        // Assert
+        String address = null;
+        for (int i = 0; i < 100; i++) {
+            address = fileService.readJsonFile(file.toString()).get("address").asText();
+            if ("10.0.0.2".equals(address)) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        assertEquals("10.0.0.2", address);
+    }
+
+    // ===== Test: Entries beyond the weight budget are evicted =====
+    @Test
+    void testWeightBudget_EvictsLeastRecentlyUsed() throws IOException {
+        // Arrange - two 150 byte files weigh about 600 heap bytes each, too much for a 1024 byte budget
+        Path first = tempDir.resolve("first.json");
+        Path second = tempDir.resolve("second.json");
+        Files.writeString(first, "{\"pad\": \"" + "a".repeat(140) + "\"}");
+        Files.writeString(second, "{\"pad\": \"" + "b".repeat(140) + "\"}");
+        long evictionsBefore = stat("evictions");
+
+        // Act
+        fileService.readJsonFile(first.toString());
+        fileService.readJsonFile(second.toString());
+
+        // Assert
+        assertEquals(evictionsBefore + 1, stat("evictions"));
+        assertEquals(Files.size(second) * ConfigFileCache.HEAP_BYTES_PER_FILE_BYTE, stat("weightBytes"));
+    }
+
+    private long stat(String name) {
+        return ((Number) fileService.getCacheStats().get(name)).longValue();
+    }
+}
@@ -0,0 +1,160 @@
+package com.observis.dmconfig.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the config history - revision log, point-in-time reads, rollback, compaction
+ */
+@SpringBootTest(properties = {
+        "dm.history.dir=" + ConfigHistoryStoreTest.HISTORY_DIR,
+        "dm.history.snapshot-interval=3",
+        "dm.history.retention=5"
+})
+class ConfigHistoryStoreTest {
+
+    static final String HISTORY_DIR = "target/history-store-test";
+
+    @Autowired
+    private ConfigHistoryStore historyStore;
+
+    @Autowired
+    private ConfigHistoryService historyService;
+
+    @Autowired
+    private FileService fileService;
+
+    @TempDir
+    Path tempDir;
+
+    @TempDir
+    static Path configDir;
+
+    @DynamicPropertySource
+    static void configPaths(DynamicPropertyRegistry registry) {
+        registry.add("dm.config.devices.path", () -> configDir.resolve("history-devices.json").toString());
+    }
+
+    @BeforeAll
+    @AfterAll
+    static void deleteHistory() throws IOException {
+        FileSystemUtils.deleteRecursively(Paths.get(HISTORY_DIR));
+    }
+
+    // ===== Test: Every revision can be read back across snapshots and deltas =====
+    @Test
+    void testRecord_AllRevisionsReadable() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("interfaces");
+        Files.writeString(file, "auto eth0\n");
+        List<String> expected = new ArrayList<>();
+        expected.add("auto eth0\n");
+
+        // Act
+        for (int i = 1; i <= 4; i++) {
+            String content = "auto eth0\niface eth0 inet static\n    address 192.168.1." + i + "\n";
+            fileService.writeTextFile(file.toString(), content);
+            expected.add(content);
+        }
+
+        // Assert - revision 1 is the baseline from before the first write
+        List<ConfigHistoryStore.Revision> revisions = historyStore.list(file, null, null);
+        assertEquals(5, revisions.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i + 1, revisions.get(i).getRevision());
+            assertEquals(expected.get(i), new String(historyStore.read(file, i + 1), StandardCharsets.UTF_8));
+        }
+    }
+
+    // ===== Test: Point-in-time lookup and rollback =====
+    @Test
+    void testRollback_RestoresRevisionAsNewRevision() throws Exception {
+        // Arrange
+        Path file = configDir.resolve("history-devices.json");
+        Files.writeString(file, "{\"deviceManagerKey\":\"v1\"}");
+        fileService.writeTextFile(file.toString(), "{\"deviceManagerKey\":\"v2\"}");
+        long afterFirstSave = System.currentTimeMillis();
+        Thread.sleep(5);
+        fileService.writeTextFile(file.toString(), "{\"deviceManagerKey\":\"v3\"}");
+
+        // Act
+        ConfigHistoryStore.Revision atFirstSave = historyStore.findAt(file, afterFirstSave);
+        historyService.rollback(file.toString(), 1, null);
+
+        // Assert
+        assertEquals(2, atFirstSave.getRevision());
+        assertEquals("{\"deviceManagerKey\":\"v1\"}", Files.readString(file));
+        assertEquals(4, historyStore.list(file, null, null).size());
+        assertEquals("v1", fileService.readJsonFile(file.toString()).get("deviceManagerKey").asText());
+    }
+
+    // ===== Test: Compaction trims to the retention limit and keeps the rest readable =====
+    @Test
+    void testCompact_KeepsLatestRevisions() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("config.properties");
+        Files.writeString(file, "key=0\n");
+        for (int i = 1; i <= 9; i++) {
+            fileService.writeTextFile(file.toString(), "key=" + i + "\n");
+        }
+
+        // Act
+        historyStore.compact();
+
+        // Assert
+        List<ConfigHistoryStore.Revision> revisions = historyStore.list(file, null, null);
+        assertEquals(5, revisions.size());
+        assertEquals(6, revisions.get(0).getRevision());
+        for (ConfigHistoryStore.Revision revision : revisions) {
+            String expected = "key=" + (revision.getRevision() - 1) + "\n";
+            assertEquals(expected, new String(historyStore.read(file, revision.getRevision()), StandardCharsets.UTF_8));
+        }
+        assertThrows(IllegalArgumentException.class, () -> historyStore.read(file, 1));
+    }
+
+    // ===== Test: Bare file names resolve only inside the configured config directories =====
+    @Test
+    void testResolveFile_BareNameOnlyInConfigDirectories() throws IOException {
+        // Arrange - a tracked file outside every configured config directory
+        Path file = tempDir.resolve("stray-devices.json");
+        Files.writeString(file, "{\"deviceManagerKey\":\"v1\"}");
+        fileService.writeTextFile(file.toString(), "{\"deviceManagerKey\":\"v2\"}");
+
+        // Act & Assert
+        assertEquals(file.toAbsolutePath().normalize(), historyStore.resolveFile(file.toString()));
+        assertNull(historyStore.resolveFile("stray-devices.json"));
+    }
+
+    // ===== Test: Files outside the configured config files are never written back =====
+    @Test
+    void testRollback_UnmanagedFile_Rejected() throws IOException {
+        // Arrange - a tracked file that is neither a configured file nor a registered device
+        Path file = tempDir.resolve("copied-devices.json");
+        Files.writeString(file, "{\"deviceManagerKey\":\"v1\"}");
+        fileService.writeTextFile(file.toString(), "{\"deviceManagerKey\":\"v2\"}");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> historyService.rollback(file.toString(), 1, null));
+        assertThrows(IllegalArgumentException.class, () -> historyService.getContent(file.toString(), 1));
+        assertTrue(historyService.getHistory(null, null, null).stream()
+                .noneMatch(revision -> revision.getFile().equals(file.toAbsolutePath().normalize().toString())));
+        assertEquals("{\"deviceManagerKey\":\"v2\"}", Files.readString(file));
+    }
+}
@@ -0,0 +1,107 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for DeviceConfigExtractor - streaming extraction of the simplified device config
+ */
+@SpringBootTest
+class DeviceConfigExtractorTest {
+
+    @Autowired
+    private DeviceConfigExtractor extractor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // ===== Test: Serial device (IBAC) =====
+    @Test
+    void testExtract_SerialDevice_ReturnsAllSimplifiedFields() throws IOException {
+        JsonNode result = extract("src/main/resources/dev-data/IBAC.json", null);
+
+        assertEquals("ttyS1", result.get("address").asText());
+        assertEquals("115200", result.get("speed").asText());
+        assertEquals("8", result.get("bits").asText());
+        assertEquals("1", result.get("stopBits").asText());
+        assertEquals("N", result.get("parity").asText());
+        assertEquals("RS232", result.get("serialPortType").asText());
+        assertEquals("Biological Detector", result.get("name").asText());
+        assertTrue(result.get("enabled").asBoolean());
+        assertEquals(8, result.size());
+    }
+
+    // ===== Test: Network device with phenomenons (S900) =====
+    @Test
+    void testExtract_NetworkDevice_SkipsPhenomenons() throws IOException {
+        JsonNode result = extract("src/main/resources/dev-data/S900.json", null);
+
+        assertEquals("172.19.0.50", result.get("address").asText());
+        assertEquals("21013", result.get("portNumber").asText());
+        assertEquals("Radiation Detector", result.get("name").asText());
+        assertTrue(result.get("enabled").asBoolean());
+        assertFalse(result.has("phenomenons"));
+        assertEquals(4, result.size());
+    }
+
+    // ===== Test: Field projection =====
+    @Test
+    void testExtract_WithFields_ReturnsOnlyRequestedFields() throws IOException {
+        JsonNode result = extract("src/main/resources/dev-data/S900.json", Set.of("address", "portNumber"));
+
+        assertEquals(2, result.size());
+        assertEquals("172.19.0.50", result.get("address").asText());
+        assertEquals("21013", result.get("portNumber").asText());
+    }
+
+    // ===== Test: Missing values fall back to defaults =====
+    @Test
+    void testExtract_MissingValues_UseDefaults() throws IOException {
+        String json = "{\"networkDeviceConfiguration\": {\"address\": null, \"enabled\": \"false\"}}";
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            JsonNode result = extractor.extract(parser, null);
+
+            assertEquals("", result.get("address").asText());
+            assertEquals("", result.get("portNumber").asText());
+            assertFalse(result.get("enabled").asBoolean());
+        }
+    }
+
+    // ===== Test: A later serial section wins over an earlier network section =====
+    @Test
+    void testExtract_NetworkSectionFirst_SerialSectionWins() throws IOException {
+        String json = "{\"networkDeviceConfiguration\": {\"address\": \"10.0.0.1\", \"portNumber\": \"502\","
+                + " \"name\": \"Net\", \"enabled\": true, \"extra\": {\"nested\": 1}},"
+                + " \"serialDeviceConfiguration\": {\"address\": \"ttyS0\", \"speed\": 9600, \"name\": \"Serial\"}}";
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            JsonNode result = extractor.extract(parser, Set.of("address", "name"));
+
+            assertEquals("ttyS0", result.get("address").asText());
+            assertEquals("Serial", result.get("name").asText());
+            assertEquals(2, result.size());
+        }
+    }
+
+    // ===== Test: Flat format is not handled by the extractor =====
+    @Test
+    void testExtract_FlatFormat_ReturnsNull() throws IOException {
+        assertNull(extract("src/test/resources/IBAC.json", null));
+    }
+
+    private JsonNode extract(String file, Set<String> fields) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(Files.newInputStream(Paths.get(file)))) {
+            return extractor.extract(parser, fields);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for DeviceMappings - compiled device type field mappings
+ */
+class DeviceMappingsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // ===== Test: Serial fields are merged with their storage types =====
+    @Test
+    void testMerge_SerialDevice_ConvertsTypes() throws IOException {
+        // Arrange
+        DeviceMappings mappings = defaultMappings();
+        JsonNode device = objectMapper.readTree(Paths.get("src/main/resources/dev-data/IBAC.json").toFile());
+        JsonNode simplified = json("{\"address\":\"ttyS0\",\"speed\":\"19200\",\"bits\":\"x\",\"enabled\":false,\"unknown\":1}");
+
+        // Act
+        DeviceMapping mapping = mappings.find(device);
+        mapping.merge(device, simplified);
+
+        // Assert
+        JsonNode section = device.get("serialDeviceConfiguration");
+        assertEquals("SERIAL", mapping.getConnectionType());
+        assertEquals("ttyS0", section.get("address").asText());
+        assertTrue(section.get("speed").isInt());
+        assertEquals(19200, section.get("speed").asInt());
+        assertEquals("x", section.get("bits").asText());
+        assertFalse(section.get("enabled").asBoolean());
+        assertFalse(section.has("unknown"));
+        assertEquals("IBAC2", section.get("deviceKey").asText());
+    }
+
+    // ===== Test: Network port numbers are stored as text =====
+    @Test
+    void testMerge_NetworkDevice_StoresPortAsText() throws IOException {
+        // Arrange
+        DeviceMappings mappings = defaultMappings();
+        JsonNode device = objectMapper.readTree(Paths.get("src/main/resources/dev-data/S900.json").toFile());
+
+        // Act
+        mappings.find(device).merge(device, json("{\"portNumber\":8080}"));
+
+        // Assert
+        assertEquals("TCPIP", mappings.find(device).getConnectionType());
+        assertTrue(device.at("/networkDeviceConfiguration/portNumber").isTextual());
+        assertEquals("8080", device.at("/networkDeviceConfiguration/portNumber").asText());
+    }
+
+    // ===== Test: Flat files have no mapping =====
+    @Test
+    void testFind_FlatFormat_ReturnsNull() throws IOException {
+        // Act & Assert
+        assertNull(defaultMappings().find(json("{\"deviceType\":\"S900\",\"address\":\"10.0.0.1\"}")));
+    }
+
+    // ===== Test: Flat files take their connection type from flatDevices by name =====
+    @Test
+    void testFlatConnectionType_ByDeviceName() throws IOException {
+        // Act & Assert
+        DeviceMappings mappings = defaultMappings();
+        assertEquals("SERIAL", mappings.flatConnectionType("wxt53x"));
+        assertEquals("TCPIP", mappings.flatConnectionType("S900"));
+        assertNull(mappings.flatConnectionType("unknown"));
+        assertEquals("CAN", load("{\"mappings\":[],\"flatDevices\":{\"canNode\":\"CAN\"}}").flatConnectionType("CANNODE"));
+    }
+
+    // ===== Test: A new device type only needs a descriptor entry =====
+    @Test
+    void testLoad_CustomDeviceType() throws IOException {
+        // Arrange
+        DeviceMappings mappings = load("{\"mappings\":[{\"section\":\"canBusConfiguration\",\"connectionType\":\"CAN\","
+                + "\"fields\":[{\"name\":\"address\",\"property\":\"nodeId\",\"type\":\"integer\"}]}]}");
+        JsonNode device = json("{\"canBusConfiguration\":{\"nodeId\":1}}");
+
+        // Act
+        mappings.find(device).merge(device, json("{\"address\":\"42\"}"));
+
+        // Assert
+        assertEquals(42, device.at("/canBusConfiguration/nodeId").asInt());
+        assertEquals("/canBusConfiguration/nodeId",
+                mappings.forSection("canBusConfiguration").fieldForProperty("nodeId").getPointer().toString());
+    }
+
+    // ===== Test: Invalid descriptors are rejected =====
+    @Test
+    void testLoad_InvalidDescriptor_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> load("{\"mappings\":[{\"fields\":[]}]}"));
+        assertThrows(IllegalArgumentException.class, () -> load("{\"mappings\":[{\"section\":\"s\","
+                + "\"fields\":[{\"name\":\"a\",\"type\":\"date\"}]}]}"));
+        assertThrows(IllegalArgumentException.class, () -> load("{\"mappings\":[{\"section\":\"s\","
+                + "\"fields\":[{\"name\":\"a\"},{\"name\":\"a\"}]}]}"));
+    }
+
+    private DeviceMappings defaultMappings() throws IOException {
+        DeviceMappings mappings = new DeviceMappings();
+        try (InputStream input = getClass().getResourceAsStream("/device-mappings.json")) {
+            mappings.load(input);
+        }
+        return mappings;
+    }
+
+    private static DeviceMappings load(String descriptor) throws IOException {
+        DeviceMappings mappings = new DeviceMappings();
+        mappings.load(new ByteArrayInputStream(descriptor.getBytes(StandardCharsets.UTF_8)));
+        return mappings;
+    }
+
+    private JsonNode json(String text) throws IOException {
+        return objectMapper.readTree(text);
+    }
+}
@@ -0,0 +1,107 @@
+package com.observis.dmconfig.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for DeviceRegistry - indexed lookup of the device files in devices.d
+ */
+@SpringBootTest
+class DeviceRegistryTest {
+
+    @Autowired
+    private DeviceRegistry deviceRegistry;
+
+    @Autowired
+    private ConfigService configService;
+
+    @Value("${dm.config.devices.dir}")
+    private String devicesDir;
+
+    @DynamicPropertySource
+    static void devicesDir(DynamicPropertyRegistry registry) {
+        TestDevicesDir.register(registry);
+    }
+
+    // ===== Test: All device files are registered, devices.json is not =====
+    @Test
+    void testScan_RegistersDeviceFilesOnly() {
+        // Act
+        List<String> names = deviceRegistry.find(Map.of()).stream()
+                .map(DeviceRegistry.DeviceInfo::getName)
+                .collect(Collectors.toList());
+
+        // Assert
+        assertEquals(List.of("IBAC", "S900", "oritestgtdb", "wxt53x"), names);
+        assertFalse(deviceRegistry.contains("devices"));
+    }
+
+    // ===== Test: Filters are case-insensitive and intersected =====
+    @Test
+    void testFind_FiltersByIndexedFields() {
+        // Act
+        List<DeviceRegistry.DeviceInfo> serial = deviceRegistry.find(Map.of("connectionType", "serial"));
+        List<DeviceRegistry.DeviceInfo> serialIbac = deviceRegistry.find(
+                Map.of("connectionType", "SERIAL", "deviceKey", "IBAC2"));
+        List<DeviceRegistry.DeviceInfo> none = deviceRegistry.find(Map.of("deviceMainType", "unknown"));
+
+        // Assert
+        assertEquals(List.of("IBAC", "wxt53x"),
+                serial.stream().map(DeviceRegistry.DeviceInfo::getName).collect(Collectors.toList()));
+        assertEquals(1, serialIbac.size());
+        assertEquals("IBAC2", serialIbac.get(0).getDeviceMainType());
+        assertTrue(none.isEmpty());
+    }
+
+    // ===== Test: Unknown filter fields are rejected =====
+    @Test
+    void testFind_UnknownFilter_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> deviceRegistry.find(Map.of("address", "1.2.3.4")));
+    }
+
+    // ===== Test: A new device file is picked up on refresh and dropped once deleted =====
+    @Test
+    void testRefresh_PicksUpNewAndDeletedFiles() throws Exception {
+        // Arrange
+        Path file = Paths.get(devicesDir, "registry-test.json");
+        Files.writeString(file, "{\"networkDeviceConfiguration\":{\"deviceKey\":\"RT1\",\"deviceMainType\":\"RT\"}}");
+
+        try {
+            // Act
+            deviceRegistry.refresh("registry-test");
+            DeviceRegistry.DeviceInfo info = deviceRegistry.get("registry-test");
+
+            // Assert
+            assertNotNull(info);
+            assertEquals("TCPIP", info.getConnectionType());
+            assertTrue(info.isEnabled());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        deviceRegistry.refresh("registry-test");
+        assertFalse(deviceRegistry.contains("registry-test"));
+    }
+
+    // ===== Test: Unknown device names are rejected from the registry =====
+    @Test
+    void testGetDeviceConfig_UnknownDevice_Throws() {
+        // Act & Assert
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> configService.getDeviceConfig("no-such-device"));
+        assertTrue(e.getMessage().contains("Device not found"));
+    }
+}
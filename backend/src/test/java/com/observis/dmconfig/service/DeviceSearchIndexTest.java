@@ -0,0 +1,95 @@
+package com.observis.dmconfig.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for DeviceSearchIndex - prefix text search over device files
+ */
+@SpringBootTest
+class DeviceSearchIndexTest {
+
+    private static final String DEVICE = "search-test";
+
+    private static final String DEVICE_JSON = "{\"networkDeviceConfiguration\":{"
+            + "\"deviceKey\":\"ST1\",\"name\":\"Vaisala Weather\",\"categoryName\":\"Bunker-North\","
+            + "\"description\":\"Roof mounted station\","
+            + "\"phenomenons\":{\"data/ta\":{\"type\":\"AIR_TEMPERATURE\",\"name\":\"Air temperature\"}}}}";
+
+    @Autowired
+    private DeviceSearchIndex deviceSearchIndex;
+
+    @Autowired
+    private DeviceRegistry deviceRegistry;
+
+    @Value("${dm.config.devices.dir}")
+    private String devicesDir;
+
+    @DynamicPropertySource
+    static void devicesDir(DynamicPropertyRegistry registry) {
+        TestDevicesDir.register(registry);
+    }
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        Files.deleteIfExists(Paths.get(devicesDir, DEVICE + ".json"));
+        deviceRegistry.refresh(DEVICE);
+    }
+
+    // ===== Test: Every query word matches as a prefix, case-insensitively =====
+    @Test
+    void testSearch_MatchesAllWordsAsPrefixes() throws Exception {
+        // Arrange
+        Files.writeString(Paths.get(devicesDir, DEVICE + ".json"), DEVICE_JSON);
+        deviceRegistry.refresh(DEVICE);
+
+        // Act & Assert
+        assertEquals(List.of(DEVICE), names(deviceSearchIndex.search("vais")));
+        assertEquals(List.of(DEVICE), names(deviceSearchIndex.search("BUNKER nor")));
+        assertEquals(List.of(DEVICE), names(deviceSearchIndex.search("air temp")));
+        assertEquals("Roof mounted station", deviceSearchIndex.search("roof").get(0).getDescription());
+        assertTrue(deviceSearchIndex.search("vaisala flir").isEmpty());
+        assertTrue(deviceSearchIndex.search("  ").isEmpty());
+    }
+
+    // ===== Test: Changed and deleted files replace their tokens =====
+    @Test
+    void testRefresh_ReplacesTokens() throws Exception {
+        // Arrange
+        Path file = Paths.get(devicesDir, DEVICE + ".json");
+        Files.writeString(file, DEVICE_JSON);
+        deviceRegistry.refresh(DEVICE);
+
+        // Act
+        Files.writeString(file, DEVICE_JSON.replace("Vaisala", "Zephyr"));
+        deviceRegistry.refresh(DEVICE);
+
+        // Assert
+        assertTrue(deviceSearchIndex.search("vaisala").isEmpty());
+        assertEquals(List.of(DEVICE), names(deviceSearchIndex.search("zeph")));
+
+        // Act
+        Files.delete(file);
+        deviceRegistry.refresh(DEVICE);
+
+        // Assert
+        assertTrue(deviceSearchIndex.search("zeph").isEmpty());
+    }
+
+    private static List<String> names(List<DeviceSearchIndex.Hit> hits) {
+        return hits.stream().map(DeviceSearchIndex.Hit::getDevice).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,66 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for DeviceSectionReader - the device section walk shared by the device indexes
+ */
+@SpringBootTest
+class DeviceSectionReaderTest {
+
+    @Autowired
+    private DeviceMappings deviceMappings;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // ===== Test: Members of the first device section replace top-level members seen before it =====
+    @Test
+    void testRead_SectionMembersOnly() throws IOException {
+        List<String> members = read("{\"name\":\"top\",\"networkDeviceConfiguration\":{\"name\":\"a\",\"phenomenons\":{}},"
+                + "\"serialDeviceConfiguration\":{\"name\":\"b\"},\"description\":\"after\"}");
+
+        assertEquals(List.of("name", "phenomenons"), members);
+    }
+
+    // ===== Test: Flat files are read from the top level =====
+    @Test
+    void testRead_FlatFormat() throws IOException {
+        assertEquals(List.of("name", "phenomenons"), read("{\"name\":\"flat\",\"phenomenons\":{}}"));
+    }
+
+    // ===== Test: Non-object documents are not device files =====
+    @Test
+    void testRead_NotAnObject() throws IOException {
+        assertNull(read("[1,2]"));
+    }
+
+    private List<String> read(String json) throws IOException {
+        List<String> members = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            boolean read = DeviceSectionReader.read(parser, deviceMappings, new DeviceSectionReader.Handler() {
+                @Override
+                public void sectionStart() {
+                    members.clear();
+                }
+
+                @Override
+                public void member(JsonParser parser, String name) throws IOException {
+                    members.add(name);
+                    parser.skipChildren();
+                }
+            });
+            return read ? members : null;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.observis.dmconfig.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for FileLockManager - per-file read/write locking of read-modify-write paths
+ */
+@SpringBootTest
+class FileLockManagerTest {
+
+    @Autowired
+    private FileLockManager fileLockManager;
+
+    @Autowired
+    private FileService fileService;
+
+    @TempDir
+    Path tempDir;
+
+    // ===== Test: Concurrent read-modify-write does not lose updates =====
+    @Test
+    void testWriteLock_ConcurrentReadModifyWrite_NoLostUpdates() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("config.properties");
+        Files.writeString(file, "counter=0\n");
+        String filePath = file.toString();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            futures.add(executor.submit(() -> fileLockManager.withWriteLock(filePath, () -> {
+                Properties properties = fileService.readPropertiesFile(filePath);
+                int counter = Integer.parseInt(properties.getProperty("counter"));
+                properties.setProperty("counter", String.valueOf(counter + 1));
+                fileService.writePropertiesFile(filePath, properties);
+                return null;
+            })));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals("20", fileService.readPropertiesFile(filePath).getProperty("counter"));
+    }
+
+    // ===== Test: Reading one file is not blocked by a write to another =====
+    @Test
+    void testReadLock_NotBlockedByWriteOnOtherFile() throws Exception {
+        // Arrange
+        String ibac = tempDir.resolve("IBAC.json").toString();
+        String s900 = tempDir.resolve("S900.json").toString();
+        CountDownLatch writeLockHeld = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> writer = executor.submit(() -> fileLockManager.withWriteLock(ibac, () -> {
+            writeLockHeld.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertTrue(writeLockHeld.await(5, TimeUnit.SECONDS));
+
+        // Act
+        String result = fileLockManager.withReadLock(s900, () -> "read");
+
+        // Assert
+        assertEquals("read", result);
+        release.countDown();
+        writer.get();
+        executor.shutdown();
+    }
+
+    // ===== Test: Contention counters are exposed per file =====
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetStats_ReportsAcquisitionsPerFile() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("devices.json");
+        Files.writeString(file, "{}");
+
+        // Act
+        fileLockManager.withReadLock(file.toString(), () -> null);
+        fileLockManager.withWriteLock(file.toString(), () -> null);
+
+        // Assert
+        Map<String, Object> stats = (Map<String, Object>) fileLockManager.getStats().get(file.toRealPath().toString());
+        assertNotNull(stats);
+        assertEquals(1L, stats.get("readAcquisitions"));
+        assertEquals(1L, stats.get("writeAcquisitions"));
+    }
+
+    // ===== Test: Spellings through a symlinked directory share a lock, also before the file exists =====
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLock_SymlinkedDirectory_SameLockBeforeAndAfterCreation() throws Exception {
+        // Arrange
+        Path realDir = Files.createDirectory(tempDir.resolve("real"));
+        Path linkedDir = Files.createSymbolicLink(tempDir.resolve("linked"), realDir);
+        Path viaLink = linkedDir.resolve("new-device.json");
+        Path viaReal = realDir.resolve("new-device.json");
+
+        // Act - first lock before the file exists, then again once it does
+        fileLockManager.withWriteLock(viaLink.toString(), () -> null);
+        Files.writeString(viaReal, "{}");
+        fileLockManager.withWriteLock(viaReal.toString(), () -> null);
+        fileLockManager.withReadLock(viaLink.toString(), () -> null);
+
+        // Assert
+        Map<String, Object> stats = (Map<String, Object>) fileLockManager.getStats().get(viaReal.toRealPath().toString());
+        assertEquals(2L, stats.get("writeAcquisitions"));
+        assertEquals(1L, stats.get("readAcquisitions"));
+    }
+}
@@ -13,7 +13,13 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -204,5 +210,82 @@ class FileServiceTest {
         assertTrue(content.contains("key1=value1") || content.contains("key1 = value1"));
         assertTrue(content.contains("key2=value2") || content.contains("key2 = value2"));
     }
-}
 
+    // ===== Test: Atomic write leaves no temp files behind =====
+    @Test
+    void testWriteJsonFile_LeavesNoTempFiles() throws IOException {
+        // Arrange
+        Files.writeString(devicesJsonPath, "{\"deviceManagerKey\": \"old_key\"}");
+        ObjectNode updatedJson = objectMapper.createObjectNode();
+        updatedJson.put("deviceManagerKey", "new_key");
+
+        // Act
+        fileService.writeJsonFile(devicesJsonPath.toString(), updatedJson);
+
+        // Assert
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(devicesJsonPath), files.collect(Collectors.toList()));
+        }
+    }
+
+    // ===== Test: Atomic write keeps the permissions of the replaced file =====
+    @Test
+    void testWritePropertiesFile_PreservesFilePermissions() throws IOException {
+        // Arrange
+        Files.writeString(configPropertiesPath, "key1=value1\n");
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+        Files.setPosixFilePermissions(configPropertiesPath, permissions);
+
+        Properties properties = new Properties();
+        properties.setProperty("key1", "value2");
+
+        // Act
+        fileService.writePropertiesFile(configPropertiesPath.toString(), properties);
+
+        // Assert
+        assertEquals(permissions, Files.getPosixFilePermissions(configPropertiesPath));
+    }
+
+    // ===== Test: Write returns the content version and a stale version is rejected =====
+    @Test
+    void testCheckVersion_RejectsVersionBeforeWrite() throws IOException {
+        // Arrange
+        Files.writeString(devicesJsonPath, "{\"deviceManagerKey\": \"old_key\"}");
+        String before = fileService.getVersion(devicesJsonPath.toString());
+        ObjectNode updatedJson = objectMapper.createObjectNode();
+        updatedJson.put("deviceManagerKey", "new_key");
+
+        // Act
+        String after = fileService.writeJsonFile(devicesJsonPath.toString(), updatedJson);
+
+        // Assert
+        assertNotEquals(before, after);
+        assertEquals(after, fileService.getVersion(devicesJsonPath.toString()));
+        assertDoesNotThrow(() -> fileService.checkVersion(devicesJsonPath.toString(), after));
+        assertThrows(VersionConflictException.class,
+                () -> fileService.checkVersion(devicesJsonPath.toString(), before));
+    }
+
+    // ===== Test: Properties write keeps comments and order, and skips unchanged content =====
+    @Test
+    void testWritePropertiesFile_PatchesInPlace() throws IOException {
+        // Arrange
+        String original = "# Device manager\nzeta=1\nalpha=2\n";
+        Files.writeString(configPropertiesPath, original);
+        Properties properties = fileService.readPropertiesFile(configPropertiesPath.toString());
+
+        // Act - unchanged
+        String version = fileService.writePropertiesFile(configPropertiesPath.toString(), properties);
+
+        // Assert
+        assertEquals(original, Files.readString(configPropertiesPath));
+        assertEquals(fileService.getVersion(configPropertiesPath.toString()), version);
+
+        // Act - one value changed
+        properties.setProperty("alpha", "3");
+        fileService.writePropertiesFile(configPropertiesPath.toString(), properties);
+
+        // Assert
+        assertEquals("# Device manager\nzeta=1\nalpha=3\n", Files.readString(configPropertiesPath));
+    }
+}
@@ -0,0 +1,69 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for JsonDiff - structural diff as RFC 6902 style operations
+ */
+class JsonDiffTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // ===== Test: Only differing members are reported, with old and new values =====
+    @Test
+    void testDiff_ReportsChangedMembersOnly() throws IOException {
+        // Act
+        JsonNode changes = JsonDiff.diff(
+                json("{\"a\":\"b\",\"c\":{\"d\":1,\"e\":2},\"gone\":true}"),
+                json("{\"a\":\"b\",\"c\":{\"d\":1.0,\"e\":3},\"new\":\"x\"}"));
+
+        // Assert
+        assertEquals(json("["
+                + "{\"op\":\"replace\",\"path\":\"/c/e\",\"old\":2,\"value\":3},"
+                + "{\"op\":\"remove\",\"path\":\"/gone\",\"old\":true},"
+                + "{\"op\":\"add\",\"path\":\"/new\",\"value\":\"x\"}"
+                + "]"), changes);
+    }
+
+    // ===== Test: Arrays are compared by index, removals from the end first =====
+    @Test
+    void testDiff_ComparesArraysByIndex() throws IOException {
+        // Act
+        JsonNode changes = JsonDiff.diff(json("{\"p\":[{\"k\":1},2,3,4]}"), json("{\"p\":[{\"k\":5},2]}"));
+
+        // Assert
+        assertEquals(json("["
+                + "{\"op\":\"replace\",\"path\":\"/p/0/k\",\"old\":1,\"value\":5},"
+                + "{\"op\":\"remove\",\"path\":\"/p/3\",\"old\":4},"
+                + "{\"op\":\"remove\",\"path\":\"/p/2\",\"old\":3}"
+                + "]"), changes);
+    }
+
+    // ===== Test: Flat maps diff per key with escaped pointers =====
+    @Test
+    void testDiff_Maps() throws IOException {
+        // Arrange
+        Map<String, String> before = new HashMap<>();
+        before.put("mqtt/url", "tcp://a:1883");
+        before.put("same", "1");
+        Map<String, String> after = new HashMap<>(before);
+        after.put("mqtt/url", "tcp://b:1883");
+
+        // Act & Assert
+        assertEquals(json("[{\"op\":\"replace\",\"path\":\"/mqtt~1url\",\"old\":\"tcp://a:1883\",\"value\":\"tcp://b:1883\"}]"),
+                JsonDiff.diff(before, after));
+        assertTrue(JsonDiff.diff(before, before).isEmpty());
+    }
+
+    private JsonNode json(String text) throws IOException {
+        return objectMapper.readTree(text);
+    }
+}
@@ -0,0 +1,154 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for JsonPatcher - RFC 7396 merge patches and RFC 6902 JSON Patch
+ */
+class JsonPatcherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // ===== Test: Merge patch changes, adds and removes members without touching the target =====
+    @Test
+    void testMergePatch_CopiesOnlyPatchedPaths() throws IOException {
+        // Arrange
+        JsonNode target = json("{\"a\":\"b\",\"c\":{\"d\":\"e\",\"f\":\"g\"},\"keep\":[1,2]}");
+        JsonNode original = target.deepCopy();
+        JsonNode keep = target.get("keep");
+
+        // Act
+        JsonNode result = JsonPatcher.applyMergePatch(target, json("{\"a\":\"z\",\"c\":{\"f\":null},\"n\":1}"));
+
+        // Assert
+        assertEquals(original, target);
+        assertSame(keep, result.get("keep"));
+        assertEquals(json("{\"a\":\"z\",\"c\":{\"d\":\"e\"},\"keep\":[1,2],\"n\":1}"), result);
+    }
+
+    // ===== Test: Merge patch replaces arrays and non-object targets =====
+    @Test
+    void testMergePatch_ReplacesArraysAndScalars() throws IOException {
+        // Act
+        JsonNode result = JsonPatcher.applyMergePatch(json("{\"a\":[1,2],\"b\":\"x\"}"), json("{\"a\":[3],\"b\":{\"c\":1}}"));
+
+        // Assert
+        assertEquals(json("{\"a\":[3],\"b\":{\"c\":1}}"), result);
+    }
+
+    // ===== Test: JSON Patch leaves the target alone and shares unchanged subtrees =====
+    @Test
+    void testJsonPatch_CopyOnWrite() throws IOException {
+        // Arrange
+        JsonNode target = json("{\"a\":{\"b\":1,\"c\":[1,2]},\"keep\":{\"x\":1}}");
+        JsonNode original = target.deepCopy();
+
+        // Act
+        JsonNode result = JsonPatcher.applyJsonPatch(target, json("["
+                + "{\"op\":\"replace\",\"path\":\"/a/b\",\"value\":2},"
+                + "{\"op\":\"copy\",\"from\":\"/keep\",\"path\":\"/copied\"},"
+                + "{\"op\":\"add\",\"path\":\"/copied/y\",\"value\":2},"
+                + "{\"op\":\"add\",\"path\":\"/a/c/-\",\"value\":3}]"));
+
+        // Assert
+        assertEquals(original, target);
+        assertSame(target.get("keep"), result.get("keep"));
+        assertEquals(json("{\"a\":{\"b\":2,\"c\":[1,2,3]},\"keep\":{\"x\":1},\"copied\":{\"x\":1,\"y\":2}}"), result);
+    }
+
+    // ===== Test: JSON Patch reaches phenomenons and measPoints of a stored device file =====
+    @Test
+    void testJsonPatch_AddressesPhenomenonsAndMeasPoints() throws IOException {
+        // Arrange
+        JsonNode device = objectMapper.readTree(Paths.get("src/main/resources/dev-data/S900.json").toFile());
+        JsonNode original = device.deepCopy();
+        JsonNode untouched = device.at("/networkDeviceConfiguration/phenomenons/data~1nCps");
+        JsonNode patch = json("["
+                + "{\"op\":\"test\",\"path\":\"/networkDeviceConfiguration/deviceKey\",\"value\":\"S900\"},"
+                + "{\"op\":\"replace\",\"path\":\"/networkDeviceConfiguration/portNumber\",\"value\":\"21014\"},"
+                + "{\"op\":\"replace\",\"path\":\"/networkDeviceConfiguration/phenomenons/data~1doseRate/unit\",\"value\":\"uSv/h\"},"
+                + "{\"op\":\"add\",\"path\":\"/networkDeviceConfiguration/measPoints/-\","
+                + "\"value\":{\"measPointKey\":\"S900-2\",\"order\":1,\"phenomenonType\":\"GAMMA_RATE\"}}"
+                + "]");
+
+        // Act
+        JsonNode result = JsonPatcher.applyJsonPatch(device, patch);
+
+        // Assert
+        assertEquals(original, device);
+        assertSame(untouched, result.at("/networkDeviceConfiguration/phenomenons/data~1nCps"));
+        assertEquals("21014", result.at("/networkDeviceConfiguration/portNumber").asText());
+        assertEquals("uSv/h", result.at("/networkDeviceConfiguration/phenomenons/data~1doseRate/unit").asText());
+        assertEquals("S900-2", result.at("/networkDeviceConfiguration/measPoints/1/measPointKey").asText());
+    }
+
+    // ===== Test: Replace keeps the member's position =====
+    @Test
+    void testJsonPatch_ReplaceKeepsOrder() throws IOException {
+        // Act
+        JsonNode result = JsonPatcher.applyJsonPatch(json("{\"a\":1,\"b\":2,\"c\":3}"),
+                json("[{\"op\":\"replace\",\"path\":\"/a\",\"value\":9}]"));
+
+        // Assert
+        assertEquals("{\"a\":9,\"b\":2,\"c\":3}", objectMapper.writeValueAsString(result));
+    }
+
+    // ===== Test: Move relocates a value =====
+    @Test
+    void testJsonPatch_Move() throws IOException {
+        // Act
+        JsonNode result = JsonPatcher.applyJsonPatch(json("{\"a\":{\"b\":1},\"c\":[]}"),
+                json("[{\"op\":\"move\",\"from\":\"/a/b\",\"path\":\"/c/0\"}]"));
+
+        // Assert
+        assertEquals(json("{\"a\":{},\"c\":[1]}"), result);
+    }
+
+    // ===== Test: Failing test operations and bad paths are rejected =====
+    @Test
+    void testJsonPatch_InvalidOperations_Throw() throws IOException {
+        // Arrange
+        JsonNode target = json("{\"a\":1,\"list\":[1]}");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> JsonPatcher.applyJsonPatch(target, json("[{\"op\":\"test\",\"path\":\"/a\",\"value\":2}]")));
+        assertThrows(IllegalArgumentException.class,
+                () -> JsonPatcher.applyJsonPatch(target, json("[{\"op\":\"remove\",\"path\":\"/missing\"}]")));
+        assertThrows(IllegalArgumentException.class,
+                () -> JsonPatcher.applyJsonPatch(target, json("[{\"op\":\"add\",\"path\":\"/list/5\",\"value\":1}]")));
+        assertThrows(IllegalArgumentException.class,
+                () -> JsonPatcher.applyJsonPatch(target, json("[{\"op\":\"move\",\"from\":\"/list\",\"path\":\"/list/0\"}]")));
+        assertThrows(IllegalArgumentException.class,
+                () -> JsonPatcher.applyJsonPatch(target, json("{\"op\":\"remove\",\"path\":\"/a\"}")));
+    }
+
+    // ===== Test: Test operation compares numbers by value =====
+    @Test
+    void testJsonPatch_TestComparesNumbersByValue() throws IOException {
+        // Act & Assert
+        assertDoesNotThrow(() -> JsonPatcher.applyJsonPatch(json("{\"a\":1}"),
+                json("[{\"op\":\"test\",\"path\":\"/a\",\"value\":1.0}]")));
+    }
+
+    // ===== Test: JSON Pointer escapes are decoded =====
+    @Test
+    void testParsePointer_Unescapes() {
+        // Act & Assert
+        assertEquals(List.of("a/b", "m~n", ""), JsonPatcher.parsePointer("/a~1b/m~0n/"));
+        assertEquals(List.of(), JsonPatcher.parsePointer(""));
+        assertThrows(IllegalArgumentException.class, () -> JsonPatcher.parsePointer("a"));
+    }
+
+    private JsonNode json(String text) throws IOException {
+        return objectMapper.readTree(text);
+    }
+}
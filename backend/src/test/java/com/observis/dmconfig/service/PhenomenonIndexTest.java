@@ -0,0 +1,107 @@
+package com.observis.dmconfig.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for PhenomenonIndex - inverted index over phenomenons and measPoints
+ */
+@SpringBootTest
+class PhenomenonIndexTest {
+
+    private static final String DEVICE = "phenomenon-test";
+
+    private static final String DEVICE_JSON = "{\"networkDeviceConfiguration\":{"
+            + "\"deviceKey\":\"PT1\",\"deviceMainType\":\"PT\","
+            + "\"measPoints\":[{\"measPointKey\":\"PT1\",\"order\":0,\"phenomenonType\":\"PT_TEMPERATURE\"}],"
+            + "\"phenomenons\":{"
+            + "\"data/doseRate\":{\"type\":\"PT_DOSE_RATE\",\"name\":\"Dose rate\",\"unit\":\"µSv/h\",\"measValueType\":2},"
+            + "\"data/nCps\":{\"type\":\"PT_NEUTRON_RATE\",\"name\":\"Neutron rate\",\"unit\":\"pt-cps\",\"measValueType\":2}}}}";
+
+    @Autowired
+    private PhenomenonIndex phenomenonIndex;
+
+    @Autowired
+    private DeviceRegistry deviceRegistry;
+
+    @Value("${dm.config.devices.dir}")
+    private String devicesDir;
+
+    @DynamicPropertySource
+    static void devicesDir(DynamicPropertyRegistry registry) {
+        TestDevicesDir.register(registry);
+    }
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        Files.deleteIfExists(Paths.get(devicesDir, DEVICE + ".json"));
+        deviceRegistry.refresh(DEVICE);
+    }
+
+    // ===== Test: Phenomenons and measPoints are indexed when a device is refreshed =====
+    @Test
+    void testRefresh_IndexesPhenomenonsAndMeasPoints() throws Exception {
+        // Arrange
+        Files.writeString(Paths.get(devicesDir, DEVICE + ".json"), DEVICE_JSON);
+
+        // Act
+        deviceRegistry.refresh(DEVICE);
+        List<PhenomenonIndex.Phenomenon> doseRate = phenomenonIndex.find(Map.of("type", "pt_dose_rate"));
+        List<PhenomenonIndex.Phenomenon> rate2 = phenomenonIndex.find(Map.of("measValueType", "2", "unit", "pt-cps"));
+
+        // Assert
+        assertEquals(1, doseRate.size());
+        assertEquals("data/doseRate", doseRate.get(0).getKey());
+        assertEquals("µSv/h", doseRate.get(0).getUnit());
+        assertEquals(1, rate2.size());
+        assertEquals("PT_NEUTRON_RATE", rate2.get(0).getType());
+        assertEquals(Set.of(DEVICE), phenomenonIndex.findDevices("PT_DOSE_RATE"));
+        assertEquals(Set.of(DEVICE), phenomenonIndex.findDevices("pt_temperature"));
+    }
+
+    // ===== Test: A changed or deleted device file drops its old entries =====
+    @Test
+    void testRefresh_ReplacesAndRemovesEntries() throws Exception {
+        // Arrange
+        Path file = Paths.get(devicesDir, DEVICE + ".json");
+        Files.writeString(file, DEVICE_JSON);
+        deviceRegistry.refresh(DEVICE);
+
+        // Act
+        Files.writeString(file, DEVICE_JSON.replace("PT_NEUTRON_RATE", "PT_GAMMA_RATE"));
+        deviceRegistry.refresh(DEVICE);
+
+        // Assert
+        assertTrue(phenomenonIndex.findDevices("PT_NEUTRON_RATE").isEmpty());
+        assertEquals(1, phenomenonIndex.find(Map.of("type", "PT_GAMMA_RATE")).size());
+
+        // Act
+        Files.delete(file);
+        deviceRegistry.refresh(DEVICE);
+
+        // Assert
+        assertTrue(phenomenonIndex.find(Map.of("unit", "µSv/h")).isEmpty());
+        assertTrue(phenomenonIndex.findDevices("PT_GAMMA_RATE").isEmpty());
+    }
+
+    // ===== Test: Unknown filter fields are rejected =====
+    @Test
+    void testFind_UnknownFilter_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> phenomenonIndex.find(Map.of("name", "x")));
+    }
+}
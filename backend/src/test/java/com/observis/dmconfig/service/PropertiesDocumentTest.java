@@ -0,0 +1,142 @@
+package com.observis.dmconfig.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for PropertiesDocument - order and comment preserving properties model
+ */
+class PropertiesDocumentTest {
+
+    // ===== Test: Unmodified document serializes to the same bytes =====
+    @Test
+    void testParse_RoundTripIsByteIdentical() throws IOException {
+        // Arrange
+        byte[] content = Files.readAllBytes(Paths.get("src/main/resources/dev-data/config.properties"));
+
+        // Act
+        PropertiesDocument document = PropertiesDocument.parse(content);
+
+        // Assert
+        assertArrayEquals(content, document.toBytes());
+        assertEquals(load(content), toProperties(document, load(content)));
+    }
+
+    // ===== Test: Changing one value patches only its line =====
+    @Test
+    void testSet_PatchesSingleLine() {
+        // Arrange
+        String original = "# Broker settings\n"
+                + "fi.observis.sas.mqtt.url=tcp\\://10.0.0.1\\:1883\n"
+                + "\n"
+                + "fi.observis.sas.mqtt.password = admin\n"
+                + "a.key=1\n";
+        PropertiesDocument document = PropertiesDocument.parse(bytes(original));
+
+        // Act
+        boolean changed = document.set("fi.observis.sas.mqtt.password", "s3cret");
+
+        // Assert
+        assertTrue(changed);
+        assertEquals(original.replace("= admin", "= s3cret"), text(document));
+    }
+
+    // ===== Test: Setting the current value is not a change =====
+    @Test
+    void testUpdate_SameValues_Unchanged() throws IOException {
+        // Arrange
+        byte[] content = Files.readAllBytes(Paths.get("src/main/resources/dev-data/config.properties"));
+        PropertiesDocument document = PropertiesDocument.parse(content);
+
+        // Act
+        boolean changed = document.update(load(content));
+
+        // Assert
+        assertFalse(changed);
+        assertArrayEquals(content, document.toBytes());
+    }
+
+    // ===== Test: Added and removed keys; comments stay =====
+    @Test
+    void testUpdate_AppendsNewKeysAndDropsRemovedOnes() throws IOException {
+        // Arrange
+        PropertiesDocument document = PropertiesDocument.parse(bytes("# header\nkeep=1\ndrop=2\n"));
+        Properties properties = new Properties();
+        properties.setProperty("keep", "1");
+        properties.setProperty("new key", "a=b: ü\t");
+
+        // Act
+        document.update(properties);
+
+        // Assert - escaped as Properties.store would, and loads back to the same values
+        assertEquals("# header\nkeep=1\nnew\\ key=a\\=b\\: \\u00FC\\t\n", text(document));
+        assertEquals(properties, load(document.toBytes()));
+    }
+
+    // ===== Test: Continuation lines are parsed like Properties.load =====
+    @Test
+    void testParse_ContinuationLines() throws IOException {
+        // Arrange
+        byte[] content = bytes("list = one, \\\n       two, \\\n       three\r\nnext=x");
+
+        // Act
+        PropertiesDocument document = PropertiesDocument.parse(content);
+
+        // Assert
+        assertEquals(load(content).getProperty("list"), document.get("list"));
+        assertArrayEquals(content, document.toBytes());
+
+        document.set("list", "four");
+        assertEquals("list = four\r\nnext=x", text(document));
+    }
+
+    // ===== Test: Setting a bare key without separator keeps it the same key =====
+    @Test
+    void testSet_BareKeyGetsSeparator() throws IOException {
+        // Arrange
+        PropertiesDocument document = PropertiesDocument.parse(bytes("foo\nescaped\\ \nspaced \n"));
+
+        // Act
+        document.set("foo", "bar");
+        document.set("escaped ", "x");
+        document.set("spaced", "y");
+
+        // Assert
+        assertEquals("foo=bar\nescaped\\ =x\nspaced y\n", text(document));
+        Properties properties = load(document.toBytes());
+        assertEquals("bar", properties.getProperty("foo"));
+        assertEquals("x", properties.getProperty("escaped "));
+        assertEquals("y", properties.getProperty("spaced"));
+        assertEquals(3, properties.size());
+    }
+
+    private static Properties toProperties(PropertiesDocument document, Properties keys) {
+        Properties result = new Properties();
+        for (String key : keys.stringPropertyNames()) {
+            result.setProperty(key, document.get(key));
+        }
+        return result;
+    }
+
+    private static Properties load(byte[] content) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(content));
+        return properties;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static String text(PropertiesDocument document) {
+        return new String(document.toBytes(), StandardCharsets.ISO_8859_1);
+    }
+}
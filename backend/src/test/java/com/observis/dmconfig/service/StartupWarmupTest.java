@@ -0,0 +1,64 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for StartupWarmup - parallel preload of all configuration files at startup
+ */
+@SpringBootTest(properties = "dm.warmup.enabled=true")
+class StartupWarmupTest {
+
+    @Autowired
+    private StartupWarmup startupWarmup;
+
+    @Autowired
+    private DeviceRegistry deviceRegistry;
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @Autowired
+    private ConfigFileCache cache;
+
+    // ===== Test: The warm-up ran before the application reported ready =====
+    @Test
+    void testStartup_WarmupRanBeforeReady() {
+        // Assert
+        assertNotNull(startupWarmup.getStats());
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, applicationAvailability.getReadinessState());
+    }
+
+    // ===== Test: Every configuration file is loaded =====
+    @Test
+    void testRun_LoadsAllFiles() {
+        // Act
+        Map<String, Object> stats = startupWarmup.run();
+
+        // Assert
+        assertEquals(3 + deviceRegistry.getDeviceNames().size(), stats.get("files"));
+        assertEquals(0, stats.get("failures"));
+        assertTrue((Long) stats.get("durationMs") >= 0);
+    }
+
+    // ===== Test: Device trees are in the file cache after the warm-up =====
+    @Test
+    void testRun_CachesDeviceTrees() {
+        // Act
+        startupWarmup.run();
+
+        // Assert
+        for (String deviceName : deviceRegistry.getDeviceNames()) {
+            assertNotNull(cache.get(deviceRegistry.getDeviceFile(deviceName), JsonNode.class), deviceName);
+            assertNotNull(cache.getVersion(deviceRegistry.getDeviceFile(deviceName)), deviceName);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.observis.dmconfig.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TaskScope - structured fan-out with bounded concurrency
+ */
+class TaskScopeTest {
+
+    private final ExecutorService executor = VirtualThreads.newExecutor(false, 8, "task-scope-test-");
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // ===== Test: Results and failures per subtask, at most maxConcurrency at once =====
+    @Test
+    void testJoin_CollectsOutcomesWithinConcurrencyLimit() throws Exception {
+        // Arrange
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<TaskScope.Subtask<Integer>> subtasks = new ArrayList<>();
+
+        // Act
+        try (TaskScope<Integer> scope = new TaskScope<>(executor, 3)) {
+            for (int i = 0; i < 20; i++) {
+                int n = i;
+                subtasks.add(scope.fork(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                    if (n == 7) {
+                        throw new IOException("broken " + n);
+                    }
+                    return n * n;
+                }));
+            }
+            scope.join();
+        }
+
+        // Assert
+        assertTrue(peak.get() <= 3);
+        assertEquals(36, subtasks.get(6).get());
+        assertNull(subtasks.get(6).exception());
+        assertEquals("broken 7", subtasks.get(7).exception().getMessage());
+        assertThrows(IllegalStateException.class, () -> subtasks.get(7).get());
+    }
+
+    // ===== Test: Leaving the scope early interrupts and waits for running subtasks =====
+    @Test
+    void testClose_InterruptsRunningSubtasks() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger finished = new AtomicInteger();
+        TaskScope.Subtask<String> subtask;
+
+        // Act
+        try (TaskScope<String> scope = new TaskScope<>(executor, 2)) {
+            subtask = scope.fork(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                    return "slept";
+                } finally {
+                    finished.incrementAndGet();
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+        }
+
+        // Assert: close() returned only after the subtask ended
+        assertEquals(1, finished.get());
+        assertInstanceOf(InterruptedException.class, subtask.exception());
+    }
+}
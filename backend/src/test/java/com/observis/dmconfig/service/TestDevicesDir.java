@@ -0,0 +1,51 @@
+package com.observis.dmconfig.service;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Copy of the sample device files under target/, used as dm.config.devices.dir by tests that
+ * add or change device files, so the shipped dev-data is never written to. Created fresh once
+ * per test run and shared, so those tests also share one application context.
+ */
+final class TestDevicesDir {
+
+    private static final Path SAMPLE_DIR = Paths.get("src/main/resources/dev-data");
+    private static final Path DIR = Paths.get("target/test-devices");
+
+    private static boolean created;
+
+    private TestDevicesDir() {
+    }
+
+    static void register(DynamicPropertyRegistry registry) {
+        registry.add("dm.config.devices.dir", () -> get().toString());
+    }
+
+    private static synchronized Path get() {
+        if (!created) {
+            try {
+                FileSystemUtils.deleteRecursively(DIR);
+                Files.createDirectories(DIR);
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(SAMPLE_DIR, "*.json")) {
+                    for (Path file : files) {
+                        if (!"devices.json".equals(file.getFileName().toString())) {
+                            Files.copy(file, DIR.resolve(file.getFileName()));
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            created = true;
+        }
+        return DIR;
+    }
+}
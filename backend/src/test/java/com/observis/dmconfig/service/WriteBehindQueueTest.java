@@ -0,0 +1,76 @@
+package com.observis.dmconfig.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for write-behind mode - coalesced saves served from pending state
+ */
+@SpringBootTest(properties = {
+        "dm.write-behind.enabled=true",
+        "dm.write-behind.window-ms=60000"
+})
+class WriteBehindQueueTest {
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TempDir
+    Path tempDir;
+
+    // ===== Test: Rapid saves are collapsed and served before the flush =====
+    @Test
+    void testRapidSaves_ServedFromPendingStateUntilFlush() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("IBAC.json");
+        Files.writeString(file, "{\"name\": \"original\"}");
+
+        // Act
+        for (int i = 1; i <= 3; i++) {
+            ObjectNode update = objectMapper.createObjectNode();
+            update.put("name", "update-" + i);
+            fileService.writeJsonFile(file.toString(), update);
+        }
+
+        // Assert - latest state is visible, disk is untouched until the barrier
+        assertEquals("update-3", fileService.readJsonFile(file.toString()).get("name").asText());
+        assertTrue(Files.readString(file).contains("original"));
+
+        fileService.flushPendingWrites();
+
+        assertTrue(Files.readString(file).contains("update-3"));
+        assertEquals("update-3", fileService.readJsonFile(file.toString()).get("name").asText());
+    }
+
+    // ===== Test: Barrier writes pending properties =====
+    @Test
+    void testFlushPendingWrites_WritesProperties() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("config.properties");
+        Files.writeString(file, "key=old\n");
+        Properties properties = new Properties();
+        properties.setProperty("key", "new");
+
+        // Act
+        fileService.writePropertiesFile(file.toString(), properties);
+        assertEquals("new", fileService.readPropertiesFile(file.toString()).getProperty("key"));
+        fileService.flushPendingWrites();
+
+        // Assert
+        assertTrue(Files.readString(file).contains("key=new"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.observis.dmconfig.validation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for Ipv4 - address parsing and subnet arithmetic
+ */
+class Ipv4Test {
+
+    // ===== Test: Parse to the unsigned 32-bit value, INVALID otherwise =====
+    @Test
+    void testParse() {
+        assertEquals(0xC0A80164L, Ipv4.parse("192.168.1.100"));
+        assertEquals(0xFFFFFFFFL, Ipv4.parse("255.255.255.255"));
+        assertEquals(0L, Ipv4.parse("0.0.0.0"));
+        assertEquals(0x01020304L, Ipv4.parse("01.002.3.4"));
+        assertEquals(Ipv4.INVALID, Ipv4.parse("1.2.3.256"));
+        assertEquals(Ipv4.INVALID, Ipv4.parse("1.2.3"));
+        assertEquals(Ipv4.INVALID, Ipv4.parse(null));
+        assertEquals("192.168.1.100", Ipv4.format((int) Ipv4.parse("192.168.1.100")));
+    }
+
+    // ===== Test: Contiguous masks and prefix length conversion =====
+    @Test
+    void testMasks() {
+        assertTrue(Ipv4.isContiguousMask((int) Ipv4.parse("255.255.255.0")));
+        assertTrue(Ipv4.isContiguousMask((int) Ipv4.parse("255.255.255.255")));
+        assertTrue(Ipv4.isContiguousMask(0));
+        assertFalse(Ipv4.isContiguousMask((int) Ipv4.parse("255.0.255.0")));
+        assertFalse(Ipv4.isContiguousMask((int) Ipv4.parse("0.255.255.255")));
+
+        assertEquals(24, Ipv4.prefixLength((int) Ipv4.parse("255.255.255.0")));
+        assertEquals("255.255.240.0", Ipv4.format(Ipv4.maskOf(20)));
+        assertEquals(0, Ipv4.maskOf(0));
+        assertEquals(-1, Ipv4.maskOf(32));
+        assertThrows(IllegalArgumentException.class, () -> Ipv4.maskOf(33));
+    }
+
+    // ===== Test: Network, broadcast and subnet membership =====
+    @Test
+    void testSubnets() {
+        int address = (int) Ipv4.parse("10.1.2.3");
+        int mask = Ipv4.maskOf(16);
+
+        assertEquals("10.1.0.0", Ipv4.format(Ipv4.networkAddress(address, mask)));
+        assertEquals("10.1.255.255", Ipv4.format(Ipv4.broadcastAddress(address, mask)));
+        assertTrue(Ipv4.inSubnet(address, (int) Ipv4.parse("10.1.200.1"), mask));
+        assertFalse(Ipv4.inSubnet(address, (int) Ipv4.parse("10.2.0.1"), mask));
+
+        assertTrue(Ipv4.isHostAddress(address, mask));
+        assertFalse(Ipv4.isHostAddress((int) Ipv4.parse("10.1.0.0"), mask));
+        assertFalse(Ipv4.isHostAddress((int) Ipv4.parse("10.1.255.255"), mask));
+        assertTrue(Ipv4.isHostAddress((int) Ipv4.parse("10.1.2.2"), Ipv4.maskOf(31)));
+    }
+}
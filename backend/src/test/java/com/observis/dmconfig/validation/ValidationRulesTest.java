@@ -0,0 +1,170 @@
+package com.observis.dmconfig.validation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ValidationRules / DeviceValidator - compiled per device type validation
+ */
+@SpringBootTest(properties = "dm.validation.rules.location=file:target/validation-rules-test.json")
+class ValidationRulesTest {
+
+    private static final Path RULES_FILE = Paths.get("target/validation-rules-test.json");
+
+    static {
+        try {
+            Files.createDirectories(RULES_FILE.getParent());
+            Files.copy(Paths.get("src/main/resources/validation-rules.json"), RULES_FILE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Autowired
+    private ValidationRules validationRules;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // ===== Test: Serial rules accept text and numeric values alike =====
+    @Test
+    void testSerialRules_AcceptTextAndNumbers() throws IOException {
+        // Arrange
+        DeviceValidator validator = validationRules.forDevice("IBAC2", "SERIAL");
+
+        // Act & Assert
+        assertNull(firstError(validator, json("{\"address\":\"ttyS0\",\"speed\":\"9600\",\"bits\":8,\"stopBits\":1,"
+                + "\"parity\":\"N\",\"serialPortType\":\"RS485\",\"name\":\"Bio\"}")));
+        assertEquals("Invalid baud rate", firstError(validator, json("{\"speed\":9601}")));
+        assertEquals("Invalid baud rate", firstError(validator, json("{\"speed\":9600.5}")));
+        assertEquals("Invalid serial port address", firstError(validator, json("{\"address\":\"ttyS9\"}")));
+        assertEquals("Invalid device name: must be max 50 chars", firstError(validator, json("{\"name\":\"\"}")));
+    }
+
+    // ===== Test: Network rules check address and port =====
+    @Test
+    void testNetworkRules_CheckAddressAndPort() throws IOException {
+        // Arrange
+        DeviceValidator validator = validationRules.forDevice(null, "tcpip");
+
+        // Act & Assert
+        assertNull(firstError(validator, json("{\"address\":\"10.0.0.1\",\"portNumber\":\"8080\"}")));
+        assertEquals("Invalid IP address", firstError(validator, json("{\"address\":\"10.0.0\"}")));
+        assertEquals("Invalid port number: must be 1-65535", firstError(validator, json("{\"portNumber\":70000}")));
+        assertThrows(IllegalArgumentException.class, () -> validate(validator, json("{\"portNumber\":\"abc\"}")));
+    }
+
+    // ===== Test: All broken rules are collected in one pass =====
+    @Test
+    void testCheck_CollectsEveryError() throws IOException {
+        // Arrange
+        DeviceValidator validator = validationRules.forDevice(null, "TCPIP");
+        ValidationResult result = new ValidationResult();
+
+        // Act
+        validator.check(json("{\"address\":\"10.0.0\",\"portNumber\":0,\"name\":\"ok\"}"), result);
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> validate(validator, json("{\"address\":\"x\",\"portNumber\":70000}")));
+
+        // Assert
+        assertFalse(result.isValid());
+        assertEquals(List.of("address", "portNumber"),
+                result.getErrors().stream().map(ValidationResult.FieldError::getField).toList());
+        assertEquals("Invalid IP address; Invalid port number: must be 1-65535", e.getMessage());
+        assertEquals(2, e.getResult().getErrors().size());
+        assertEquals(0, e.getStackTrace().length);
+    }
+
+    // ===== Test: Unknown types have no validator =====
+    @Test
+    void testForDevice_UnknownType_ReturnsNull() {
+        // Act & Assert
+        assertNull(validationRules.forDevice("LIDAR", "CAN"));
+    }
+
+    // ===== Test: Rules are reloaded from the descriptor; a broken one keeps the old rules =====
+    @Test
+    void testReload_ReplacesRulesAndKeepsOldOnError() throws IOException {
+        try {
+            // Arrange
+            Files.writeString(RULES_FILE, "{\"deviceTypes\":{\"LIDAR\":{\"properties\":"
+                    + "{\"address\":{\"format\":\"ipv4\",\"message\":\"Bad lidar address\"}}}}}");
+
+            // Act
+            assertTrue(validationRules.reload());
+
+            // Assert
+            assertEquals("Bad lidar address", firstError(validationRules.forDevice("lidar", null), json("{\"address\":\"x\"}")));
+            assertNull(validationRules.forDevice(null, "SERIAL"));
+
+            // Broken descriptor
+            Files.writeString(RULES_FILE, "{\"deviceTypes\":{\"LIDAR\":{\"properties\":{\"address\":{\"format\":\"mac\"}}}}}");
+            assertFalse(validationRules.reload());
+            assertNotNull(validationRules.forDevice("LIDAR", null));
+        } finally {
+            Files.copy(Paths.get("src/main/resources/validation-rules.json"), RULES_FILE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            validationRules.reload();
+        }
+    }
+
+    // ===== Test: Unsupported keywords fail compilation =====
+    @Test
+    void testCompile_UnsupportedRule_Throws() throws IOException {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> ValidationRules.compile(json("{\"deviceTypes\":{\"X\":{\"properties\":{\"a\":{\"type\":\"string\"}}}}}")));
+        assertThrows(IllegalArgumentException.class, () -> ValidationRules.compile(json("{}")));
+        Map<String, DeviceValidator> compiled = ValidationRules.compile(
+                json("{\"deviceTypes\":{\"x\":{\"properties\":{\"a\":{\"pattern\":\"[a-z]+\"}}}}}"));
+        assertEquals("Invalid a", firstError(compiled.get("X"), json("{\"a\":\"A1\"}")));
+    }
+
+    // ===== Test: IPv4 check accepts exactly what the former regex accepted =====
+    @Test
+    void testIpv4_MatchesFormerRegex() {
+        // Arrange
+        Pattern former = Pattern.compile(
+                "^((25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\.){3}(25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)$");
+        List<String> samples = List.of("0.0.0.0", "255.255.255.255", "256.1.1.1", "1.2.3", "1.2.3.4.5", "01.002.3.4",
+                "0001.1.1.1", "1..2.3", ".1.2.3", "1.2.3.", "a.b.c.d", "192.168.1.100", "299.1.1.1", "", " 1.2.3.4",
+                "1.2.3.4 ", "249.250.251.252", "1.2.3.04", "1.2.3.-4");
+
+        // Act & Assert
+        for (String sample : samples) {
+            assertEquals(former.matcher(sample).matches(), Ipv4.isValid(sample), sample);
+        }
+        assertFalse(Ipv4.isValid(null));
+    }
+
+    private static String firstError(DeviceValidator validator, JsonNode config) {
+        ValidationResult result = new ValidationResult();
+        validator.check(config, result);
+        return result.isValid() ? null : result.getErrors().get(0).getMessage();
+    }
+
+    private static void validate(DeviceValidator validator, JsonNode config) {
+        ValidationResult result = new ValidationResult();
+        validator.check(config, result);
+        result.throwIfInvalid();
+    }
+
+    private JsonNode json(String text) throws IOException {
+        return objectMapper.readTree(text);
+    }
+}
@@ -58,6 +58,23 @@ export async function getDeviceConfig(deviceName: string): Promise<any> {
   return response.data;
 }
 
+export interface DeviceBatchResult {
+  success: boolean;
+  config?: any;
+  version?: string;
+  error?: string;
+}
+
+/**
+ * Get several device configurations in one request ('all' for every device)
+ */
+export async function batchGetDeviceConfigs(
+  devices: string[] | 'all'
+): Promise<Record<string, DeviceBatchResult>> {
+  const response = await axios.post(`${API_BASE_URL}/devices/batch-get`, { devices });
+  return response.data.devices;
+}
+
 /**
  * Save device-specific configuration
  */